@@ -2,9 +2,13 @@ package com.example.analytics_svc;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.context.properties.ConfigurationPropertiesScan;
 import org.springframework.cloud.openfeign.EnableFeignClients;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @EnableFeignClients
+@EnableScheduling
+@ConfigurationPropertiesScan
 @SpringBootApplication
 public class AnalyticsSvcApplication {
 
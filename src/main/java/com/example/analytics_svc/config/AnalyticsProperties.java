@@ -0,0 +1,93 @@
+package com.example.analytics_svc.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "analytics")
+public class AnalyticsProperties {
+
+    private Tasks tasks = new Tasks();
+
+    private Persistence persistence = new Persistence();
+
+    private Aggregation aggregation = new Aggregation();
+
+    private Async async = new Async();
+
+    private Cache cache = new Cache();
+
+    private Bulk bulk = new Bulk();
+
+    private Locking locking = new Locking();
+
+    private Overdue overdue = new Overdue();
+
+    @Data
+    public static class Tasks {
+
+        private UpsertMode upsertMode = UpsertMode.DIFF;
+    }
+
+    @Data
+    public static class Persistence {
+
+        private int batchSize = 50;
+    }
+
+    @Data
+    public static class Aggregation {
+
+        private AggregationEngine engine = AggregationEngine.JAVA;
+    }
+
+    @Data
+    public static class Async {
+
+        private boolean enabled = false;
+
+        private int workers = 4;
+
+        private int queueCapacity = 10_000;
+
+        private Duration shutdownTimeout = Duration.ofSeconds(30);
+    }
+
+    @Data
+    public static class Cache {
+
+        private long maximumSize = 10_000;
+
+        private Duration ttl = Duration.ofMinutes(5);
+    }
+
+    @Data
+    public static class Bulk {
+
+        private int workers = Math.min(Runtime.getRuntime().availableProcessors(), 8);
+
+        private int usersPerTransaction = 50;
+    }
+
+    @Data
+    public static class Locking {
+
+        private int stripes = 256;
+
+        private Duration timeout = Duration.ofSeconds(10);
+
+        private boolean databaseLock = false;
+    }
+
+    @Data
+    public static class Overdue {
+
+        private boolean enabled = true;
+
+        private Duration checkInterval = Duration.ofMinutes(1);
+
+        private int batchSize = 1_000;
+    }
+}
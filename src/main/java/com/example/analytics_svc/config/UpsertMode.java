@@ -0,0 +1,8 @@
+package com.example.analytics_svc.config;
+
+public enum UpsertMode {
+
+    REPLACE,
+
+    DIFF
+}
@@ -0,0 +1,12 @@
+package com.example.analytics_svc.domain;
+
+public class MalformedPayload extends RuntimeException {
+
+    public MalformedPayload(String message) {
+        super(message);
+    }
+
+    public MalformedPayload(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,8 @@
+package com.example.analytics_svc.domain;
+
+public class UserWriteLockTimeout extends RuntimeException {
+
+    public UserWriteLockTimeout(String message) {
+        super(message);
+    }
+}
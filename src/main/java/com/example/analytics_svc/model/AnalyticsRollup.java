@@ -0,0 +1,104 @@
+package com.example.analytics_svc.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * One shard of the organization-wide sums and counts. Every user adds the difference between their old and new
+ * analytics to one shard, and the global totals are the sum of all shards.
+ */
+@Entity
+@Data
+@NoArgsConstructor
+public class AnalyticsRollup {
+
+    @Id
+    private int shard;
+
+    @Column(nullable = false)
+    private long taskUsers;
+
+    @Column(nullable = false)
+    private long totalTasks;
+
+    @Column(nullable = false)
+    private long completedTasks;
+
+    @Column(nullable = false)
+    private long inProgressTasks;
+
+    @Column(nullable = false)
+    private long todoTasks;
+
+    @Column(nullable = false)
+    private long overdueTasks;
+
+    @Column(nullable = false)
+    private long lowPriorityCount;
+
+    @Column(nullable = false)
+    private long mediumPriorityCount;
+
+    @Column(nullable = false)
+    private long highPriorityCount;
+
+    @Column(nullable = false)
+    private long completionTimeSum;
+
+    @Column(nullable = false)
+    private long completionTimeCount;
+
+    @Column(nullable = false)
+    private long lifetimeTotalTasks;
+
+    @Column(nullable = false)
+    private long lifetimeCompletedTasks;
+
+    @Column(nullable = false)
+    private long lifetimeAbandonedTasks;
+
+    @Column(nullable = false)
+    private long lifetimeOverdueTasks;
+
+    @Column(nullable = false)
+    private long lifetimeCompletionTimeSum;
+
+    @Column(nullable = false)
+    private long lifetimeCompletionTimeCount;
+
+    @Column(nullable = false)
+    private long projectUsers;
+
+    @Column(nullable = false)
+    private long totalProjects;
+
+    @Column(nullable = false)
+    private long activeProjects;
+
+    @Column(nullable = false)
+    private long completedProjects;
+
+    @Column(nullable = false)
+    private long overdueProjects;
+
+    @Column(nullable = false)
+    private long progressSum;
+
+    @Column(nullable = false)
+    private long totalProjectsLifetime;
+
+    @Column(nullable = false)
+    private long completedProjectsLifetime;
+
+    @Column(nullable = false)
+    private long abandonedProjectsLifetime;
+
+    @Column(nullable = false)
+    private long durationSumLifetime;
+
+    @Column(nullable = false)
+    private long durationCountLifetime;
+}
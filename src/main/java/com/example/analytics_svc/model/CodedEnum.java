@@ -0,0 +1,6 @@
+package com.example.analytics_svc.model;
+
+public interface CodedEnum {
+
+    byte getCode();
+}
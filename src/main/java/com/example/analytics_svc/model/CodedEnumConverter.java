@@ -0,0 +1,44 @@
+package com.example.analytics_svc.model;
+
+import jakarta.persistence.AttributeConverter;
+
+import java.lang.reflect.Array;
+
+/**
+ * Stores a {@link CodedEnum} as its one-byte code; codes are resolved through an array indexed by code.
+ */
+public abstract class CodedEnumConverter<E extends Enum<E> & CodedEnum> implements AttributeConverter<E, Byte> {
+
+    private final E[] byCode;
+
+    @SuppressWarnings("unchecked")
+    protected CodedEnumConverter(Class<E> type) {
+        E[] values = type.getEnumConstants();
+        int size = 0;
+        for (E value : values) {
+            size = Math.max(size, value.getCode() + 1);
+        }
+
+        this.byCode = (E[]) Array.newInstance(type, size);
+        for (E value : values) {
+            byCode[value.getCode()] = value;
+        }
+    }
+
+    @Override
+    public Byte convertToDatabaseColumn(E value) {
+        return value == null ? null : value.getCode();
+    }
+
+    @Override
+    public E convertToEntityAttribute(Byte code) {
+        return code == null ? null : fromCode(code);
+    }
+
+    public E fromCode(byte code) {
+        if (code < 0 || code >= byCode.length || byCode[code] == null) {
+            throw new IllegalArgumentException("Unknown code [%d]".formatted(code));
+        }
+        return byCode[code];
+    }
+}
@@ -1,5 +1,6 @@
 package com.example.analytics_svc.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -19,7 +20,7 @@ public class ProjectAnalytics {
     @GeneratedValue(strategy = GenerationType.UUID)
     private UUID id;
 
-    @Column(nullable = false)
+    @Column(unique = true, nullable = false)
     private UUID userId;
 
     @Column(nullable = false)
@@ -52,4 +53,19 @@ public class ProjectAnalytics {
     @Column(nullable = false)
     private double projectCompletionRateLifetime;
 
+    @Column(nullable = false)
+    private int progressSum;
+
+    @Column(nullable = false)
+    private long durationSumLifetime;
+
+    @Column(nullable = false)
+    private int durationCountLifetime;
+
+    @JsonIgnore
+    private Long payloadHash;
+
+    @Column(nullable = false)
+    private long version;
+
 }
@@ -10,6 +10,10 @@ import java.time.LocalDateTime;
 import java.util.UUID;
 
 @Entity
+@Table(indexes = {
+        @Index(name = "idx_project_snapshot_user_deleted", columnList = "userId, deleted, status, completionPercentage, completionSeconds"),
+        @Index(name = "idx_project_snapshot_open_due", columnList = "deleted, status, dueDate")
+})
 @Data
 @Builder
 @NoArgsConstructor
@@ -30,7 +34,7 @@ public class ProjectSnapshot {
     private LocalDateTime createdOn;
 
     @Column(nullable = false)
-    private String status;
+    private ProjectStatus status;
 
     @Column(nullable = false)
     private LocalDateTime dueDate;
@@ -40,6 +44,8 @@ public class ProjectSnapshot {
 
     private LocalDateTime completedOn;
 
+    private Long completionSeconds;
+
     @Column(nullable = false)
     private boolean deleted;
 
@@ -0,0 +1,18 @@
+package com.example.analytics_svc.model;
+
+import lombok.Getter;
+
+@Getter
+public enum ProjectStatus implements CodedEnum {
+
+    ACTIVE(0),
+    COMPLETED(1),
+    OVERDUE(2),
+    IN_PROGRESS(3);
+
+    private final byte code;
+
+    ProjectStatus(int code) {
+        this.code = (byte) code;
+    }
+}
@@ -0,0 +1,11 @@
+package com.example.analytics_svc.model;
+
+import jakarta.persistence.Converter;
+
+@Converter(autoApply = true)
+public class ProjectStatusConverter extends CodedEnumConverter<ProjectStatus> {
+
+    public ProjectStatusConverter() {
+        super(ProjectStatus.class);
+    }
+}
@@ -1,5 +1,6 @@
 package com.example.analytics_svc.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -72,4 +73,36 @@ public class TaskAnalytics {
 
     @Column(nullable = false)
     private int lifetimeCompletionRate;
+
+    @Column(nullable = false)
+    private long completionTimeSum;
+
+    @Column(nullable = false)
+    private int completionTimeCount;
+
+    @Column(nullable = false)
+    private long lifetimeCompletionTimeSum;
+
+    @Column(nullable = false)
+    private int lifetimeCompletionTimeCount;
+
+    @Column(name = "p50_completion_time", nullable = false)
+    private double p50CompletionTime;
+
+    @Column(name = "p90_completion_time", nullable = false)
+    private double p90CompletionTime;
+
+    @Column(name = "p99_completion_time", nullable = false)
+    private double p99CompletionTime;
+
+    @JsonIgnore
+    @Column(length = 4096)
+    private byte[] completionTimeSketch;
+
+    @JsonIgnore
+    private Long payloadHash;
+
+    @Column(nullable = false)
+    private long version;
+
 }
@@ -0,0 +1,41 @@
+package com.example.analytics_svc.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.util.UUID;
+
+@Entity
+@IdClass(TaskDailyRollupId.class)
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TaskDailyRollup {
+
+    @Id
+    private UUID userId;
+
+    @Id
+    private LocalDate bucketDate;
+
+    @Column(nullable = false)
+    private int createdTasks;
+
+    @Column(nullable = false)
+    private int completedTasks;
+
+    @Column(nullable = false)
+    private int abandonedTasks;
+
+    @Column(nullable = false)
+    private int overdueTasks;
+
+    @Column(nullable = false)
+    private long completionSecondsSum;
+
+}
@@ -0,0 +1,19 @@
+package com.example.analytics_svc.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+import java.util.UUID;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TaskDailyRollupId implements Serializable {
+
+    private UUID userId;
+
+    private LocalDate bucketDate;
+}
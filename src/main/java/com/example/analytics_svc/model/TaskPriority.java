@@ -0,0 +1,17 @@
+package com.example.analytics_svc.model;
+
+import lombok.Getter;
+
+@Getter
+public enum TaskPriority implements CodedEnum {
+
+    LOW(0),
+    MEDIUM(1),
+    HIGH(2);
+
+    private final byte code;
+
+    TaskPriority(int code) {
+        this.code = (byte) code;
+    }
+}
@@ -0,0 +1,11 @@
+package com.example.analytics_svc.model;
+
+import jakarta.persistence.Converter;
+
+@Converter(autoApply = true)
+public class TaskPriorityConverter extends CodedEnumConverter<TaskPriority> {
+
+    public TaskPriorityConverter() {
+        super(TaskPriority.class);
+    }
+}
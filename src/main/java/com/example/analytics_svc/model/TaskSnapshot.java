@@ -10,6 +10,11 @@ import java.time.LocalDateTime;
 import java.util.UUID;
 
 @Entity
+@Table(indexes = {
+        @Index(name = "idx_task_snapshot_user_deleted", columnList = "userId, deleted, status, priority, completionSeconds"),
+        @Index(name = "idx_task_snapshot_user_completion", columnList = "userId, completionSeconds"),
+        @Index(name = "idx_task_snapshot_open_due", columnList = "deleted, status, dueDate")
+})
 @Data
 @Builder
 @AllArgsConstructor
@@ -27,10 +32,10 @@ public class TaskSnapshot {
     private UUID userId;
 
     @Column(nullable = false)
-    private String status;
+    private TaskStatus status;
 
     @Column(nullable = false)
-    private String priority;
+    private TaskPriority priority;
 
     @Column(nullable = false)
     private LocalDateTime createdOn;
@@ -40,6 +45,8 @@ public class TaskSnapshot {
 
     private LocalDateTime completedOn;
 
+    private Long completionSeconds;
+
     @Column(nullable = false)
     private boolean deleted;
 }
@@ -0,0 +1,18 @@
+package com.example.analytics_svc.model;
+
+import lombok.Getter;
+
+@Getter
+public enum TaskStatus implements CodedEnum {
+
+    TODO(0),
+    IN_PROGRESS(1),
+    COMPLETED(2),
+    OVERDUE(3);
+
+    private final byte code;
+
+    TaskStatus(int code) {
+        this.code = (byte) code;
+    }
+}
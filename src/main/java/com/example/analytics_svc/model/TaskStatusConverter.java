@@ -0,0 +1,11 @@
+package com.example.analytics_svc.model;
+
+import jakarta.persistence.Converter;
+
+@Converter(autoApply = true)
+public class TaskStatusConverter extends CodedEnumConverter<TaskStatus> {
+
+    public TaskStatusConverter() {
+        super(TaskStatus.class);
+    }
+}
@@ -0,0 +1,47 @@
+package com.example.analytics_svc.repository;
+
+import com.example.analytics_svc.model.AnalyticsRollup;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface AnalyticsRollupRepository extends JpaRepository<AnalyticsRollup, Integer> {
+
+    @Modifying
+    @Query("""
+            update AnalyticsRollup r set
+                r.taskUsers = r.taskUsers + :#{#delta.taskUsers},
+                r.totalTasks = r.totalTasks + :#{#delta.totalTasks},
+                r.completedTasks = r.completedTasks + :#{#delta.completedTasks},
+                r.inProgressTasks = r.inProgressTasks + :#{#delta.inProgressTasks},
+                r.todoTasks = r.todoTasks + :#{#delta.todoTasks},
+                r.overdueTasks = r.overdueTasks + :#{#delta.overdueTasks},
+                r.lowPriorityCount = r.lowPriorityCount + :#{#delta.lowPriorityCount},
+                r.mediumPriorityCount = r.mediumPriorityCount + :#{#delta.mediumPriorityCount},
+                r.highPriorityCount = r.highPriorityCount + :#{#delta.highPriorityCount},
+                r.completionTimeSum = r.completionTimeSum + :#{#delta.completionTimeSum},
+                r.completionTimeCount = r.completionTimeCount + :#{#delta.completionTimeCount},
+                r.lifetimeTotalTasks = r.lifetimeTotalTasks + :#{#delta.lifetimeTotalTasks},
+                r.lifetimeCompletedTasks = r.lifetimeCompletedTasks + :#{#delta.lifetimeCompletedTasks},
+                r.lifetimeAbandonedTasks = r.lifetimeAbandonedTasks + :#{#delta.lifetimeAbandonedTasks},
+                r.lifetimeOverdueTasks = r.lifetimeOverdueTasks + :#{#delta.lifetimeOverdueTasks},
+                r.lifetimeCompletionTimeSum = r.lifetimeCompletionTimeSum + :#{#delta.lifetimeCompletionTimeSum},
+                r.lifetimeCompletionTimeCount = r.lifetimeCompletionTimeCount + :#{#delta.lifetimeCompletionTimeCount},
+                r.projectUsers = r.projectUsers + :#{#delta.projectUsers},
+                r.totalProjects = r.totalProjects + :#{#delta.totalProjects},
+                r.activeProjects = r.activeProjects + :#{#delta.activeProjects},
+                r.completedProjects = r.completedProjects + :#{#delta.completedProjects},
+                r.overdueProjects = r.overdueProjects + :#{#delta.overdueProjects},
+                r.progressSum = r.progressSum + :#{#delta.progressSum},
+                r.totalProjectsLifetime = r.totalProjectsLifetime + :#{#delta.totalProjectsLifetime},
+                r.completedProjectsLifetime = r.completedProjectsLifetime + :#{#delta.completedProjectsLifetime},
+                r.abandonedProjectsLifetime = r.abandonedProjectsLifetime + :#{#delta.abandonedProjectsLifetime},
+                r.durationSumLifetime = r.durationSumLifetime + :#{#delta.durationSumLifetime},
+                r.durationCountLifetime = r.durationCountLifetime + :#{#delta.durationCountLifetime}
+            where r.shard = :#{#delta.shard}
+            """)
+    void add(@Param("delta") AnalyticsRollup delta);
+}
@@ -0,0 +1,83 @@
+package com.example.analytics_svc.repository;
+
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.nio.ByteBuffer;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+/**
+ * Writes one analytics row per user in a single statement keyed on the unique user_id column.
+ * MySQL uses INSERT ... ON DUPLICATE KEY UPDATE, H2 (tests) uses MERGE ... USING, where the
+ * binary columns need an explicit cast because parameters in a VALUES list are otherwise typed as text.
+ * The existing id is kept and the version is bumped by the database, so concurrent writers cannot create duplicates.
+ * Callers hold the user's write lock and pass the row they read under it, so the resulting id and version are known
+ * without reading the row back.
+ */
+@Component
+class AnalyticsUpsert {
+
+    private final JdbcTemplate jdbcTemplate;
+    private volatile Boolean mysql;
+
+    AnalyticsUpsert(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Returns the id and version of the row after the write; {@code stored} is the user's current row, or {@code null}.
+     */
+    Row upsert(String table, UUID userId, Map<String, Object> values, Row stored) {
+
+        Row written = stored == null ? new Row(UUID.randomUUID(), 1L) : new Row(stored.id(), stored.version() + 1);
+
+        Map<String, Object> columns = new LinkedHashMap<>();
+        columns.put("id", toBytes(written.id()));
+        columns.put("user_id", toBytes(userId));
+        columns.putAll(values);
+        columns.put("version", 1L);
+
+        List<String> names = List.copyOf(columns.keySet());
+        List<String> updated = names.subList(2, names.size() - 1);
+        String placeholders = String.join(", ", Collections.nCopies(names.size(), "?"));
+
+        String sql = isMysql()
+                ? "insert into %s (%s) values (%s) as new on duplicate key update %s, version = version + 1".formatted(
+                        table, String.join(", ", names), placeholders,
+                        updated.stream().map(c -> "%s = new.%s".formatted(c, c)).collect(Collectors.joining(", ")))
+                : ("merge into %s t using (values (%s)) s (%s) on t.user_id = s.user_id"
+                        + " when matched then update set %s, version = t.version + 1"
+                        + " when not matched then insert (%s) values (%s)").formatted(
+                        table, columns.values().stream().map(v -> v instanceof byte[] ? "cast(? as varbinary)" : "?").collect(Collectors.joining(", ")),
+                        String.join(", ", names),
+                        updated.stream().map(c -> "%s = s.%s".formatted(c, c)).collect(Collectors.joining(", ")),
+                        String.join(", ", names), names.stream().map(c -> "s." + c).collect(Collectors.joining(", ")));
+
+        jdbcTemplate.update(sql, columns.values().toArray());
+        return written;
+    }
+
+    private boolean isMysql() {
+        if (mysql == null) {
+            String product = jdbcTemplate.execute((ConnectionCallback<String>) c -> c.getMetaData().getDatabaseProductName());
+            mysql = "MySQL".equalsIgnoreCase(product);
+        }
+        return mysql;
+    }
+
+    private static byte[] toBytes(UUID uuid) {
+        return ByteBuffer.allocate(16)
+                .putLong(uuid.getMostSignificantBits())
+                .putLong(uuid.getLeastSignificantBits())
+                .array();
+    }
+
+    record Row(UUID id, long version) {
+    }
+}
@@ -0,0 +1,8 @@
+package com.example.analytics_svc.repository;
+
+public interface CompletionSecondsCount {
+
+    long getSeconds();
+
+    long getCount();
+}
@@ -0,0 +1,13 @@
+package com.example.analytics_svc.repository;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+public interface OpenDeadline {
+
+    UUID getId();
+
+    UUID getUserId();
+
+    LocalDateTime getDueDate();
+}
@@ -3,11 +3,16 @@ package com.example.analytics_svc.repository;
 import com.example.analytics_svc.model.ProjectAnalytics;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.Optional;
 import java.util.UUID;
 
 @Repository
-public interface ProjectAnalyticsRepository extends JpaRepository<ProjectAnalytics, UUID> {
+public interface ProjectAnalyticsRepository extends JpaRepository<ProjectAnalytics, UUID>, ProjectAnalyticsUpsertRepository {
     Optional<ProjectAnalytics> findByUserId(UUID userId);
+
+    // Tuple query: the row is copied into the view without entering the persistence context.
+    @Transactional(readOnly = true)
+    Optional<ProjectAnalyticsView> findViewByUserId(UUID userId);
 }
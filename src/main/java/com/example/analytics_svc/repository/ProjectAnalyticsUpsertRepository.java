@@ -0,0 +1,12 @@
+package com.example.analytics_svc.repository;
+
+import com.example.analytics_svc.model.ProjectAnalytics;
+
+public interface ProjectAnalyticsUpsertRepository {
+
+    /**
+     * Inserts or updates the user's analytics row in one statement and returns it with its id and version;
+     * {@code stored} is the row read under the user's write lock, or {@code null} when there is none.
+     */
+    ProjectAnalytics upsert(ProjectAnalytics analytics, ProjectAnalytics stored);
+}
@@ -0,0 +1,42 @@
+package com.example.analytics_svc.repository;
+
+import com.example.analytics_svc.model.ProjectAnalytics;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+class ProjectAnalyticsUpsertRepositoryImpl implements ProjectAnalyticsUpsertRepository {
+
+    private final AnalyticsUpsert analyticsUpsert;
+
+    ProjectAnalyticsUpsertRepositoryImpl(AnalyticsUpsert analyticsUpsert) {
+        this.analyticsUpsert = analyticsUpsert;
+    }
+
+    @Override
+    public ProjectAnalytics upsert(ProjectAnalytics analytics, ProjectAnalytics stored) {
+
+        Map<String, Object> values = new LinkedHashMap<>();
+        values.put("total_projects", analytics.getTotalProjects());
+        values.put("active_projects", analytics.getActiveProjects());
+        values.put("completed_projects", analytics.getCompletedProjects());
+        values.put("average_progress", analytics.getAverageProgress());
+        values.put("overdue_projects", analytics.getOverdueProjects());
+        values.put("total_projects_lifetime", analytics.getTotalProjectsLifetime());
+        values.put("completed_projects_lifetime", analytics.getCompletedProjectsLifetime());
+        values.put("abandoned_projects_lifetime", analytics.getAbandonedProjectsLifetime());
+        values.put("average_project_duration_lifetime", analytics.getAverageProjectDurationLifetime());
+        values.put("project_completion_rate_lifetime", analytics.getProjectCompletionRateLifetime());
+        values.put("progress_sum", analytics.getProgressSum());
+        values.put("duration_sum_lifetime", analytics.getDurationSumLifetime());
+        values.put("duration_count_lifetime", analytics.getDurationCountLifetime());
+        values.put("payload_hash", analytics.getPayloadHash());
+
+        AnalyticsUpsert.Row row = analyticsUpsert.upsert("project_analytics", analytics.getUserId(), values,
+                // Event paths pass an unsaved empty placeholder when the user has no row yet.
+                stored == null || stored.getId() == null ? null : new AnalyticsUpsert.Row(stored.getId(), stored.getVersion()));
+        analytics.setId(row.id());
+        analytics.setVersion(row.version());
+        return analytics;
+    }
+}
@@ -0,0 +1,67 @@
+package com.example.analytics_svc.repository;
+
+import com.example.analytics_svc.model.ProjectAnalytics;
+
+import java.util.UUID;
+
+/**
+ * All stored columns of a project analytics row, read without loading a managed entity.
+ */
+public interface ProjectAnalyticsView {
+
+    UUID getId();
+
+    UUID getUserId();
+
+    int getTotalProjects();
+
+    int getActiveProjects();
+
+    int getCompletedProjects();
+
+    int getAverageProgress();
+
+    int getOverdueProjects();
+
+    int getTotalProjectsLifetime();
+
+    int getCompletedProjectsLifetime();
+
+    int getAbandonedProjectsLifetime();
+
+    long getAverageProjectDurationLifetime();
+
+    double getProjectCompletionRateLifetime();
+
+    int getProgressSum();
+
+    long getDurationSumLifetime();
+
+    int getDurationCountLifetime();
+
+    Long getPayloadHash();
+
+    long getVersion();
+
+    default ProjectAnalytics toAnalytics() {
+        return ProjectAnalytics.builder()
+                .id(getId())
+                .userId(getUserId())
+                .totalProjects(getTotalProjects())
+                .activeProjects(getActiveProjects())
+                .completedProjects(getCompletedProjects())
+                .averageProgress(getAverageProgress())
+                .overdueProjects(getOverdueProjects())
+                .totalProjectsLifetime(getTotalProjectsLifetime())
+                .completedProjectsLifetime(getCompletedProjectsLifetime())
+                .abandonedProjectsLifetime(getAbandonedProjectsLifetime())
+                .averageProjectDurationLifetime(getAverageProjectDurationLifetime())
+                .projectCompletionRateLifetime(getProjectCompletionRateLifetime())
+                .progressSum(getProgressSum())
+                .durationSumLifetime(getDurationSumLifetime())
+                .durationCountLifetime(getDurationCountLifetime())
+                .payloadHash(getPayloadHash())
+                .version(getVersion())
+                .build();
+    }
+}
@@ -2,17 +2,54 @@ package com.example.analytics_svc.repository;
 
 import com.example.analytics_svc.model.ProjectSnapshot;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 @Repository
 public interface ProjectSnapshotRepository extends JpaRepository<ProjectSnapshot, UUID> {
 
-    void deleteAllByUserId(UUID userId);
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("delete from ProjectSnapshot p where p.userId = :userId")
+    void deleteAllByUserId(@Param("userId") UUID userId);
 
     List<ProjectSnapshot> findAllByUserIdAndDeletedFalse(UUID userId);
 
     List<ProjectSnapshot> findAllByUserId(UUID userId);
+
+    Optional<ProjectSnapshot> findByProjectIdAndUserId(UUID projectId, UUID userId);
+
+    List<ProjectSnapshot> findAllByUserIdAndProjectIdIn(UUID userId, Collection<UUID> projectIds);
+
+    @Query("""
+            select p.projectId as id, p.userId as userId, p.dueDate as dueDate
+            from ProjectSnapshot p
+            where p.deleted = false
+              and p.status in (com.example.analytics_svc.model.ProjectStatus.ACTIVE, com.example.analytics_svc.model.ProjectStatus.IN_PROGRESS)
+            """)
+    Stream<OpenDeadline> streamOpenDeadlines();
+
+    @Query("""
+            select p.deleted as deleted,
+                   count(p) as total,
+                   coalesce(sum(case when p.status = com.example.analytics_svc.model.ProjectStatus.COMPLETED then 1 else 0 end), 0) as completed,
+                   coalesce(sum(case when p.status = com.example.analytics_svc.model.ProjectStatus.ACTIVE then 1 else 0 end), 0) as active,
+                   coalesce(sum(case when p.status = com.example.analytics_svc.model.ProjectStatus.OVERDUE then 1 else 0 end), 0) as overdue,
+                   coalesce(sum(p.completionPercentage), 0) as progressSum,
+                   coalesce(sum(truncate(p.completionSeconds / 86400, 0)), 0) as completionDaysSum,
+                   count(p.completionSeconds) as completionCount
+            from ProjectSnapshot p
+            where p.userId = :userId
+            group by p.deleted
+            """)
+    List<ProjectSnapshotTotals> aggregateByUserId(@Param("userId") UUID userId);
 }
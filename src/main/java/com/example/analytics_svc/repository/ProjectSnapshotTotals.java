@@ -0,0 +1,20 @@
+package com.example.analytics_svc.repository;
+
+public interface ProjectSnapshotTotals {
+
+    boolean isDeleted();
+
+    int getTotal();
+
+    int getCompleted();
+
+    int getActive();
+
+    int getOverdue();
+
+    int getProgressSum();
+
+    long getCompletionDaysSum();
+
+    int getCompletionCount();
+}
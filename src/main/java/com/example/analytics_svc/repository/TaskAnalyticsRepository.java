@@ -2,16 +2,30 @@ package com.example.analytics_svc.repository;
 
 import com.example.analytics_svc.model.TaskAnalytics;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.Optional;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 @Repository
-public interface TaskAnalyticsRepository extends JpaRepository<TaskAnalytics, UUID> {
+public interface TaskAnalyticsRepository extends JpaRepository<TaskAnalytics, UUID>, TaskAnalyticsUpsertRepository {
 
 
     Optional<TaskAnalytics> findByUserId(UUID userId);
 
+    // Tuple query: the row is copied into the view without entering the persistence context.
+    @Transactional(readOnly = true)
+    Optional<TaskAnalyticsView> findViewByUserId(UUID userId);
+
     void deleteAllByUserId(UUID userId);
+
+    @Query("""
+            select a.userId as userId, a.version as version, a.totalTasks as totalTasks, a.completionRate as completionRate,
+                   a.lifetimeCompletionTimeCount as lifetimeCompletionTimeCount, a.fastestCompletionTime as fastestCompletionTime
+            from TaskAnalytics a
+            """)
+    Stream<TaskLeaderboardRow> streamLeaderboardRows();
 }
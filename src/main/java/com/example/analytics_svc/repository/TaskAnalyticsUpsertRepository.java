@@ -0,0 +1,12 @@
+package com.example.analytics_svc.repository;
+
+import com.example.analytics_svc.model.TaskAnalytics;
+
+public interface TaskAnalyticsUpsertRepository {
+
+    /**
+     * Inserts or updates the user's analytics row in one statement and returns it with its id and version;
+     * {@code stored} is the row read under the user's write lock, or {@code null} when there is none.
+     */
+    TaskAnalytics upsert(TaskAnalytics analytics, TaskAnalytics stored);
+}
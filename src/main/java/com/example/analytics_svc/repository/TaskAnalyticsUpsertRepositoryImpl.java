@@ -0,0 +1,54 @@
+package com.example.analytics_svc.repository;
+
+import com.example.analytics_svc.model.TaskAnalytics;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+class TaskAnalyticsUpsertRepositoryImpl implements TaskAnalyticsUpsertRepository {
+
+    private final AnalyticsUpsert analyticsUpsert;
+
+    TaskAnalyticsUpsertRepositoryImpl(AnalyticsUpsert analyticsUpsert) {
+        this.analyticsUpsert = analyticsUpsert;
+    }
+
+    @Override
+    public TaskAnalytics upsert(TaskAnalytics analytics, TaskAnalytics stored) {
+
+        Map<String, Object> values = new LinkedHashMap<>();
+        values.put("total_tasks", analytics.getTotalTasks());
+        values.put("completed_tasks", analytics.getCompletedTasks());
+        values.put("in_progress_tasks", analytics.getInProgressTasks());
+        values.put("todo_tasks", analytics.getTodoTasks());
+        values.put("overdue_tasks", analytics.getOverdueTasks());
+        values.put("completion_rate", analytics.getCompletionRate());
+        values.put("avg_completion_time", analytics.getAvgCompletionTime());
+        values.put("low_priority_count", analytics.getLowPriorityCount());
+        values.put("medium_priority_count", analytics.getMediumPriorityCount());
+        values.put("high_priority_count", analytics.getHighPriorityCount());
+        values.put("lifetime_total_tasks", analytics.getLifetimeTotalTasks());
+        values.put("lifetime_completed_tasks", analytics.getLifetimeCompletedTasks());
+        values.put("lifetime_abandoned_tasks", analytics.getLifetimeAbandonedTasks());
+        values.put("lifetime_overdue_tasks", analytics.getLifetimeOverdueTasks());
+        values.put("lifetime_average_completion_time", analytics.getLifetimeAverageCompletionTime());
+        values.put("fastest_completion_time", analytics.getFastestCompletionTime());
+        values.put("lifetime_completion_rate", analytics.getLifetimeCompletionRate());
+        values.put("completion_time_sum", analytics.getCompletionTimeSum());
+        values.put("completion_time_count", analytics.getCompletionTimeCount());
+        values.put("lifetime_completion_time_sum", analytics.getLifetimeCompletionTimeSum());
+        values.put("lifetime_completion_time_count", analytics.getLifetimeCompletionTimeCount());
+        values.put("p50_completion_time", analytics.getP50CompletionTime());
+        values.put("p90_completion_time", analytics.getP90CompletionTime());
+        values.put("p99_completion_time", analytics.getP99CompletionTime());
+        values.put("completion_time_sketch", analytics.getCompletionTimeSketch());
+        values.put("payload_hash", analytics.getPayloadHash());
+
+        AnalyticsUpsert.Row row = analyticsUpsert.upsert("task_analytics", analytics.getUserId(), values,
+                // Event paths pass an unsaved empty placeholder when the user has no row yet.
+                stored == null || stored.getId() == null ? null : new AnalyticsUpsert.Row(stored.getId(), stored.getVersion()));
+        analytics.setId(row.id());
+        analytics.setVersion(row.version());
+        return analytics;
+    }
+}
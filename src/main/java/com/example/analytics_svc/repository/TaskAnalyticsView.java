@@ -0,0 +1,103 @@
+package com.example.analytics_svc.repository;
+
+import com.example.analytics_svc.model.TaskAnalytics;
+
+import java.util.UUID;
+
+/**
+ * All stored columns of a task analytics row, read without loading a managed entity.
+ */
+public interface TaskAnalyticsView {
+
+    UUID getId();
+
+    UUID getUserId();
+
+    int getTotalTasks();
+
+    int getCompletedTasks();
+
+    int getInProgressTasks();
+
+    int getTodoTasks();
+
+    int getOverdueTasks();
+
+    double getCompletionRate();
+
+    double getAvgCompletionTime();
+
+    int getLowPriorityCount();
+
+    int getMediumPriorityCount();
+
+    int getHighPriorityCount();
+
+    int getLifetimeTotalTasks();
+
+    int getLifetimeCompletedTasks();
+
+    int getLifetimeAbandonedTasks();
+
+    int getLifetimeOverdueTasks();
+
+    double getLifetimeAverageCompletionTime();
+
+    long getFastestCompletionTime();
+
+    int getLifetimeCompletionRate();
+
+    long getCompletionTimeSum();
+
+    int getCompletionTimeCount();
+
+    long getLifetimeCompletionTimeSum();
+
+    int getLifetimeCompletionTimeCount();
+
+    double getP50CompletionTime();
+
+    double getP90CompletionTime();
+
+    double getP99CompletionTime();
+
+    byte[] getCompletionTimeSketch();
+
+    Long getPayloadHash();
+
+    long getVersion();
+
+    default TaskAnalytics toAnalytics() {
+        return TaskAnalytics.builder()
+                .id(getId())
+                .userId(getUserId())
+                .totalTasks(getTotalTasks())
+                .completedTasks(getCompletedTasks())
+                .inProgressTasks(getInProgressTasks())
+                .todoTasks(getTodoTasks())
+                .overdueTasks(getOverdueTasks())
+                .completionRate(getCompletionRate())
+                .avgCompletionTime(getAvgCompletionTime())
+                .lowPriorityCount(getLowPriorityCount())
+                .mediumPriorityCount(getMediumPriorityCount())
+                .highPriorityCount(getHighPriorityCount())
+                .lifetimeTotalTasks(getLifetimeTotalTasks())
+                .lifetimeCompletedTasks(getLifetimeCompletedTasks())
+                .lifetimeAbandonedTasks(getLifetimeAbandonedTasks())
+                .lifetimeOverdueTasks(getLifetimeOverdueTasks())
+                .lifetimeAverageCompletionTime(getLifetimeAverageCompletionTime())
+                .fastestCompletionTime(getFastestCompletionTime())
+                .lifetimeCompletionRate(getLifetimeCompletionRate())
+                .completionTimeSum(getCompletionTimeSum())
+                .completionTimeCount(getCompletionTimeCount())
+                .lifetimeCompletionTimeSum(getLifetimeCompletionTimeSum())
+                .lifetimeCompletionTimeCount(getLifetimeCompletionTimeCount())
+                .p50CompletionTime(getP50CompletionTime())
+                .p90CompletionTime(getP90CompletionTime())
+                .p99CompletionTime(getP99CompletionTime())
+                .completionTimeSketch(getCompletionTimeSketch())
+                .payloadHash(getPayloadHash())
+                .version(getVersion())
+                .build();
+    }
+}
@@ -0,0 +1,18 @@
+package com.example.analytics_svc.repository;
+
+import java.time.LocalDate;
+
+public interface TaskDailyRollupCounts {
+
+    LocalDate getBucketDate();
+
+    int getCreatedTasks();
+
+    int getCompletedTasks();
+
+    int getAbandonedTasks();
+
+    int getOverdueTasks();
+
+    long getCompletionSecondsSum();
+}
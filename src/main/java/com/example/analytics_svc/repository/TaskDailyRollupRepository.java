@@ -0,0 +1,34 @@
+package com.example.analytics_svc.repository;
+
+import com.example.analytics_svc.model.TaskDailyRollup;
+import com.example.analytics_svc.model.TaskDailyRollupId;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface TaskDailyRollupRepository extends JpaRepository<TaskDailyRollup, TaskDailyRollupId> {
+
+    List<TaskDailyRollup> findAllByUserIdAndBucketDateIn(UUID userId, Collection<LocalDate> bucketDates);
+
+    @Transactional(readOnly = true)
+    @Query("""
+            select r.bucketDate as bucketDate, r.createdTasks as createdTasks, r.completedTasks as completedTasks,
+                   r.abandonedTasks as abandonedTasks, r.overdueTasks as overdueTasks, r.completionSecondsSum as completionSecondsSum
+            from TaskDailyRollup r
+            where r.userId = :userId and r.bucketDate between :from and :to
+            """)
+    List<TaskDailyRollupCounts> findCountsByUserIdAndBucketDateBetween(@Param("userId") UUID userId, @Param("from") LocalDate from, @Param("to") LocalDate to);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("delete from TaskDailyRollup r where r.userId = :userId")
+    void deleteAllByUserId(@Param("userId") UUID userId);
+}
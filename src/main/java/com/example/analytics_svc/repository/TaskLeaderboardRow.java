@@ -0,0 +1,18 @@
+package com.example.analytics_svc.repository;
+
+import java.util.UUID;
+
+public interface TaskLeaderboardRow {
+
+    UUID getUserId();
+
+    long getVersion();
+
+    int getTotalTasks();
+
+    double getCompletionRate();
+
+    int getLifetimeCompletionTimeCount();
+
+    long getFastestCompletionTime();
+}
@@ -2,17 +2,69 @@ package com.example.analytics_svc.repository;
 
 import com.example.analytics_svc.model.TaskSnapshot;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 @Repository
 public interface TaskSnapshotRepository extends JpaRepository<TaskSnapshot, UUID> {
 
     List<TaskSnapshot> findAllByUserIdAndDeletedFalse(UUID userId);
 
-    void deleteAllByUserId(UUID userId);
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("delete from TaskSnapshot t where t.userId = :userId")
+    void deleteAllByUserId(@Param("userId") UUID userId);
 
     List<TaskSnapshot> findAllByUserId(UUID userId);
+
+    Optional<TaskSnapshot> findByTaskIdAndUserId(UUID taskId, UUID userId);
+
+    List<TaskSnapshot> findAllByUserIdAndTaskIdIn(UUID userId, Collection<UUID> taskIds);
+
+    @Query("""
+            select t.taskId as id, t.userId as userId, t.dueDate as dueDate
+            from TaskSnapshot t
+            where t.deleted = false
+              and t.status in (com.example.analytics_svc.model.TaskStatus.TODO, com.example.analytics_svc.model.TaskStatus.IN_PROGRESS)
+            """)
+    Stream<OpenDeadline> streamOpenDeadlines();
+
+    @Query("select min(t.completionSeconds) from TaskSnapshot t where t.userId = :userId")
+    Long findFastestCompletionSeconds(@Param("userId") UUID userId);
+
+    @Query("""
+            select t.completionSeconds as seconds, count(t) as count
+            from TaskSnapshot t
+            where t.userId = :userId and t.deleted = false and t.completionSeconds is not null
+            group by t.completionSeconds
+            """)
+    List<CompletionSecondsCount> countCurrentCompletionSeconds(@Param("userId") UUID userId);
+
+    @Query("""
+            select t.deleted as deleted,
+                   count(t) as total,
+                   coalesce(sum(case when t.status = com.example.analytics_svc.model.TaskStatus.COMPLETED then 1 else 0 end), 0) as completed,
+                   coalesce(sum(case when t.status = com.example.analytics_svc.model.TaskStatus.IN_PROGRESS then 1 else 0 end), 0) as inProgress,
+                   coalesce(sum(case when t.status = com.example.analytics_svc.model.TaskStatus.TODO then 1 else 0 end), 0) as todo,
+                   coalesce(sum(case when t.status = com.example.analytics_svc.model.TaskStatus.OVERDUE then 1 else 0 end), 0) as overdue,
+                   coalesce(sum(case when t.priority = com.example.analytics_svc.model.TaskPriority.LOW then 1 else 0 end), 0) as lowPriority,
+                   coalesce(sum(case when t.priority = com.example.analytics_svc.model.TaskPriority.MEDIUM then 1 else 0 end), 0) as mediumPriority,
+                   coalesce(sum(case when t.priority = com.example.analytics_svc.model.TaskPriority.HIGH then 1 else 0 end), 0) as highPriority,
+                   coalesce(sum(truncate(t.completionSeconds / 86400, 0)), 0) as completionDaysSum,
+                   count(t.completionSeconds) as completionCount,
+                   min(t.completionSeconds) as fastestCompletionSeconds
+            from TaskSnapshot t
+            where t.userId = :userId
+            group by t.deleted
+            """)
+    List<TaskSnapshotTotals> aggregateByUserId(@Param("userId") UUID userId);
 }
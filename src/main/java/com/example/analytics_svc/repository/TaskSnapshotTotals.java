@@ -0,0 +1,28 @@
+package com.example.analytics_svc.repository;
+
+public interface TaskSnapshotTotals {
+
+    boolean isDeleted();
+
+    int getTotal();
+
+    int getCompleted();
+
+    int getInProgress();
+
+    int getTodo();
+
+    int getOverdue();
+
+    int getLowPriority();
+
+    int getMediumPriority();
+
+    int getHighPriority();
+
+    long getCompletionDaysSum();
+
+    int getCompletionCount();
+
+    Long getFastestCompletionSeconds();
+}
@@ -0,0 +1,83 @@
+package com.example.analytics_svc.service;
+
+import com.example.analytics_svc.config.AnalyticsProperties;
+import com.example.analytics_svc.model.ProjectAnalytics;
+import com.example.analytics_svc.model.TaskAnalytics;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.UUID;
+import java.util.function.Function;
+
+/**
+ * Node-local cache of the analytics rows served by the GET endpoints.
+ * Writers publish the saved row only after their transaction commits; a concurrent miss that loaded
+ * the previous row is overwritten by that put, so a cached entry is never older than the last commit on this node.
+ */
+@Component
+public class AnalyticsCache {
+
+    private final Cache<UUID, TaskAnalytics> taskAnalytics;
+    private final Cache<UUID, ProjectAnalytics> projectAnalytics;
+
+    public AnalyticsCache(AnalyticsProperties properties, MeterRegistry meterRegistry) {
+        AnalyticsProperties.Cache cache = properties.getCache();
+
+        this.taskAnalytics = Caffeine.newBuilder()
+                .maximumSize(cache.getMaximumSize())
+                .expireAfterWrite(cache.getTtl())
+                .recordStats()
+                .build();
+        this.projectAnalytics = Caffeine.newBuilder()
+                .maximumSize(cache.getMaximumSize())
+                .expireAfterWrite(cache.getTtl())
+                .recordStats()
+                .build();
+
+        CaffeineCacheMetrics.monitor(meterRegistry, taskAnalytics, "taskAnalytics");
+        CaffeineCacheMetrics.monitor(meterRegistry, projectAnalytics, "projectAnalytics");
+    }
+
+    public TaskAnalytics getTaskAnalytics(UUID userId, Function<UUID, TaskAnalytics> loader) {
+        return taskAnalytics.get(userId, loader);
+    }
+
+    public ProjectAnalytics getProjectAnalytics(UUID userId, Function<UUID, ProjectAnalytics> loader) {
+        return projectAnalytics.get(userId, loader);
+    }
+
+    public void put(TaskAnalytics analytics) {
+        afterCommit(() -> taskAnalytics.put(analytics.getUserId(), analytics));
+    }
+
+    public void put(ProjectAnalytics analytics) {
+        afterCommit(() -> projectAnalytics.put(analytics.getUserId(), analytics));
+    }
+
+    public void invalidateTaskAnalytics(UUID userId) {
+        afterCommit(() -> taskAnalytics.invalidate(userId));
+    }
+
+    public void invalidateProjectAnalytics(UUID userId) {
+        afterCommit(() -> projectAnalytics.invalidate(userId));
+    }
+
+    private void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+}
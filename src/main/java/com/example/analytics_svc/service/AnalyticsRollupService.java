@@ -0,0 +1,195 @@
+package com.example.analytics_svc.service;
+
+import com.example.analytics_svc.model.AnalyticsRollup;
+import com.example.analytics_svc.model.ProjectAnalytics;
+import com.example.analytics_svc.model.TaskAnalytics;
+import com.example.analytics_svc.repository.AnalyticsRollupRepository;
+import com.example.analytics_svc.web.dto.GlobalAnalytics;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+
+/**
+ * Keeps organization-wide totals as sums and counts, never as averages of averages.
+ * Each write records the difference between the user's previous and new analytics; the differences of a transaction
+ * are collected per shard and added right before commit, in shard order, so bulk chunks cannot deadlock on the rollup.
+ * Reading the totals sums the fixed set of shard rows, independent of the number of users.
+ */
+@Service
+public class AnalyticsRollupService {
+
+    static final int SHARDS = 16;
+
+    private final AnalyticsRollupRepository rollupRepository;
+
+    public AnalyticsRollupService(AnalyticsRollupRepository rollupRepository) {
+        this.rollupRepository = rollupRepository;
+    }
+
+    public void record(TaskAnalytics previous, TaskAnalytics current) {
+        AnalyticsRollup delta = delta(current.getUserId());
+        addTasks(delta, current, 1);
+        if (previous != null) {
+            addTasks(delta, previous, -1);
+        }
+        addBeforeCommit(delta);
+    }
+
+    public void record(ProjectAnalytics previous, ProjectAnalytics current) {
+        AnalyticsRollup delta = delta(current.getUserId());
+        addProjects(delta, current, 1);
+        if (previous != null) {
+            addProjects(delta, previous, -1);
+        }
+        addBeforeCommit(delta);
+    }
+
+    public GlobalAnalytics getGlobalAnalytics() {
+        AnalyticsRollup total = new AnalyticsRollup();
+        rollupRepository.findAll().forEach(shard -> add(total, shard));
+
+        return GlobalAnalytics.builder()
+                .taskUsers(total.getTaskUsers())
+                .totalTasks(total.getTotalTasks())
+                .completedTasks(total.getCompletedTasks())
+                .inProgressTasks(total.getInProgressTasks())
+                .todoTasks(total.getTodoTasks())
+                .overdueTasks(total.getOverdueTasks())
+                .completionRate(percentage(total.getCompletedTasks(), total.getTotalTasks()))
+                .avgCompletionTime(average(total.getCompletionTimeSum(), total.getCompletionTimeCount()))
+                .lowPriorityCount(total.getLowPriorityCount())
+                .mediumPriorityCount(total.getMediumPriorityCount())
+                .highPriorityCount(total.getHighPriorityCount())
+                .lifetimeTotalTasks(total.getLifetimeTotalTasks())
+                .lifetimeCompletedTasks(total.getLifetimeCompletedTasks())
+                .lifetimeAbandonedTasks(total.getLifetimeAbandonedTasks())
+                .lifetimeOverdueTasks(total.getLifetimeOverdueTasks())
+                .lifetimeAverageCompletionTime(average(total.getLifetimeCompletionTimeSum(), total.getLifetimeCompletionTimeCount()))
+                .lifetimeCompletionRate(percentage(total.getLifetimeCompletedTasks(), total.getLifetimeTotalTasks()))
+                .projectUsers(total.getProjectUsers())
+                .totalProjects(total.getTotalProjects())
+                .activeProjects(total.getActiveProjects())
+                .completedProjects(total.getCompletedProjects())
+                .overdueProjects(total.getOverdueProjects())
+                .averageProgress((int) Math.round(average(total.getProgressSum(), total.getTotalProjects())))
+                .totalProjectsLifetime(total.getTotalProjectsLifetime())
+                .completedProjectsLifetime(total.getCompletedProjectsLifetime())
+                .abandonedProjectsLifetime(total.getAbandonedProjectsLifetime())
+                .averageProjectDurationLifetime(average(total.getDurationSumLifetime(), total.getDurationCountLifetime()))
+                .projectCompletionRateLifetime(percentage(total.getCompletedProjectsLifetime(), total.getTotalProjectsLifetime()))
+                .build();
+    }
+
+    @SuppressWarnings("unchecked")
+    private void addBeforeCommit(AnalyticsRollup delta) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            throw new IllegalStateException("Analytics rollup requires an active transaction");
+        }
+
+        Map<Integer, AnalyticsRollup> pending = (Map<Integer, AnalyticsRollup>) TransactionSynchronizationManager.getResource(this);
+        if (pending == null) {
+            Map<Integer, AnalyticsRollup> shards = new TreeMap<>();
+            TransactionSynchronizationManager.bindResource(this, shards);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void beforeCommit(boolean readOnly) {
+                    shards.values().forEach(rollupRepository::add);
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResource(AnalyticsRollupService.this);
+                }
+            });
+            pending = shards;
+        }
+
+        pending.merge(delta.getShard(), delta, (a, b) -> {
+            add(a, b);
+            return a;
+        });
+    }
+
+    private static AnalyticsRollup delta(UUID userId) {
+        AnalyticsRollup delta = new AnalyticsRollup();
+        delta.setShard(Math.floorMod(userId.hashCode(), SHARDS));
+        return delta;
+    }
+
+    private static void addTasks(AnalyticsRollup r, TaskAnalytics a, int sign) {
+        r.setTaskUsers(r.getTaskUsers() + sign * (a.getLifetimeTotalTasks() > 0 ? 1 : 0));
+        r.setTotalTasks(r.getTotalTasks() + sign * a.getTotalTasks());
+        r.setCompletedTasks(r.getCompletedTasks() + sign * a.getCompletedTasks());
+        r.setInProgressTasks(r.getInProgressTasks() + sign * a.getInProgressTasks());
+        r.setTodoTasks(r.getTodoTasks() + sign * a.getTodoTasks());
+        r.setOverdueTasks(r.getOverdueTasks() + sign * a.getOverdueTasks());
+        r.setLowPriorityCount(r.getLowPriorityCount() + sign * a.getLowPriorityCount());
+        r.setMediumPriorityCount(r.getMediumPriorityCount() + sign * a.getMediumPriorityCount());
+        r.setHighPriorityCount(r.getHighPriorityCount() + sign * a.getHighPriorityCount());
+        r.setCompletionTimeSum(r.getCompletionTimeSum() + sign * a.getCompletionTimeSum());
+        r.setCompletionTimeCount(r.getCompletionTimeCount() + sign * a.getCompletionTimeCount());
+        r.setLifetimeTotalTasks(r.getLifetimeTotalTasks() + sign * a.getLifetimeTotalTasks());
+        r.setLifetimeCompletedTasks(r.getLifetimeCompletedTasks() + sign * a.getLifetimeCompletedTasks());
+        r.setLifetimeAbandonedTasks(r.getLifetimeAbandonedTasks() + sign * a.getLifetimeAbandonedTasks());
+        r.setLifetimeOverdueTasks(r.getLifetimeOverdueTasks() + sign * a.getLifetimeOverdueTasks());
+        r.setLifetimeCompletionTimeSum(r.getLifetimeCompletionTimeSum() + sign * a.getLifetimeCompletionTimeSum());
+        r.setLifetimeCompletionTimeCount(r.getLifetimeCompletionTimeCount() + sign * a.getLifetimeCompletionTimeCount());
+    }
+
+    private static void addProjects(AnalyticsRollup r, ProjectAnalytics a, int sign) {
+        r.setProjectUsers(r.getProjectUsers() + sign * (a.getTotalProjectsLifetime() > 0 ? 1 : 0));
+        r.setTotalProjects(r.getTotalProjects() + sign * a.getTotalProjects());
+        r.setActiveProjects(r.getActiveProjects() + sign * a.getActiveProjects());
+        r.setCompletedProjects(r.getCompletedProjects() + sign * a.getCompletedProjects());
+        r.setOverdueProjects(r.getOverdueProjects() + sign * a.getOverdueProjects());
+        r.setProgressSum(r.getProgressSum() + sign * a.getProgressSum());
+        r.setTotalProjectsLifetime(r.getTotalProjectsLifetime() + sign * a.getTotalProjectsLifetime());
+        r.setCompletedProjectsLifetime(r.getCompletedProjectsLifetime() + sign * a.getCompletedProjectsLifetime());
+        r.setAbandonedProjectsLifetime(r.getAbandonedProjectsLifetime() + sign * a.getAbandonedProjectsLifetime());
+        r.setDurationSumLifetime(r.getDurationSumLifetime() + sign * a.getDurationSumLifetime());
+        r.setDurationCountLifetime(r.getDurationCountLifetime() + sign * a.getDurationCountLifetime());
+    }
+
+    private static void add(AnalyticsRollup r, AnalyticsRollup other) {
+        r.setTaskUsers(r.getTaskUsers() + other.getTaskUsers());
+        r.setTotalTasks(r.getTotalTasks() + other.getTotalTasks());
+        r.setCompletedTasks(r.getCompletedTasks() + other.getCompletedTasks());
+        r.setInProgressTasks(r.getInProgressTasks() + other.getInProgressTasks());
+        r.setTodoTasks(r.getTodoTasks() + other.getTodoTasks());
+        r.setOverdueTasks(r.getOverdueTasks() + other.getOverdueTasks());
+        r.setLowPriorityCount(r.getLowPriorityCount() + other.getLowPriorityCount());
+        r.setMediumPriorityCount(r.getMediumPriorityCount() + other.getMediumPriorityCount());
+        r.setHighPriorityCount(r.getHighPriorityCount() + other.getHighPriorityCount());
+        r.setCompletionTimeSum(r.getCompletionTimeSum() + other.getCompletionTimeSum());
+        r.setCompletionTimeCount(r.getCompletionTimeCount() + other.getCompletionTimeCount());
+        r.setLifetimeTotalTasks(r.getLifetimeTotalTasks() + other.getLifetimeTotalTasks());
+        r.setLifetimeCompletedTasks(r.getLifetimeCompletedTasks() + other.getLifetimeCompletedTasks());
+        r.setLifetimeAbandonedTasks(r.getLifetimeAbandonedTasks() + other.getLifetimeAbandonedTasks());
+        r.setLifetimeOverdueTasks(r.getLifetimeOverdueTasks() + other.getLifetimeOverdueTasks());
+        r.setLifetimeCompletionTimeSum(r.getLifetimeCompletionTimeSum() + other.getLifetimeCompletionTimeSum());
+        r.setLifetimeCompletionTimeCount(r.getLifetimeCompletionTimeCount() + other.getLifetimeCompletionTimeCount());
+        r.setProjectUsers(r.getProjectUsers() + other.getProjectUsers());
+        r.setTotalProjects(r.getTotalProjects() + other.getTotalProjects());
+        r.setActiveProjects(r.getActiveProjects() + other.getActiveProjects());
+        r.setCompletedProjects(r.getCompletedProjects() + other.getCompletedProjects());
+        r.setOverdueProjects(r.getOverdueProjects() + other.getOverdueProjects());
+        r.setProgressSum(r.getProgressSum() + other.getProgressSum());
+        r.setTotalProjectsLifetime(r.getTotalProjectsLifetime() + other.getTotalProjectsLifetime());
+        r.setCompletedProjectsLifetime(r.getCompletedProjectsLifetime() + other.getCompletedProjectsLifetime());
+        r.setAbandonedProjectsLifetime(r.getAbandonedProjectsLifetime() + other.getAbandonedProjectsLifetime());
+        r.setDurationSumLifetime(r.getDurationSumLifetime() + other.getDurationSumLifetime());
+        r.setDurationCountLifetime(r.getDurationCountLifetime() + other.getDurationCountLifetime());
+    }
+
+    private static double percentage(long part, long total) {
+        return total == 0 ? 0 : ((double) part / total) * 100.0;
+    }
+
+    private static double average(long sum, long count) {
+        return count == 0 ? 0 : (double) sum / count;
+    }
+}
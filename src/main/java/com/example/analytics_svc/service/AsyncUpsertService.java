@@ -0,0 +1,55 @@
+package com.example.analytics_svc.service;
+
+import com.example.analytics_svc.config.AnalyticsProperties;
+import com.example.analytics_svc.model.ProjectAnalytics;
+import com.example.analytics_svc.model.TaskAnalytics;
+import com.example.analytics_svc.web.dto.ProjectAnalyticsRequest;
+import com.example.analytics_svc.web.dto.TaskAnalyticsRequest;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+@Service
+public class AsyncUpsertService {
+
+    private final TaskService taskService;
+    private final ProjectService projectService;
+    private final AnalyticsProperties.Async properties;
+    private final CoalescingWriteQueue<List<TaskAnalyticsRequest>> taskQueue;
+    private final CoalescingWriteQueue<List<ProjectAnalyticsRequest>> projectQueue;
+
+    public AsyncUpsertService(TaskService taskService, ProjectService projectService, AnalyticsProperties properties, MeterRegistry meterRegistry) {
+        this.taskService = taskService;
+        this.projectService = projectService;
+        this.properties = properties.getAsync();
+        this.taskQueue = new CoalescingWriteQueue<>("tasks", this.properties.getWorkers(), this.properties.getQueueCapacity(),
+                taskService::upsertTasks, meterRegistry);
+        this.projectQueue = new CoalescingWriteQueue<>("projects", this.properties.getWorkers(), this.properties.getQueueCapacity(),
+                projectService::upsertProjects, meterRegistry);
+    }
+
+    public boolean isEnabled() {
+        return properties.isEnabled();
+    }
+
+    /**
+     * Returns the written analytics when the queue was full and the payload was written on this thread, empty when queued.
+     */
+    public Optional<TaskAnalytics> submitTasks(List<TaskAnalyticsRequest> tasks, UUID userId) {
+        return taskQueue.submit(userId, tasks, payload -> taskService.upsertTasks(payload, userId));
+    }
+
+    public Optional<ProjectAnalytics> submitProjects(List<ProjectAnalyticsRequest> requests, UUID userId) {
+        return projectQueue.submit(userId, requests, payload -> projectService.upsertProjects(payload, userId));
+    }
+
+    @PreDestroy
+    public void drain() {
+        taskQueue.shutdown(properties.getShutdownTimeout());
+        projectQueue.shutdown(properties.getShutdownTimeout());
+    }
+}
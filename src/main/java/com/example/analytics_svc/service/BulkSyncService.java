@@ -0,0 +1,145 @@
+package com.example.analytics_svc.service;
+
+import com.example.analytics_svc.config.AnalyticsProperties;
+import com.example.analytics_svc.model.ProjectAnalytics;
+import com.example.analytics_svc.model.TaskAnalytics;
+import com.example.analytics_svc.web.dto.BulkSyncResponse;
+import com.example.analytics_svc.web.dto.ProjectAnalyticsRequest;
+import com.example.analytics_svc.web.dto.TaskAnalyticsRequest;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiFunction;
+
+/**
+ * Syncs many users per request. Users are split into chunks that are written in one transaction each,
+ * and the chunks run in parallel on a bounded pool. A chunk that fails is retried user by user,
+ * so one bad payload only costs its own user.
+ * <p>
+ * A chunk shares its transaction, commit and lock acquisition, not its statements: every user still goes through
+ * the single-user write path, which reads the stored row under the user's lock and skips unchanged payloads.
+ */
+@Slf4j
+@Service
+public class BulkSyncService {
+
+    private final TaskService taskService;
+    private final ProjectService projectService;
+    private final TransactionTemplate transactionTemplate;
+    private final UserWriteLock userWriteLock;
+    private final AnalyticsProperties.Bulk properties;
+    private final ExecutorService executor;
+
+    public BulkSyncService(TaskService taskService, ProjectService projectService, PlatformTransactionManager transactionManager, UserWriteLock userWriteLock, AnalyticsProperties properties) {
+        this.taskService = taskService;
+        this.projectService = projectService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.userWriteLock = userWriteLock;
+        this.properties = properties.getBulk();
+
+        AtomicInteger threads = new AtomicInteger();
+        int workers = this.properties.getWorkers();
+        this.executor = new ThreadPoolExecutor(workers, workers, 0, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>(),
+                runnable -> new Thread(runnable, "bulk-sync-%d".formatted(threads.incrementAndGet())));
+    }
+
+    public BulkSyncResponse<TaskAnalytics> syncTasks(Map<UUID, List<TaskAnalyticsRequest>> tasksByUser) {
+        return sync(tasksByUser, taskService::upsertTasks);
+    }
+
+    public BulkSyncResponse<ProjectAnalytics> syncProjects(Map<UUID, List<ProjectAnalyticsRequest>> projectsByUser) {
+        return sync(projectsByUser, projectService::upsertProjects);
+    }
+
+    private <R, T> BulkSyncResponse<T> sync(Map<UUID, List<R>> requestsByUser, BiFunction<List<R>, UUID, T> writer) {
+
+        Map<UUID, T> analytics = new ConcurrentHashMap<>();
+        Map<UUID, String> errors = new ConcurrentHashMap<>();
+
+        List<Future<?>> chunks = new ArrayList<>();
+        for (Map<UUID, List<R>> chunk : partition(requestsByUser, properties.getUsersPerTransaction())) {
+            chunks.add(executor.submit(() -> writeChunk(chunk, writer, analytics, errors)));
+        }
+
+        for (Future<?> chunk : chunks) {
+            try {
+                chunk.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while waiting for bulk sync", e);
+            } catch (ExecutionException e) {
+                throw new IllegalStateException("Bulk sync chunk failed", e.getCause());
+            }
+        }
+
+        return new BulkSyncResponse<>(analytics, errors);
+    }
+
+    private <R, T> void writeChunk(Map<UUID, List<R>> chunk, BiFunction<List<R>, UUID, T> writer, Map<UUID, T> analytics, Map<UUID, String> errors) {
+
+        try {
+            Map<UUID, T> written = transactionTemplate.execute(status -> {
+                // Chunks run in parallel, so all of their users are locked up front in one global order.
+                userWriteLock.lockAll(chunk.keySet());
+
+                Map<UUID, T> results = new HashMap<>();
+                chunk.forEach((userId, requests) -> results.put(userId, writer.apply(requests, userId)));
+                return results;
+            });
+            analytics.putAll(written);
+            return;
+        } catch (RuntimeException e) {
+            log.warn("Bulk sync of %d users failed, retrying each user on its own".formatted(chunk.size()), e);
+        }
+
+        chunk.forEach((userId, requests) -> {
+            try {
+                analytics.put(userId, transactionTemplate.execute(status -> writer.apply(requests, userId)));
+            } catch (RuntimeException e) {
+                log.error("Bulk sync failed for user [%s]".formatted(userId), e);
+                errors.put(userId, String.valueOf(e.getMessage()));
+            }
+        });
+    }
+
+    private static <R> List<Map<UUID, List<R>>> partition(Map<UUID, List<R>> requestsByUser, int size) {
+
+        List<Map<UUID, List<R>>> chunks = new ArrayList<>();
+        Map<UUID, List<R>> chunk = new LinkedHashMap<>();
+
+        for (Map.Entry<UUID, List<R>> entry : requestsByUser.entrySet()) {
+            chunk.put(entry.getKey(), entry.getValue());
+            if (chunk.size() == size) {
+                chunks.add(chunk);
+                chunk = new LinkedHashMap<>();
+            }
+        }
+
+        if (!chunk.isEmpty()) {
+            chunks.add(chunk);
+        }
+        return chunks;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+}
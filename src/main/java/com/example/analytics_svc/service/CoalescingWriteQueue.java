@@ -0,0 +1,137 @@
+package com.example.analytics_svc.service;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+/**
+ * Write-behind queue that keeps only the latest pending payload per user.
+ * A user is scheduled at most once at a time, so writes for the same user never run concurrently
+ * and every burst of submissions is written once with its newest payload.
+ */
+@Slf4j
+public class CoalescingWriteQueue<T> {
+
+    private final String name;
+    private final BiConsumer<T, UUID> writer;
+    private final ThreadPoolExecutor executor;
+
+    private final Map<UUID, T> pending = new ConcurrentHashMap<>();
+    private final Set<UUID> scheduled = ConcurrentHashMap.newKeySet();
+
+    private final AtomicLong submitted = new AtomicLong();
+    private final AtomicLong written = new AtomicLong();
+
+    public CoalescingWriteQueue(String name, int workers, int capacity, BiConsumer<T, UUID> writer, MeterRegistry meterRegistry) {
+        this(name, newExecutor(name, workers, capacity), writer, meterRegistry);
+    }
+
+    public CoalescingWriteQueue(String name, ThreadPoolExecutor executor, BiConsumer<T, UUID> writer, MeterRegistry meterRegistry) {
+        this.name = name;
+        this.writer = writer;
+        this.executor = executor;
+
+        Gauge.builder("analytics.async.queue.depth", executor, e -> e.getQueue().size())
+                .tag("type", name)
+                .register(meterRegistry);
+        Gauge.builder("analytics.async.coalesce.ratio", this, CoalescingWriteQueue::coalesceRatio)
+                .tag("type", name)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Queues the payload and returns empty, or, when the queue is full or shut down, writes it on the caller's thread
+     * with {@code writeNow} and returns that result. The caller-thread write holds the user's slot like a queued one,
+     * so no older queued payload can be written after it; if a newer payload coalesced meanwhile, that one is written
+     * instead, and payloads submitted during the write are written right after it.
+     */
+    public <R> Optional<R> submit(UUID userId, T payload, Function<T, R> writeNow) {
+        pending.put(userId, payload);
+        submitted.incrementAndGet();
+
+        if (!scheduled.add(userId)) {
+            return Optional.empty();
+        }
+
+        try {
+            executor.execute(() -> drain(userId));
+            return Optional.empty();
+        } catch (RejectedExecutionException e) {
+            // Only the slot holder removes pending payloads, so the user still has ours or a newer one.
+            T latest = pending.remove(userId);
+            try {
+                return Optional.of(writeNow.apply(latest));
+            } finally {
+                written.incrementAndGet();
+                scheduled.remove(userId);
+                if (pending.containsKey(userId) && scheduled.add(userId)) {
+                    drain(userId);
+                }
+            }
+        }
+    }
+
+    private static ThreadPoolExecutor newExecutor(String name, int workers, int capacity) {
+        AtomicInteger threads = new AtomicInteger();
+        return new ThreadPoolExecutor(workers, workers, 0, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(capacity),
+                runnable -> new Thread(runnable, "%s-write-behind-%d".formatted(name, threads.incrementAndGet())));
+    }
+
+    private void drain(UUID userId) {
+        do {
+            T payload = pending.remove(userId);
+            if (payload != null) {
+                write(payload, userId);
+            }
+
+            scheduled.remove(userId);
+            // A payload that arrived after remove() but before the user was unscheduled is picked up here.
+        } while (pending.containsKey(userId) && scheduled.add(userId));
+    }
+
+    private void write(T payload, UUID userId) {
+        try {
+            writer.accept(payload, userId);
+        } catch (Exception e) {
+            log.error("Write-behind %s upsert failed for user [%s]".formatted(name, userId), e);
+        } finally {
+            written.incrementAndGet();
+        }
+    }
+
+    public double coalesceRatio() {
+        long writes = written.get();
+        return writes == 0 ? 1.0 : (double) submitted.get() / writes;
+    }
+
+    public int queueDepth() {
+        return executor.getQueue().size();
+    }
+
+    public void shutdown(Duration timeout) {
+        executor.shutdown();
+
+        try {
+            if (!executor.awaitTermination(timeout.toMillis(), TimeUnit.MILLISECONDS)) {
+                log.warn("Write-behind %s queue did not drain within %s, %d users still pending".formatted(name, timeout, pending.size()));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
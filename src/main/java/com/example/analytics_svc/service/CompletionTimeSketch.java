@@ -0,0 +1,143 @@
+package com.example.analytics_svc.service;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Log-bucketed histogram of completion durations in seconds. Bucket {@code i > 0} holds durations in
+ * [GAMMA^(i-1), GAMMA^i) and bucket 0 holds durations below one second, so any quantile is reported within 2%
+ * of the real value. Sketches merge by adding bucket counts, and single durations can be removed again.
+ * The binary form only lists non-empty buckets as varints and stays well below a kilobyte.
+ */
+public class CompletionTimeSketch {
+
+    private static final double GAMMA = 1.04;
+    private static final double LOG_GAMMA = Math.log(GAMMA);
+    private static final byte FORMAT = 1;
+
+    private int[] buckets = new int[0];
+    private long count;
+
+    public static CompletionTimeSketch fromBytes(byte[] bytes) {
+        CompletionTimeSketch sketch = new CompletionTimeSketch();
+        if (bytes == null || bytes.length == 0) {
+            return sketch;
+        }
+
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        if (buffer.get() != FORMAT) {
+            throw new IllegalArgumentException("Unknown completion time sketch format [%d]".formatted(bytes[0]));
+        }
+
+        int index = 0;
+        int entries = readVarint(buffer);
+        for (int i = 0; i < entries; i++) {
+            index += readVarint(buffer);
+            sketch.add(index, readVarint(buffer));
+        }
+        return sketch;
+    }
+
+    public void add(long seconds, int sign) {
+        add(bucketOf(seconds), sign);
+    }
+
+    public void merge(CompletionTimeSketch other) {
+        for (int i = 0; i < other.buckets.length; i++) {
+            if (other.buckets[i] != 0) {
+                add(i, other.buckets[i]);
+            }
+        }
+    }
+
+    private void add(int bucket, int amount) {
+        if (bucket >= buckets.length) {
+            buckets = Arrays.copyOf(buckets, bucket + 16);
+        }
+        buckets[bucket] += amount;
+        count += amount;
+    }
+
+    public long count() {
+        return count;
+    }
+
+    /**
+     * Nearest-rank quantile in seconds, {@code 0} for an empty sketch.
+     */
+    public double quantile(double q) {
+        if (count <= 0) {
+            return 0;
+        }
+
+        long rank = Math.max(1, (long) Math.ceil(q * count));
+        long seen = 0;
+
+        for (int i = 0; i < buckets.length; i++) {
+            seen += buckets[i];
+            if (seen >= rank) {
+                return valueOf(i);
+            }
+        }
+        return valueOf(buckets.length - 1);
+    }
+
+    public byte[] toBytes() {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        out.write(FORMAT);
+
+        int entries = 0;
+        for (int bucket : buckets) {
+            if (bucket > 0) {
+                entries++;
+            }
+        }
+        writeVarint(out, entries);
+
+        int previous = 0;
+        for (int i = 0; i < buckets.length; i++) {
+            if (buckets[i] > 0) {
+                writeVarint(out, i - previous);
+                writeVarint(out, buckets[i]);
+                previous = i;
+            }
+        }
+        return out.toByteArray();
+    }
+
+    static int bucketOf(long seconds) {
+        if (seconds < 1) {
+            return 0;
+        }
+        return 1 + (int) Math.floor(Math.log(seconds) / LOG_GAMMA);
+    }
+
+    // Midpoint of the bucket in the relative sense, which bounds the error on both sides.
+    private static double valueOf(int bucket) {
+        if (bucket == 0) {
+            return 0;
+        }
+        return 2 * Math.pow(GAMMA, bucket) / (GAMMA + 1);
+    }
+
+    private static void writeVarint(ByteArrayOutputStream out, int value) {
+        while ((value & ~0x7F) != 0) {
+            out.write((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.write(value);
+    }
+
+    private static int readVarint(ByteBuffer buffer) {
+        int value = 0;
+        int shift = 0;
+        byte b;
+        do {
+            b = buffer.get();
+            value |= (b & 0x7F) << shift;
+            shift += 7;
+        } while (b < 0);
+        return value;
+    }
+}
@@ -0,0 +1,87 @@
+package com.example.analytics_svc.service;
+
+import com.example.analytics_svc.model.TaskDailyRollup;
+import com.example.analytics_svc.model.TaskSnapshot;
+import com.example.analytics_svc.model.TaskStatus;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Per-day changes caused by one write. A snapshot always counts on the same days (created on its creation day,
+ * completed on its completion day, overdue and abandoned on its due day), so removing its old state and adding
+ * its new one yields exactly the buckets that change.
+ */
+public class DailyRollupDelta {
+
+    private final Map<LocalDate, TaskDailyRollup> days = new HashMap<>();
+
+    public void accept(TaskSnapshot task) {
+        apply(task, 1);
+    }
+
+    public void remove(TaskSnapshot task) {
+        apply(task, -1);
+    }
+
+    private void apply(TaskSnapshot task, int sign) {
+        if (task.getCreatedOn() != null) {
+            TaskDailyRollup created = bucket(task.getCreatedOn());
+            created.setCreatedTasks(created.getCreatedTasks() + sign);
+        }
+
+        if (task.getCompletionSeconds() != null) {
+            TaskDailyRollup completed = bucket(task.getCompletedOn());
+            completed.setCompletedTasks(completed.getCompletedTasks() + sign);
+            completed.setCompletionSecondsSum(completed.getCompletionSecondsSum() + sign * task.getCompletionSeconds());
+        }
+
+        if (task.getDueDate() == null) {
+            return;
+        }
+
+        if (task.getStatus() == TaskStatus.OVERDUE) {
+            TaskDailyRollup due = bucket(task.getDueDate());
+            due.setOverdueTasks(due.getOverdueTasks() + sign);
+        }
+
+        if (task.isDeleted() && task.getStatus() != TaskStatus.COMPLETED) {
+            TaskDailyRollup due = bucket(task.getDueDate());
+            due.setAbandonedTasks(due.getAbandonedTasks() + sign);
+        }
+    }
+
+    private TaskDailyRollup bucket(LocalDateTime at) {
+        return days.computeIfAbsent(at.toLocalDate(), day -> TaskDailyRollup.builder().bucketDate(day).build());
+    }
+
+    /**
+     * Adds the non-empty changes to the given rows, creating rows for days that have none yet.
+     */
+    void applyTo(Map<LocalDate, TaskDailyRollup> rows, UUID userId) {
+        days.forEach((day, change) -> {
+            if (isEmpty(change)) {
+                return;
+            }
+
+            TaskDailyRollup row = rows.computeIfAbsent(day, d -> TaskDailyRollup.builder().userId(userId).bucketDate(d).build());
+            row.setCreatedTasks(row.getCreatedTasks() + change.getCreatedTasks());
+            row.setCompletedTasks(row.getCompletedTasks() + change.getCompletedTasks());
+            row.setAbandonedTasks(row.getAbandonedTasks() + change.getAbandonedTasks());
+            row.setOverdueTasks(row.getOverdueTasks() + change.getOverdueTasks());
+            row.setCompletionSecondsSum(row.getCompletionSecondsSum() + change.getCompletionSecondsSum());
+        });
+    }
+
+    Map<LocalDate, TaskDailyRollup> getDays() {
+        return days;
+    }
+
+    static boolean isEmpty(TaskDailyRollup rollup) {
+        return rollup.getCreatedTasks() == 0 && rollup.getCompletedTasks() == 0 && rollup.getAbandonedTasks() == 0
+                && rollup.getOverdueTasks() == 0 && rollup.getCompletionSecondsSum() == 0;
+    }
+}
@@ -0,0 +1,75 @@
+package com.example.analytics_svc.service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+/**
+ * Due dates of open snapshots in deadline order, keyed by the snapshot's task or project id.
+ * Scheduling an id again moves its deadline, so a snapshot is queued at most once; polling hands out the expired
+ * deadlines grouped per user. Entries are only hints: the caller re-checks the stored snapshot before acting on one.
+ */
+public class DeadlineQueue {
+
+    private static final Comparator<Deadline> BY_DUE_DATE = Comparator.comparing(Deadline::dueDate)
+            .thenComparing(Deadline::id);
+
+    private final Map<UUID, Deadline> deadlines = new ConcurrentHashMap<>();
+    private final NavigableSet<Deadline> byDueDate = new ConcurrentSkipListSet<>(BY_DUE_DATE);
+
+    public void schedule(UUID id, UUID userId, LocalDateTime dueDate) {
+        Deadline deadline = new Deadline(id, userId, dueDate);
+        deadlines.compute(id, (key, previous) -> {
+            if (previous != null) {
+                byDueDate.remove(previous);
+            }
+            byDueDate.add(deadline);
+            return deadline;
+        });
+    }
+
+    public void cancel(UUID id) {
+        deadlines.computeIfPresent(id, (key, previous) -> {
+            byDueDate.remove(previous);
+            return null;
+        });
+    }
+
+    /**
+     * Removes up to {@code limit} deadlines that are due at {@code now} and returns their ids per user.
+     */
+    public Map<UUID, List<UUID>> pollDue(LocalDateTime now, int limit) {
+        Map<UUID, List<UUID>> due = new LinkedHashMap<>();
+
+        Iterator<Deadline> iterator = byDueDate.iterator();
+        int polled = 0;
+        while (polled < limit && iterator.hasNext()) {
+            Deadline next = iterator.next();
+            if (next.dueDate().isAfter(now)) {
+                break;
+            }
+            // A concurrent schedule() may have just replaced this entry; the replacement stays queued.
+            if (deadlines.remove(next.id(), next)) {
+                byDueDate.remove(next);
+                due.computeIfAbsent(next.userId(), userId -> new ArrayList<>()).add(next.id());
+                polled++;
+            }
+        }
+        return due;
+    }
+
+    public int size() {
+        return deadlines.size();
+    }
+
+    private record Deadline(UUID id, UUID userId, LocalDateTime dueDate) {
+    }
+}
@@ -0,0 +1,87 @@
+package com.example.analytics_svc.service;
+
+import com.example.analytics_svc.config.AnalyticsProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Periodically takes the expired deadlines from the {@link OverdueTracker} and marks those tasks and projects
+ * overdue, one transaction per user. The work per run is proportional to the number of deadlines that passed,
+ * not to the number of snapshots; a user whose update fails is retried on the next run.
+ */
+@Slf4j
+@Service
+public class OverdueScheduler {
+
+    private final OverdueTracker overdueTracker;
+    private final TaskService taskService;
+    private final ProjectService projectService;
+    private final AnalyticsProperties.Overdue properties;
+
+    private final Counter taskUpdates;
+    private final Counter projectUpdates;
+
+    public OverdueScheduler(OverdueTracker overdueTracker, TaskService taskService, ProjectService projectService, AnalyticsProperties properties, MeterRegistry meterRegistry) {
+        this.overdueTracker = overdueTracker;
+        this.taskService = taskService;
+        this.projectService = projectService;
+        this.properties = properties.getOverdue();
+
+        this.taskUpdates = Counter.builder("analytics.overdue.updates").tag("type", "task").register(meterRegistry);
+        this.projectUpdates = Counter.builder("analytics.overdue.updates").tag("type", "project").register(meterRegistry);
+    }
+
+    @Scheduled(initialDelayString = "${analytics.overdue.check-interval:1m}", fixedDelayString = "${analytics.overdue.check-interval:1m}")
+    public void run() {
+        if (properties.isEnabled()) {
+            markOverdue(LocalDateTime.now());
+        }
+    }
+
+    public void markOverdue(LocalDateTime now) {
+        LocalDateTime retryAt = now.plus(properties.getCheckInterval());
+        int batchSize = properties.getBatchSize();
+
+        Map<UUID, List<UUID>> tasks;
+        do {
+            tasks = overdueTracker.pollDueTasks(now, batchSize);
+            tasks.forEach((userId, taskIds) -> {
+                try {
+                    if (taskService.markOverdue(userId, taskIds, now) != null) {
+                        taskUpdates.increment();
+                    }
+                } catch (RuntimeException e) {
+                    log.warn("Marking tasks overdue failed for user [%s], retrying at %s".formatted(userId, retryAt), e);
+                    overdueTracker.retryTasks(userId, taskIds, retryAt);
+                }
+            });
+        } while (count(tasks) == batchSize);
+
+        Map<UUID, List<UUID>> projects;
+        do {
+            projects = overdueTracker.pollDueProjects(now, batchSize);
+            projects.forEach((userId, projectIds) -> {
+                try {
+                    if (projectService.markOverdue(userId, projectIds, now) != null) {
+                        projectUpdates.increment();
+                    }
+                } catch (RuntimeException e) {
+                    log.warn("Marking projects overdue failed for user [%s], retrying at %s".formatted(userId, retryAt), e);
+                    overdueTracker.retryProjects(userId, projectIds, retryAt);
+                }
+            });
+        } while (count(projects) == batchSize);
+    }
+
+    private static int count(Map<UUID, List<UUID>> due) {
+        return due.values().stream().mapToInt(List::size).sum();
+    }
+}
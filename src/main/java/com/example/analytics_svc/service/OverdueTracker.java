@@ -0,0 +1,194 @@
+package com.example.analytics_svc.service;
+
+import com.example.analytics_svc.config.AnalyticsProperties;
+import com.example.analytics_svc.model.ProjectSnapshot;
+import com.example.analytics_svc.model.ProjectStatus;
+import com.example.analytics_svc.model.TaskSnapshot;
+import com.example.analytics_svc.model.TaskStatus;
+import com.example.analytics_svc.repository.OpenDeadline;
+import com.example.analytics_svc.repository.ProjectSnapshotRepository;
+import com.example.analytics_svc.repository.TaskSnapshotRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+/**
+ * Due dates of every open task and project, loaded from the snapshot tables at startup and afterwards following
+ * each committed snapshot write. Snapshots that are completed, overdue or deleted are dropped; deadlines of
+ * snapshots removed by a sync stay queued until they expire and are discarded by the re-check on the stored row.
+ */
+@Slf4j
+@Component
+public class OverdueTracker {
+
+    private final TaskSnapshotRepository taskSnapshotRepository;
+    private final ProjectSnapshotRepository projectSnapshotRepository;
+    private final boolean enabled;
+
+    private final DeadlineQueue tasks = new DeadlineQueue();
+    private final DeadlineQueue projects = new DeadlineQueue();
+
+    public OverdueTracker(TaskSnapshotRepository taskSnapshotRepository, ProjectSnapshotRepository projectSnapshotRepository, AnalyticsProperties properties, MeterRegistry meterRegistry) {
+        this.taskSnapshotRepository = taskSnapshotRepository;
+        this.projectSnapshotRepository = projectSnapshotRepository;
+        this.enabled = properties.getOverdue().isEnabled();
+
+        Gauge.builder("analytics.overdue.tracked", tasks, DeadlineQueue::size)
+                .tag("type", "task")
+                .register(meterRegistry);
+        Gauge.builder("analytics.overdue.tracked", projects, DeadlineQueue::size)
+                .tag("type", "project")
+                .register(meterRegistry);
+    }
+
+    @Transactional(readOnly = true)
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        if (!enabled) {
+            return;
+        }
+
+        try (Stream<OpenDeadline> rows = taskSnapshotRepository.streamOpenDeadlines()) {
+            rows.forEach(row -> tasks.schedule(row.getId(), row.getUserId(), row.getDueDate()));
+        }
+        try (Stream<OpenDeadline> rows = projectSnapshotRepository.streamOpenDeadlines()) {
+            rows.forEach(row -> projects.schedule(row.getId(), row.getUserId(), row.getDueDate()));
+        }
+
+        log.info("Tracking due dates of %d open tasks and %d open projects".formatted(tasks.size(), projects.size()));
+    }
+
+    public void track(TaskSnapshot task) {
+        if (enabled) {
+            track(tasks, task.getTaskId(), task.getUserId(), task.getDueDate(), !task.isDeleted() && isOpen(task.getStatus()));
+        }
+    }
+
+    public void track(ProjectSnapshot project) {
+        if (enabled) {
+            track(projects, project.getProjectId(), project.getUserId(), project.getDueDate(), !project.isDeleted() && isOpen(project.getStatus()));
+        }
+    }
+
+    public Map<UUID, List<UUID>> pollDueTasks(LocalDateTime now, int limit) {
+        return tasks.pollDue(now, limit);
+    }
+
+    public Map<UUID, List<UUID>> pollDueProjects(LocalDateTime now, int limit) {
+        return projects.pollDue(now, limit);
+    }
+
+    public void retryTasks(UUID userId, List<UUID> taskIds, LocalDateTime retryAt) {
+        taskIds.forEach(taskId -> tasks.schedule(taskId, userId, retryAt));
+    }
+
+    public void retryProjects(UUID userId, List<UUID> projectIds, LocalDateTime retryAt) {
+        projectIds.forEach(projectId -> projects.schedule(projectId, userId, retryAt));
+    }
+
+    public static boolean isOpen(TaskStatus status) {
+        return status == TaskStatus.TODO || status == TaskStatus.IN_PROGRESS;
+    }
+
+    public static boolean isOpen(ProjectStatus status) {
+        return status == ProjectStatus.ACTIVE || status == ProjectStatus.IN_PROGRESS;
+    }
+
+    private void track(DeadlineQueue queue, UUID id, UUID userId, LocalDateTime dueDate, boolean open) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            if (open) {
+                queue.schedule(id, userId, dueDate);
+            } else {
+                queue.cancel(id);
+            }
+            return;
+        }
+
+        PendingChanges pending = (PendingChanges) TransactionSynchronizationManager.getResource(this);
+        if (pending == null) {
+            PendingChanges changes = new PendingChanges();
+            TransactionSynchronizationManager.bindResource(this, changes);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    changes.applyTo(tasks, projects);
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResource(OverdueTracker.this);
+                }
+            });
+            pending = changes;
+        }
+        pending.add(queue == tasks, id, userId, open ? dueDate : null);
+    }
+
+    /**
+     * Deadline changes of one transaction, applied in order once it commits. A streamed sync may track far more
+     * snapshots than it keeps in memory, so each change is three longs (the id and the due date to the second) in a
+     * per-user array rather than a captured entity or closure. The values are copied now: the entity may be detached
+     * or changed again before the transaction commits.
+     */
+    private static final class PendingChanges {
+
+        private static final long CANCELLED = Long.MIN_VALUE;
+
+        private final Map<UUID, Changes> tasks = new LinkedHashMap<>();
+        private final Map<UUID, Changes> projects = new LinkedHashMap<>();
+
+        void add(boolean task, UUID id, UUID userId, LocalDateTime dueDate) {
+            Changes changes = (task ? tasks : projects).computeIfAbsent(userId, key -> new Changes());
+            changes.add(id.getMostSignificantBits(), id.getLeastSignificantBits(),
+                    dueDate == null ? CANCELLED : dueDate.toEpochSecond(ZoneOffset.UTC));
+        }
+
+        void applyTo(DeadlineQueue taskQueue, DeadlineQueue projectQueue) {
+            tasks.forEach((userId, changes) -> changes.applyTo(taskQueue, userId));
+            projects.forEach((userId, changes) -> changes.applyTo(projectQueue, userId));
+        }
+
+        private static final class Changes {
+
+            private long[] values = new long[3 * 16];
+            private int size;
+
+            void add(long idHigh, long idLow, long dueEpochSecond) {
+                if (size == values.length) {
+                    values = Arrays.copyOf(values, size * 2);
+                }
+                values[size++] = idHigh;
+                values[size++] = idLow;
+                values[size++] = dueEpochSecond;
+            }
+
+            // A deadline truncated to the second may be polled slightly early; markOverdue re-checks the stored
+            // due date and tracks the snapshot again.
+            void applyTo(DeadlineQueue queue, UUID userId) {
+                for (int i = 0; i < size; i += 3) {
+                    UUID id = new UUID(values[i], values[i + 1]);
+                    if (values[i + 2] == CANCELLED) {
+                        queue.cancel(id);
+                    } else {
+                        queue.schedule(id, userId, LocalDateTime.ofEpochSecond(values[i + 2], 0, ZoneOffset.UTC));
+                    }
+                }
+            }
+        }
+    }
+}
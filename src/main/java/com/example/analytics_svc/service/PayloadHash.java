@@ -0,0 +1,105 @@
+package com.example.analytics_svc.service;
+
+import com.example.analytics_svc.model.CodedEnum;
+import com.example.analytics_svc.web.dto.ProjectAnalyticsRequest;
+import com.example.analytics_svc.web.dto.TaskAnalyticsRequest;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Order-independent 64-bit fingerprint of a sync payload. Every request is hashed on its own and the element
+ * hashes are summed, so the same requests in any order give the same value while a changed, added, removed or
+ * repeated request changes it. Stored with the analytics row to recognise a payload that was already applied.
+ */
+public final class PayloadHash {
+
+    private static final long TASK_SEED = 0x7A5C3E1F2B4D6A89L;
+    private static final long PROJECT_SEED = 0x3C9E5B1D7F2A4E68L;
+    private static final long NO_VALUE = Long.MIN_VALUE;
+
+    private long sum;
+    private long count;
+
+    public static long ofTasks(List<TaskAnalyticsRequest> tasks) {
+        PayloadHash hash = new PayloadHash();
+        for (TaskAnalyticsRequest task : tasks) {
+            hash.add(task);
+        }
+        return hash.value();
+    }
+
+    public static long ofProjects(List<ProjectAnalyticsRequest> projects) {
+        PayloadHash hash = new PayloadHash();
+        for (ProjectAnalyticsRequest project : projects) {
+            hash.add(project);
+        }
+        return hash.value();
+    }
+
+    // The request's userId is not part of a task: snapshots are always stored under the path user.
+    public void add(TaskAnalyticsRequest task) {
+        long h = TASK_SEED;
+        h = mix(h, task.getTaskId());
+        h = mix(h, code(task.getStatus()));
+        h = mix(h, code(task.getPriority()));
+        h = mix(h, epochNanos(task.getCreatedOn()));
+        h = mix(h, epochNanos(task.getDueDate()));
+        h = mix(h, epochNanos(task.getCompletedOn()));
+        h = mix(h, task.isDeleted() ? 1 : 0);
+        append(h);
+    }
+
+    public void add(ProjectAnalyticsRequest project) {
+        long h = PROJECT_SEED;
+        h = mix(h, project.getProjectId());
+        h = mix(h, project.getUserId());
+        h = mix(h, code(project.getStatus()));
+        h = mix(h, project.getCompletionPercentage());
+        h = mix(h, epochNanos(project.getCreatedOn()));
+        h = mix(h, epochNanos(project.getDueDate()));
+        h = mix(h, epochNanos(project.getCompletedOn()));
+        h = mix(h, project.isDeleted() ? 1 : 0);
+        append(h);
+    }
+
+    public long value() {
+        return fmix(sum ^ fmix(count));
+    }
+
+    private void append(long elementHash) {
+        sum += elementHash;
+        count++;
+    }
+
+    private static long mix(long h, UUID id) {
+        if (id == null) {
+            return mix(h, NO_VALUE);
+        }
+        return mix(mix(h, id.getMostSignificantBits()), id.getLeastSignificantBits());
+    }
+
+    private static long mix(long h, long value) {
+        return fmix(h ^ fmix(value + 0x9E3779B97F4A7C15L));
+    }
+
+    // MurmurHash3 64-bit finalizer: a bijection that spreads every input bit over the whole output.
+    private static long fmix(long k) {
+        k ^= k >>> 33;
+        k *= 0xFF51AFD7ED558CCDL;
+        k ^= k >>> 33;
+        k *= 0xC4CEB9FE1A85EC53L;
+        k ^= k >>> 33;
+        return k;
+    }
+
+    private static long code(CodedEnum value) {
+        return value == null ? NO_VALUE : value.getCode();
+    }
+
+    private static long epochNanos(LocalDateTime dateTime) {
+        return dateTime == null ? NO_VALUE : dateTime.toEpochSecond(ZoneOffset.UTC) * 1_000_000_000L + dateTime.getNano();
+    }
+}
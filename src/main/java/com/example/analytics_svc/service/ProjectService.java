@@ -1,18 +1,27 @@
 package com.example.analytics_svc.service;
+import com.example.analytics_svc.config.AggregationEngine;
+import com.example.analytics_svc.config.AnalyticsProperties;
 import com.example.analytics_svc.model.ProjectAnalytics;
 import com.example.analytics_svc.model.ProjectSnapshot;
+import com.example.analytics_svc.model.ProjectStatus;
 import com.example.analytics_svc.repository.ProjectAnalyticsRepository;
+import com.example.analytics_svc.repository.ProjectAnalyticsView;
 import com.example.analytics_svc.repository.ProjectSnapshotRepository;
+import com.example.analytics_svc.repository.ProjectSnapshotTotals;
 import com.example.analytics_svc.web.dto.ProjectAnalyticsRequest;
+import com.example.analytics_svc.web.dto.ProjectEventRequest;
+import com.example.analytics_svc.web.dto.SnapshotEventType;
 import jakarta.persistence.EntityManager;
 import jakarta.transaction.Transactional;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
-import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
 import java.util.UUID;
 
 @Slf4j
@@ -22,133 +31,272 @@ public class ProjectService {
     private final ProjectSnapshotRepository snapshotRepository;
     private final ProjectAnalyticsRepository projectAnalyticsRepository;
     private final EntityManager entityManager;
+    private final AnalyticsProperties properties;
+    private final AnalyticsCache analyticsCache;
+    private final UserWriteLock userWriteLock;
+    private final AnalyticsRollupService rollupService;
+    private final OverdueTracker overdueTracker;
 
-    public ProjectService(ProjectSnapshotRepository snapshotRepository, ProjectAnalyticsRepository projectAnalyticsRepository, EntityManager entityManager) {
+    public ProjectService(ProjectSnapshotRepository snapshotRepository, ProjectAnalyticsRepository projectAnalyticsRepository, EntityManager entityManager, AnalyticsProperties properties, AnalyticsCache analyticsCache, UserWriteLock userWriteLock, AnalyticsRollupService rollupService, OverdueTracker overdueTracker) {
         this.snapshotRepository = snapshotRepository;
         this.projectAnalyticsRepository = projectAnalyticsRepository;
         this.entityManager = entityManager;
+        this.properties = properties;
+        this.analyticsCache = analyticsCache;
+        this.userWriteLock = userWriteLock;
+        this.rollupService = rollupService;
+        this.overdueTracker = overdueTracker;
     }
 
     @Transactional
     public ProjectAnalytics upsertProjects(List<ProjectAnalyticsRequest> requests, UUID userId) {
 
         if (requests == null || requests.isEmpty()) {
-            return emptyAnalytics(userId);
+            return clearProjects(userId);
+        }
+
+        userWriteLock.lock(userId);
+
+        long payloadHash = PayloadHash.ofProjects(requests);
+        ProjectAnalytics stored = findStoredAnalytics(userId).orElse(null);
+        if (stored != null && Objects.equals(stored.getPayloadHash(), payloadHash)) {
+            log.debug("Project payload for user [%s] is unchanged, keeping analytics version %d".formatted(userId, stored.getVersion()));
+            return stored;
         }
 
         snapshotRepository.deleteAllByUserId(userId);
-        snapshotRepository.flush();
-        entityManager.clear();
+
+        int batchSize = properties.getPersistence().getBatchSize();
+        int pending = 0;
 
         for (ProjectAnalyticsRequest request : requests) {
             ProjectSnapshot snap = ProjectSnapshot.builder().projectId(request.getProjectId()).build();
-
-            snap.setUserId(request.getUserId());
-            snap.setStatus(request.getStatus());
-            snap.setCompletionPercentage(request.getCompletionPercentage());
-            snap.setCreatedOn(request.getCreatedOn());
-            snap.setDueDate(request.getDueDate());
-            snap.setDeleted(request.isDeleted());
+            applyRequest(snap, request);
 
             snapshotRepository.save(snap);
-        }
+            overdueTracker.track(snap);
 
-        ProjectAnalytics projectAnalytics = getProjectAnalytics(snapshotRepository.findAllByUserIdAndDeletedFalse(userId), snapshotRepository.findAllByUserId(userId), userId);
-        projectAnalytics.setUserId(userId);
+            if (++pending == batchSize) {
+                snapshotRepository.flush();
+                entityManager.clear();
+                pending = 0;
+            }
+        }
 
-        projectAnalyticsRepository.findByUserId(userId)
-                .ifPresent(project -> projectAnalytics.setId(project.getId()));
+        ProjectAnalytics projectAnalytics = properties.getAggregation().getEngine() == AggregationEngine.SQL
+                ? getProjectAnalyticsFromDatabase(userId)
+                : getProjectAnalyticsFromRequests(requests, userId);
+        projectAnalytics.setPayloadHash(payloadHash);
 
         log.info("Successfully upserted project analytics for user [%s]".formatted(userId));
-        return projectAnalyticsRepository.save(projectAnalytics);
+        return saveAnalytics(projectAnalytics, stored);
     }
 
-    public ProjectAnalytics getProjectAnalytics(List<ProjectSnapshot> projects, List<ProjectSnapshot> lifetime, UUID userId) {
+    /**
+     * Handles an empty upload: drops the user's snapshots and stores empty analytics.
+     */
+    @Transactional
+    public ProjectAnalytics clearProjects(UUID userId) {
 
-        if (projects.isEmpty()) {
-            return emptyAnalytics(userId);
-        }
+        userWriteLock.lock(userId);
+        snapshotRepository.deleteAllByUserId(userId);
 
-        return ProjectAnalytics.builder()
-                .userId(userId)
-                .totalProjects(projects.size())
-                .activeProjects(getActiveProjects(projects))
-                .completedProjects(getCompletedProjects(projects))
-                .averageProgress(getAverageProgress(projects))
-                .overdueProjects(getOverdueProjects(projects))
-                .totalProjectsLifetime(lifetime.size())
-                .completedProjectsLifetime(getCompletedProjects(lifetime))
-                .abandonedProjectsLifetime(getAbandonedLifetimeProjects(lifetime).size())
-                .averageProjectDurationLifetime(getAverageProjectDurationLifetime(lifetime))
-                .projectCompletionRateLifetime(getCompletionRateLifetime(lifetime))
-                .build();
+        log.info("Cleared project analytics for user [%s]".formatted(userId));
+        // The stored counters and payload hash have to go as well, or the next upload of the old payload would be skipped.
+        return findStoredAnalytics(userId)
+                .map(stored -> saveAnalytics(emptyAnalytics(userId), stored))
+                .orElseGet(() -> emptyAnalytics(userId));
     }
 
-    public double getCompletionRateLifetime(List<ProjectSnapshot> lifetime) {
-        int completed = getCompletedProjects(lifetime);
-        int projects = lifetime.size();
+    @Transactional
+    public ProjectAnalytics applyEvent(ProjectEventRequest event, UUID userId) {
 
-        if (projects == 0) {
-            return 0;
+        ProjectAnalyticsRequest request = event.getProject();
+        if (!userId.equals(request.getUserId())) {
+            throw new IllegalArgumentException("Project [%s] does not belong to user [%s]".formatted(request.getProjectId(), userId));
         }
 
-        return ((double)completed / projects) * 100.0;
-    }
+        userWriteLock.lock(userId);
+        ProjectAnalytics stored = findStoredAnalytics(userId).orElseGet(() -> emptyAnalytics(userId));
+
+        SnapshotAccumulator projects = SnapshotAccumulator.currentOf(stored);
+        SnapshotAccumulator lifetime = SnapshotAccumulator.lifetimeOf(stored);
+
+        Optional<ProjectSnapshot> previous = snapshotRepository.findByProjectIdAndUserId(request.getProjectId(), userId);
+        previous.ifPresent(snap -> {
+            lifetime.remove(snap);
+            if (!snap.isDeleted()) {
+                projects.remove(snap);
+            }
+        });
+
+        if (event.getType() == SnapshotEventType.DELETED) {
+            previous.ifPresent(snapshotRepository::delete);
+        } else {
+            ProjectSnapshot snap = previous.orElseGet(() -> ProjectSnapshot.builder().projectId(request.getProjectId()).build());
+            applyRequest(snap, request);
+            snapshotRepository.save(snap);
+            overdueTracker.track(snap);
 
-    public long getAverageProjectDurationLifetime(List<ProjectSnapshot> lifetime) {
-        if (lifetime == null || lifetime.isEmpty()) {
-            return 0;
+            lifetime.accept(snap);
+            if (!snap.isDeleted()) {
+                projects.accept(snap);
+            }
+        }
+
+        ProjectAnalytics projectAnalytics;
+        if (stored.getTotalProjects() == 0) {
+            // A user without current projects is stored empty, so there are no lifetime counters to adjust.
+            projectAnalytics = getProjectAnalyticsFromDatabase(userId);
+        } else if (projects.getTotal() == 0) {
+            projectAnalytics = emptyAnalytics(userId);
+        } else {
+            projectAnalytics = toProjectAnalytics(projects, lifetime, userId);
         }
 
-        List<Long> durationBetweenInDays = new ArrayList<>();
+        log.info("Applied %s project event for user [%s]".formatted(event.getType(), userId));
+        return saveAnalytics(projectAnalytics, stored);
+    }
+
+    /**
+     * Moves the given open projects whose due date has passed to {@link ProjectStatus#OVERDUE}, adjusting the stored
+     * counters the same way a client event would; returns {@code null} when nothing changed.
+     */
+    @Transactional
+    public ProjectAnalytics markOverdue(UUID userId, Collection<UUID> projectIds, LocalDateTime now) {
+
+        userWriteLock.lock(userId);
 
-        for (ProjectSnapshot project : lifetime) {
-            LocalDateTime completedOn = project.getCompletedOn();
-            if (completedOn == null) {
+        Optional<ProjectAnalytics> stored = findStoredAnalytics(userId);
+        List<ProjectSnapshot> due = new ArrayList<>();
+        for (ProjectSnapshot snap : snapshotRepository.findAllByUserIdAndProjectIdIn(userId, projectIds)) {
+            if (snap.isDeleted() || !OverdueTracker.isOpen(snap.getStatus())) {
                 continue;
             }
+            if (snap.getDueDate().isAfter(now)) {
+                // Rescheduled since it was queued; keep following the new due date.
+                overdueTracker.track(snap);
+            } else {
+                due.add(snap);
+            }
+        }
 
-            Duration duration = Duration.between(project.getCreatedOn(), completedOn);
-            durationBetweenInDays.add(duration.toDays());
+        if (stored.isEmpty() || due.isEmpty()) {
+            return null;
         }
 
-        if (durationBetweenInDays.isEmpty()) {
-            return 0;
+        SnapshotAccumulator projects = SnapshotAccumulator.currentOf(stored.get());
+        SnapshotAccumulator lifetime = SnapshotAccumulator.lifetimeOf(stored.get());
+
+        for (ProjectSnapshot snap : due) {
+            lifetime.remove(snap);
+            projects.remove(snap);
+
+            snap.setStatus(ProjectStatus.OVERDUE);
+
+            lifetime.accept(snap);
+            projects.accept(snap);
         }
 
-        long sum = durationBetweenInDays.stream().mapToLong(Long::longValue).sum();
+        ProjectAnalytics projectAnalytics = toProjectAnalytics(projects, lifetime, userId);
 
-        return sum / durationBetweenInDays.size();
+        log.info("Marked %d projects overdue for user [%s]".formatted(due.size(), userId));
+        return saveAnalytics(projectAnalytics, stored.get());
     }
 
-    public List<ProjectSnapshot> getAbandonedLifetimeProjects(List<ProjectSnapshot> lifetime) {
-        return lifetime.stream().filter(p -> p.getStatus().equals("OVERDUE") && p.isDeleted()).toList();
+    // Read as a detached copy: the row is only an input here and is written back through the upsert.
+    private Optional<ProjectAnalytics> findStoredAnalytics(UUID userId) {
+        return projectAnalyticsRepository.findViewByUserId(userId).map(ProjectAnalyticsView::toAnalytics);
     }
 
-    public int getOverdueProjects(List<ProjectSnapshot> projects) {
-        return (int) projects.stream().filter(p -> p.getStatus().equals("OVERDUE")).count();
+    private ProjectAnalytics saveAnalytics(ProjectAnalytics analytics, ProjectAnalytics previous) {
+        rollupService.record(previous, analytics);
+        ProjectAnalytics saved = projectAnalyticsRepository.upsert(analytics, previous);
+        analyticsCache.put(saved);
+        return saved;
     }
 
-    public int getAverageProgress(List<ProjectSnapshot> projects) {
+    private void applyRequest(ProjectSnapshot snap, ProjectAnalyticsRequest request) {
+        snap.setUserId(request.getUserId());
+        snap.setStatus(request.getStatus());
+        snap.setCompletionPercentage(request.getCompletionPercentage());
+        snap.setCreatedOn(request.getCreatedOn());
+        snap.setDueDate(request.getDueDate());
+        snap.setCompletedOn(request.getCompletedOn());
+        snap.setCompletionSeconds(SnapshotAccumulator.completionSeconds(request.getCreatedOn(), request.getCompletedOn()));
+        snap.setDeleted(request.isDeleted());
+    }
+
+    public ProjectAnalytics getProjectAnalytics(List<ProjectSnapshot> projects, List<ProjectSnapshot> lifetime, UUID userId) {
+
         if (projects.isEmpty()) {
-            return 0;
+            return emptyAnalytics(userId);
         }
 
-        int sum = projects.stream().mapToInt(ProjectSnapshot::getCompletionPercentage).sum();
+        return toProjectAnalytics(SnapshotAccumulator.ofProjects(projects), SnapshotAccumulator.ofProjects(lifetime), userId);
+    }
+
+    public ProjectAnalytics getProjectAnalyticsFromRequests(List<ProjectAnalyticsRequest> requests, UUID userId) {
+
+        SnapshotAccumulator projects = new SnapshotAccumulator();
+        SnapshotAccumulator lifetime = new SnapshotAccumulator();
+
+        for (ProjectAnalyticsRequest request : requests) {
+            // Snapshots are stored under the request's userId, so only those rows belong to this user's analytics.
+            if (!userId.equals(request.getUserId())) {
+                continue;
+            }
+
+            lifetime.accept(request);
+            if (!request.isDeleted()) {
+                projects.accept(request);
+            }
+        }
 
-        if (sum == 0) {
-            return 0;
+        if (projects.getTotal() == 0) {
+            return emptyAnalytics(userId);
         }
 
-        return Math.round((float) sum / projects.size());
+        return toProjectAnalytics(projects, lifetime, userId);
     }
 
-    public int getCompletedProjects(List<ProjectSnapshot> projects) {
-        return (int) projects.stream().filter(p -> p.getStatus().equals("COMPLETED")).count();
+    public ProjectAnalytics getProjectAnalyticsFromDatabase(UUID userId) {
+
+        SnapshotAccumulator projects = new SnapshotAccumulator();
+        SnapshotAccumulator lifetime = new SnapshotAccumulator();
+
+        for (ProjectSnapshotTotals totals : snapshotRepository.aggregateByUserId(userId)) {
+            lifetime.add(totals);
+            if (!totals.isDeleted()) {
+                projects.add(totals);
+            }
+        }
+
+        if (projects.getTotal() == 0) {
+            return emptyAnalytics(userId);
+        }
+
+        return toProjectAnalytics(projects, lifetime, userId);
     }
 
-    public int getActiveProjects(List<ProjectSnapshot> projects) {
-        return (int) projects.stream().filter(p -> p.getStatus().equals("ACTIVE")).count();
+    public ProjectAnalytics toProjectAnalytics(SnapshotAccumulator projects, SnapshotAccumulator lifetime, UUID userId) {
+
+        return ProjectAnalytics.builder()
+                .userId(userId)
+                .totalProjects(projects.getTotal())
+                .activeProjects(projects.getActive())
+                .completedProjects(projects.getCompleted())
+                .averageProgress(projects.averageProgress())
+                .overdueProjects(projects.getOverdue())
+                .totalProjectsLifetime(lifetime.getTotal())
+                .completedProjectsLifetime(lifetime.getCompleted())
+                .abandonedProjectsLifetime(lifetime.getDeletedOverdue())
+                .averageProjectDurationLifetime(lifetime.averageCompletionWholeDays())
+                .projectCompletionRateLifetime(lifetime.completionRate())
+                .progressSum(projects.getProgressSum())
+                .durationSumLifetime(lifetime.getCompletionDaysSum())
+                .durationCountLifetime(lifetime.getCompletionCount())
+                .build();
     }
 
     public ProjectAnalytics emptyAnalytics(UUID userId) {
@@ -0,0 +1,337 @@
+package com.example.analytics_svc.service;
+
+import com.example.analytics_svc.model.ProjectAnalytics;
+import com.example.analytics_svc.model.ProjectSnapshot;
+import com.example.analytics_svc.model.ProjectStatus;
+import com.example.analytics_svc.model.TaskAnalytics;
+import com.example.analytics_svc.model.TaskPriority;
+import com.example.analytics_svc.model.TaskSnapshot;
+import com.example.analytics_svc.model.TaskStatus;
+import com.example.analytics_svc.repository.CompletionSecondsCount;
+import com.example.analytics_svc.repository.ProjectSnapshotTotals;
+import com.example.analytics_svc.repository.TaskSnapshotTotals;
+import com.example.analytics_svc.web.dto.ProjectAnalyticsRequest;
+import com.example.analytics_svc.web.dto.TaskAnalyticsRequest;
+import lombok.Getter;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+
+/**
+ * Single-pass aggregation kernel shared by {@link TaskService} and {@link ProjectService}.
+ * Every snapshot is visited once and folded into primitive counters from which the derived values
+ * (rates, averages, fastest completion) are computed.
+ * The counters can be restored from a stored analytics row and adjusted by single snapshots.
+ */
+@Getter
+public class SnapshotAccumulator {
+
+    private static final long SECONDS_PER_DAY = 86_400;
+    private static final long SECONDS_PER_HOUR = 3_600;
+
+    private int total;
+    private int completed;
+    private int inProgress;
+    private int todo;
+    private int active;
+    private int overdue;
+    private int lowPriority;
+    private int mediumPriority;
+    private int highPriority;
+    private int deletedIncomplete;
+    private int deletedOverdue;
+    private int progressSum;
+    private long completionDaysSum;
+    private int completionCount;
+    private long fastestCompletionSeconds = Long.MAX_VALUE;
+    private boolean fastestStale;
+    private CompletionTimeSketch completionSketch = new CompletionTimeSketch();
+
+    public static SnapshotAccumulator ofTasks(List<TaskSnapshot> tasks) {
+        SnapshotAccumulator accumulator = new SnapshotAccumulator();
+        for (TaskSnapshot task : tasks) {
+            accumulator.accept(task);
+        }
+        return accumulator;
+    }
+
+    public static SnapshotAccumulator ofProjects(List<ProjectSnapshot> projects) {
+        SnapshotAccumulator accumulator = new SnapshotAccumulator();
+        for (ProjectSnapshot project : projects) {
+            accumulator.accept(project);
+        }
+        return accumulator;
+    }
+
+    public static SnapshotAccumulator currentOf(TaskAnalytics analytics) {
+        SnapshotAccumulator accumulator = new SnapshotAccumulator();
+        accumulator.total = analytics.getTotalTasks();
+        accumulator.completed = analytics.getCompletedTasks();
+        accumulator.inProgress = analytics.getInProgressTasks();
+        accumulator.todo = analytics.getTodoTasks();
+        accumulator.overdue = analytics.getOverdueTasks();
+        accumulator.lowPriority = analytics.getLowPriorityCount();
+        accumulator.mediumPriority = analytics.getMediumPriorityCount();
+        accumulator.highPriority = analytics.getHighPriorityCount();
+        accumulator.completionDaysSum = analytics.getCompletionTimeSum();
+        accumulator.completionCount = analytics.getCompletionTimeCount();
+        accumulator.completionSketch = CompletionTimeSketch.fromBytes(analytics.getCompletionTimeSketch());
+        return accumulator;
+    }
+
+    public static SnapshotAccumulator lifetimeOf(TaskAnalytics analytics) {
+        SnapshotAccumulator accumulator = new SnapshotAccumulator();
+        accumulator.total = analytics.getLifetimeTotalTasks();
+        accumulator.completed = analytics.getLifetimeCompletedTasks();
+        accumulator.deletedIncomplete = analytics.getLifetimeAbandonedTasks();
+        accumulator.deletedOverdue = analytics.getLifetimeOverdueTasks();
+        accumulator.completionDaysSum = analytics.getLifetimeCompletionTimeSum();
+        accumulator.completionCount = analytics.getLifetimeCompletionTimeCount();
+        if (accumulator.completionCount > 0) {
+            accumulator.fastestCompletionSeconds = analytics.getFastestCompletionTime() * SECONDS_PER_HOUR;
+        }
+        return accumulator;
+    }
+
+    public static SnapshotAccumulator currentOf(ProjectAnalytics analytics) {
+        SnapshotAccumulator accumulator = new SnapshotAccumulator();
+        accumulator.total = analytics.getTotalProjects();
+        accumulator.completed = analytics.getCompletedProjects();
+        accumulator.active = analytics.getActiveProjects();
+        accumulator.overdue = analytics.getOverdueProjects();
+        accumulator.progressSum = analytics.getProgressSum();
+        return accumulator;
+    }
+
+    public static SnapshotAccumulator lifetimeOf(ProjectAnalytics analytics) {
+        SnapshotAccumulator accumulator = new SnapshotAccumulator();
+        accumulator.total = analytics.getTotalProjectsLifetime();
+        accumulator.completed = analytics.getCompletedProjectsLifetime();
+        accumulator.deletedOverdue = analytics.getAbandonedProjectsLifetime();
+        accumulator.completionDaysSum = analytics.getDurationSumLifetime();
+        accumulator.completionCount = analytics.getDurationCountLifetime();
+        return accumulator;
+    }
+
+    public void accept(TaskSnapshot task) {
+        apply(task, 1);
+    }
+
+    public void remove(TaskSnapshot task) {
+        apply(task, -1);
+    }
+
+    public void accept(ProjectSnapshot project) {
+        apply(project, 1);
+    }
+
+    public void remove(ProjectSnapshot project) {
+        apply(project, -1);
+    }
+
+    public void accept(TaskAnalyticsRequest task) {
+        applyStatus(task.getStatus(), task.isDeleted(), 1);
+        applyPriority(task.getPriority(), 1);
+        applyCompletion(completionSeconds(task.getCreatedOn(), task.getCompletedOn()), 1);
+    }
+
+    public void accept(ProjectAnalyticsRequest project) {
+        applyStatus(project.getStatus(), project.isDeleted(), 1);
+        applyCompletion(completionSeconds(project.getCreatedOn(), project.getCompletedOn()), 1);
+        progressSum += project.getCompletionPercentage();
+    }
+
+    private void apply(TaskSnapshot task, int sign) {
+        applyStatus(task.getStatus(), task.isDeleted(), sign);
+        applyPriority(task.getPriority(), sign);
+        applyCompletion(task.getCompletionSeconds(), sign);
+    }
+
+    private void apply(ProjectSnapshot project, int sign) {
+        applyStatus(project.getStatus(), project.isDeleted(), sign);
+        applyCompletion(project.getCompletionSeconds(), sign);
+        progressSum += sign * project.getCompletionPercentage();
+    }
+
+    public void add(TaskSnapshotTotals totals) {
+        addCounts(totals.isDeleted(), totals.getTotal(), totals.getCompleted(), totals.getOverdue());
+        inProgress += totals.getInProgress();
+        todo += totals.getTodo();
+        lowPriority += totals.getLowPriority();
+        mediumPriority += totals.getMediumPriority();
+        highPriority += totals.getHighPriority();
+        completionDaysSum += totals.getCompletionDaysSum();
+        completionCount += totals.getCompletionCount();
+
+        if (totals.getFastestCompletionSeconds() != null) {
+            fastestCompletionSeconds = Math.min(fastestCompletionSeconds, totals.getFastestCompletionSeconds());
+        }
+    }
+
+    public void add(List<CompletionSecondsCount> completions) {
+        for (CompletionSecondsCount completion : completions) {
+            completionSketch.add(completion.getSeconds(), (int) completion.getCount());
+        }
+    }
+
+    public void add(ProjectSnapshotTotals totals) {
+        addCounts(totals.isDeleted(), totals.getTotal(), totals.getCompleted(), totals.getOverdue());
+        active += totals.getActive();
+        progressSum += totals.getProgressSum();
+        completionDaysSum += totals.getCompletionDaysSum();
+        completionCount += totals.getCompletionCount();
+    }
+
+    private void addCounts(boolean deleted, int total, int completed, int overdue) {
+        this.total += total;
+        this.completed += completed;
+        this.overdue += overdue;
+
+        if (deleted) {
+            deletedIncomplete += total - completed;
+            deletedOverdue += overdue;
+        }
+    }
+
+    private void applyStatus(TaskStatus status, boolean deleted, int sign) {
+        total += sign;
+
+        switch (status) {
+            case COMPLETED -> completed += sign;
+            case IN_PROGRESS -> inProgress += sign;
+            case TODO -> todo += sign;
+            case OVERDUE -> overdue += sign;
+        }
+
+        if (deleted) {
+            applyDeleted(status == TaskStatus.COMPLETED, status == TaskStatus.OVERDUE, sign);
+        }
+    }
+
+    private void applyStatus(ProjectStatus status, boolean deleted, int sign) {
+        total += sign;
+
+        switch (status) {
+            case COMPLETED -> completed += sign;
+            case ACTIVE -> active += sign;
+            case OVERDUE -> overdue += sign;
+            case IN_PROGRESS -> {
+            }
+        }
+
+        if (deleted) {
+            applyDeleted(status == ProjectStatus.COMPLETED, status == ProjectStatus.OVERDUE, sign);
+        }
+    }
+
+    private void applyDeleted(boolean completed, boolean overdue, int sign) {
+        if (!completed) {
+            deletedIncomplete += sign;
+        }
+        if (overdue) {
+            deletedOverdue += sign;
+        }
+    }
+
+    private void applyPriority(TaskPriority priority, int sign) {
+        switch (priority) {
+            case LOW -> lowPriority += sign;
+            case MEDIUM -> mediumPriority += sign;
+            case HIGH -> highPriority += sign;
+        }
+    }
+
+    private void applyCompletion(Long seconds, int sign) {
+        if (seconds == null) {
+            return;
+        }
+
+        completionDaysSum += sign * (seconds / SECONDS_PER_DAY);
+        completionCount += sign;
+        completionSketch.add(seconds, sign);
+
+        if (sign > 0) {
+            fastestCompletionSeconds = Math.min(fastestCompletionSeconds, seconds);
+        } else if (seconds / SECONDS_PER_HOUR <= fastestCompletionSeconds / SECONDS_PER_HOUR) {
+            // A minimum cannot be retracted; the caller has to look up the new one.
+            fastestStale = true;
+        }
+    }
+
+    public boolean isFastestStale() {
+        return fastestStale && completionCount > 0;
+    }
+
+    public void resetFastest(Long fastestCompletionSeconds) {
+        this.fastestCompletionSeconds = fastestCompletionSeconds == null ? Long.MAX_VALUE : fastestCompletionSeconds;
+        this.fastestStale = false;
+    }
+
+    // Rows written before the sketch existed restore an empty one; the counters tell.
+    public boolean isCompletionSketchStale() {
+        return completionSketch.count() != completionCount;
+    }
+
+    public void resetCompletionSketch(List<CompletionSecondsCount> completions) {
+        completionSketch = new CompletionTimeSketch();
+        add(completions);
+    }
+
+    public static Long completionSeconds(LocalDateTime createdOn, LocalDateTime completedOn) {
+        return completedOn == null ? null : secondsBetween(createdOn, completedOn);
+    }
+
+    // Same value as Duration.between(from, to).getSeconds(), without allocating the Duration.
+    static long secondsBetween(LocalDateTime from, LocalDateTime to) {
+        long seconds = to.toEpochSecond(ZoneOffset.UTC) - from.toEpochSecond(ZoneOffset.UTC);
+        if (to.getNano() < from.getNano()) {
+            seconds--;
+        }
+        return seconds;
+    }
+
+    public double completionRate() {
+        if (total == 0) {
+            return 0;
+        }
+
+        return ((double) completed / total) * 100.0;
+    }
+
+    public double averageCompletionDays() {
+        if (completionCount == 0) {
+            return 0;
+        }
+
+        return (double) completionDaysSum / completionCount;
+    }
+
+    public long averageCompletionWholeDays() {
+        if (completionCount == 0) {
+            return 0;
+        }
+
+        return completionDaysSum / completionCount;
+    }
+
+    public long fastestCompletionHours() {
+        if (completionCount == 0) {
+            return 0;
+        }
+
+        return fastestCompletionSeconds / SECONDS_PER_HOUR;
+    }
+
+    public double completionHoursQuantile(double q) {
+        return completionSketch.quantile(q) / SECONDS_PER_HOUR;
+    }
+
+    public int averageProgress() {
+        if (total == 0 || progressSum == 0) {
+            return 0;
+        }
+
+        return Math.round((float) progressSum / total);
+    }
+}
@@ -0,0 +1,106 @@
+package com.example.analytics_svc.service;
+
+import com.example.analytics_svc.model.TaskDailyRollup;
+import com.example.analytics_svc.repository.TaskDailyRollupCounts;
+import com.example.analytics_svc.repository.TaskDailyRollupRepository;
+import com.example.analytics_svc.web.dto.TrendBucket;
+import com.example.analytics_svc.web.dto.TrendGranularity;
+import jakarta.persistence.EntityManager;
+import org.springframework.stereotype.Service;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+@Service
+public class TaskDailyRollupService {
+
+    private static final double SECONDS_PER_DAY = 86_400.0;
+
+    private final TaskDailyRollupRepository rollupRepository;
+    private final EntityManager entityManager;
+
+    public TaskDailyRollupService(TaskDailyRollupRepository rollupRepository, EntityManager entityManager) {
+        this.rollupRepository = rollupRepository;
+        this.entityManager = entityManager;
+    }
+
+    /**
+     * Adds the delta to the stored days. Only the days that actually change are read and written.
+     */
+    public void apply(UUID userId, DailyRollupDelta delta) {
+
+        List<LocalDate> changed = delta.getDays().entrySet().stream()
+                .filter(day -> !DailyRollupDelta.isEmpty(day.getValue()))
+                .map(Map.Entry::getKey)
+                .toList();
+        if (changed.isEmpty()) {
+            return;
+        }
+
+        Map<LocalDate, TaskDailyRollup> rows = new HashMap<>();
+        for (TaskDailyRollup row : rollupRepository.findAllByUserIdAndBucketDateIn(userId, changed)) {
+            rows.put(row.getBucketDate(), row);
+        }
+        Map<LocalDate, TaskDailyRollup> stored = Map.copyOf(rows);
+
+        delta.applyTo(rows, userId);
+
+        rows.forEach((day, row) -> {
+            if (DailyRollupDelta.isEmpty(row)) {
+                if (stored.containsKey(day)) {
+                    rollupRepository.delete(row);
+                }
+            } else if (!stored.containsKey(day)) {
+                // The id is assigned, so save() would merge and select first; new days are persisted directly.
+                entityManager.persist(row);
+            }
+        });
+    }
+
+    public void deleteAllByUserId(UUID userId) {
+        rollupRepository.deleteAllByUserId(userId);
+    }
+
+    public List<TrendBucket> getTrend(UUID userId, int weeks, TrendGranularity granularity, LocalDate today) {
+
+        int bucketDays = granularity == TrendGranularity.WEEK ? 7 : 1;
+        LocalDate start = granularity == TrendGranularity.WEEK
+                ? today.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY)).minusWeeks(weeks - 1)
+                : today.minusWeeks(weeks).plusDays(1);
+
+        int count = (int) (ChronoUnit.DAYS.between(start, today) / bucketDays) + 1;
+        TaskDailyRollup[] sums = new TaskDailyRollup[count];
+        for (int i = 0; i < count; i++) {
+            sums[i] = TaskDailyRollup.builder().bucketDate(start.plusDays((long) i * bucketDays)).build();
+        }
+
+        for (TaskDailyRollupCounts row : rollupRepository.findCountsByUserIdAndBucketDateBetween(userId, start, today)) {
+            TaskDailyRollup sum = sums[(int) (ChronoUnit.DAYS.between(start, row.getBucketDate()) / bucketDays)];
+            sum.setCreatedTasks(sum.getCreatedTasks() + row.getCreatedTasks());
+            sum.setCompletedTasks(sum.getCompletedTasks() + row.getCompletedTasks());
+            sum.setAbandonedTasks(sum.getAbandonedTasks() + row.getAbandonedTasks());
+            sum.setOverdueTasks(sum.getOverdueTasks() + row.getOverdueTasks());
+            sum.setCompletionSecondsSum(sum.getCompletionSecondsSum() + row.getCompletionSecondsSum());
+        }
+
+        List<TrendBucket> trend = new ArrayList<>(count);
+        for (TaskDailyRollup sum : sums) {
+            trend.add(TrendBucket.builder()
+                    .start(sum.getBucketDate())
+                    .createdTasks(sum.getCreatedTasks())
+                    .completedTasks(sum.getCompletedTasks())
+                    .abandonedTasks(sum.getAbandonedTasks())
+                    .overdueTasks(sum.getOverdueTasks())
+                    .avgCompletionTime(sum.getCompletedTasks() == 0 ? 0 : sum.getCompletionSecondsSum() / SECONDS_PER_DAY / sum.getCompletedTasks())
+                    .build());
+        }
+        return trend;
+    }
+}
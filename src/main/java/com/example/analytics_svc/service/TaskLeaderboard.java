@@ -0,0 +1,139 @@
+package com.example.analytics_svc.service;
+
+import com.example.analytics_svc.model.TaskAnalytics;
+import com.example.analytics_svc.repository.TaskAnalyticsRepository;
+import com.example.analytics_svc.repository.TaskLeaderboardRow;
+import com.example.analytics_svc.web.dto.LeaderboardEntry;
+import com.example.analytics_svc.web.dto.LeaderboardMetric;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+/**
+ * Fleet-wide ranking of users by current completion rate and by fastest completion, kept in skip lists so
+ * an update costs O(log n) and a page of k users costs O(offset + k). Pages that start past the last ranked user
+ * are answered empty from a count kept beside each ranking, so the walk never exceeds the ranking's size.
+ * It is loaded from the analytics table at startup and afterwards follows every committed task write;
+ * an entry only replaces one with a lower version.
+ */
+@Slf4j
+@Component
+public class TaskLeaderboard {
+
+    private static final Comparator<Entry> BY_COMPLETION_RATE = Comparator.comparingDouble(Entry::completionRate).reversed()
+            .thenComparing(Entry::userId);
+    private static final Comparator<Entry> BY_FASTEST_COMPLETION = Comparator.comparingLong(Entry::fastestCompletionTime)
+            .thenComparing(Entry::userId);
+
+    private final TaskAnalyticsRepository taskAnalyticsRepository;
+
+    private final Map<UUID, Entry> entries = new ConcurrentHashMap<>();
+    private final NavigableSet<Entry> byCompletionRate = new ConcurrentSkipListSet<>(BY_COMPLETION_RATE);
+    private final NavigableSet<Entry> byFastestCompletion = new ConcurrentSkipListSet<>(BY_FASTEST_COMPLETION);
+    // ConcurrentSkipListSet.size() walks the whole set, so each ranking's size is counted as entries come and go.
+    private final AtomicInteger rankedByCompletionRate = new AtomicInteger();
+    private final AtomicInteger rankedByFastestCompletion = new AtomicInteger();
+
+    public TaskLeaderboard(TaskAnalyticsRepository taskAnalyticsRepository) {
+        this.taskAnalyticsRepository = taskAnalyticsRepository;
+    }
+
+    @Transactional(readOnly = true)
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        try (Stream<TaskLeaderboardRow> rows = taskAnalyticsRepository.streamLeaderboardRows()) {
+            rows.forEach(row -> update(new Entry(row.getUserId(), row.getVersion(), row.getTotalTasks() > 0,
+                    row.getCompletionRate(), row.getLifetimeCompletionTimeCount() > 0, row.getFastestCompletionTime())));
+        }
+
+        log.info("Loaded task leaderboard with %d users".formatted(entries.size()));
+    }
+
+    public void update(TaskAnalytics analytics) {
+        Entry entry = new Entry(analytics.getUserId(), analytics.getVersion(), analytics.getTotalTasks() > 0,
+                analytics.getCompletionRate(), analytics.getLifetimeCompletionTimeCount() > 0, analytics.getFastestCompletionTime());
+
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            update(entry);
+            return;
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                update(entry);
+            }
+        });
+    }
+
+    private void update(Entry entry) {
+        entries.compute(entry.userId(), (userId, previous) -> {
+            if (previous != null) {
+                if (previous.version() >= entry.version()) {
+                    return previous;
+                }
+                if (byCompletionRate.remove(previous)) {
+                    rankedByCompletionRate.decrementAndGet();
+                }
+                if (byFastestCompletion.remove(previous)) {
+                    rankedByFastestCompletion.decrementAndGet();
+                }
+            }
+
+            if (entry.hasTasks() && byCompletionRate.add(entry)) {
+                rankedByCompletionRate.incrementAndGet();
+            }
+            if (entry.hasCompletions() && byFastestCompletion.add(entry)) {
+                rankedByFastestCompletion.incrementAndGet();
+            }
+            return entry;
+        });
+    }
+
+    public List<LeaderboardEntry> getPage(LeaderboardMetric metric, int page, int size) {
+        NavigableSet<Entry> ranking = metric == LeaderboardMetric.COMPLETION_RATE ? byCompletionRate : byFastestCompletion;
+        AtomicInteger ranked = metric == LeaderboardMetric.COMPLETION_RATE ? rankedByCompletionRate : rankedByFastestCompletion;
+
+        // Computed as a long so a huge page cannot overflow into a small offset.
+        long offset = (long) page * size;
+        if (offset >= ranked.get()) {
+            return List.of();
+        }
+
+        Iterator<Entry> iterator = ranking.iterator();
+        for (int i = 0; i < offset && iterator.hasNext(); i++) {
+            iterator.next();
+        }
+
+        List<LeaderboardEntry> result = new ArrayList<>(size);
+        while (result.size() < size && iterator.hasNext()) {
+            Entry entry = iterator.next();
+            result.add(LeaderboardEntry.builder()
+                    .rank((int) offset + result.size() + 1)
+                    .userId(entry.userId())
+                    .value(metric == LeaderboardMetric.COMPLETION_RATE ? entry.completionRate() : entry.fastestCompletionTime())
+                    .build());
+        }
+        return result;
+    }
+
+    private record Entry(UUID userId, long version, boolean hasTasks, double completionRate,
+                         boolean hasCompletions, long fastestCompletionTime) {
+    }
+}
@@ -1,19 +1,32 @@
 package com.example.analytics_svc.service;
 
+import com.example.analytics_svc.config.AggregationEngine;
+import com.example.analytics_svc.config.AnalyticsProperties;
+import com.example.analytics_svc.config.UpsertMode;
 import com.example.analytics_svc.model.TaskAnalytics;
 import com.example.analytics_svc.model.TaskSnapshot;
+import com.example.analytics_svc.model.TaskStatus;
 import com.example.analytics_svc.repository.TaskAnalyticsRepository;
+import com.example.analytics_svc.repository.TaskAnalyticsView;
 import com.example.analytics_svc.repository.TaskSnapshotRepository;
+import com.example.analytics_svc.repository.TaskSnapshotTotals;
+import com.example.analytics_svc.web.dto.SnapshotEventType;
 import com.example.analytics_svc.web.dto.TaskAnalyticsRequest;
+import com.example.analytics_svc.web.dto.TaskEventRequest;
 import jakarta.persistence.EntityManager;
 import jakarta.transaction.Transactional;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
-import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
 import java.util.UUID;
 
 @Slf4j
@@ -23,178 +36,417 @@ public class TaskService {
     private final TaskSnapshotRepository snapshotRepository;
     private final TaskAnalyticsRepository taskAnalyticsRepository;
     private final EntityManager entityManager;
-
-    public TaskService(TaskSnapshotRepository taskSnapshotRepository, TaskAnalyticsRepository analyticsRepository, EntityManager entityManager) {
+    private final AnalyticsProperties properties;
+    private final AnalyticsCache analyticsCache;
+    private final UserWriteLock userWriteLock;
+    private final AnalyticsRollupService rollupService;
+    private final TaskLeaderboard taskLeaderboard;
+    private final TaskDailyRollupService dailyRollupService;
+    private final OverdueTracker overdueTracker;
+
+    public TaskService(TaskSnapshotRepository taskSnapshotRepository, TaskAnalyticsRepository analyticsRepository, EntityManager entityManager, AnalyticsProperties properties, AnalyticsCache analyticsCache, UserWriteLock userWriteLock, AnalyticsRollupService rollupService, TaskLeaderboard taskLeaderboard, TaskDailyRollupService dailyRollupService, OverdueTracker overdueTracker) {
         this.snapshotRepository = taskSnapshotRepository;
         this.taskAnalyticsRepository = analyticsRepository;
         this.entityManager = entityManager;
+        this.properties = properties;
+        this.analyticsCache = analyticsCache;
+        this.userWriteLock = userWriteLock;
+        this.rollupService = rollupService;
+        this.taskLeaderboard = taskLeaderboard;
+        this.dailyRollupService = dailyRollupService;
+        this.overdueTracker = overdueTracker;
     }
 
     @Transactional
     public TaskAnalytics upsertTasks(List<TaskAnalyticsRequest> tasks, UUID userId) {
 
         if (tasks == null || tasks.isEmpty()) {
-            return emptyAnalytics(userId);
+            return clearTasks(userId);
         }
 
+        userWriteLock.lock(userId);
+
+        long payloadHash = PayloadHash.ofTasks(tasks);
+        TaskAnalytics stored = findStoredAnalytics(userId).orElse(null);
+        if (stored != null && Objects.equals(stored.getPayloadHash(), payloadHash)) {
+            log.debug("Task payload for user [%s] is unchanged, keeping analytics version %d".formatted(userId, stored.getVersion()));
+            return stored;
+        }
+
+        if (properties.getTasks().getUpsertMode() == UpsertMode.DIFF) {
+            mergeSnapshots(tasks, userId);
+        } else {
+            replaceSnapshots(tasks, userId);
+        }
+
+        TaskAnalytics analytics = properties.getAggregation().getEngine() == AggregationEngine.SQL
+                ? getTasksAnalyticsFromDatabase(userId)
+                : getTasksAnalyticsFromRequests(tasks, userId);
+        analytics.setPayloadHash(payloadHash);
+
+        log.info("Successfully upserted task analytics for user [%s]".formatted(userId));
+        return saveAnalytics(analytics, stored);
+    }
+
+    /**
+     * Handles an empty upload: drops the user's snapshots and daily rollups and stores empty analytics.
+     */
+    @Transactional
+    public TaskAnalytics clearTasks(UUID userId) {
+
+        userWriteLock.lock(userId);
         snapshotRepository.deleteAllByUserId(userId);
-        snapshotRepository.flush();
-        entityManager.clear();
+        dailyRollupService.deleteAllByUserId(userId);
 
-        for (TaskAnalyticsRequest t : tasks) {
+        log.info("Cleared task analytics for user [%s]".formatted(userId));
+        return saveEmptyAnalytics(userId);
+    }
+
+    @Transactional
+    public TaskAnalytics upsertTaskStream(Iterator<TaskAnalyticsRequest> tasks, UUID userId) {
+
+        userWriteLock.lock(userId);
+        snapshotRepository.deleteAllByUserId(userId);
+        dailyRollupService.deleteAllByUserId(userId);
 
-            TaskSnapshot snap = TaskSnapshot.builder().taskId(t.getTaskId()).build();
+        SnapshotAccumulator current = new SnapshotAccumulator();
+        SnapshotAccumulator lifetime = new SnapshotAccumulator();
+        DailyRollupDelta days = new DailyRollupDelta();
+        PayloadHash payloadHash = new PayloadHash();
 
-            snap.setUserId(userId);
-            snap.setStatus(t.getStatus());
-            snap.setPriority(t.getPriority());
-            snap.setCreatedOn(t.getCreatedOn());
-            snap.setDueDate(t.getDueDate());
-            snap.setCompletedOn(t.getCompletedOn());
-            snap.setDeleted(t.isDeleted());
+        int batchSize = properties.getPersistence().getBatchSize();
+        int pending = 0;
 
+        while (tasks.hasNext()) {
+            TaskAnalyticsRequest t = tasks.next();
+            payloadHash.add(t);
+            TaskSnapshot snap = toSnapshot(t, userId);
             snapshotRepository.save(snap);
+            days.accept(snap);
+            overdueTracker.track(snap);
+
+            lifetime.accept(t);
+            if (!t.isDeleted()) {
+                current.accept(t);
+            }
+
+            if (++pending == batchSize) {
+                snapshotRepository.flush();
+                entityManager.clear();
+                pending = 0;
+            }
         }
 
-        TaskAnalytics analytics = getTasksAnalytics(snapshotRepository.findAllByUserIdAndDeletedFalse(userId), snapshotRepository.findAllByUserId(userId), userId);
-        analytics.setUserId(userId);
+        dailyRollupService.apply(userId, days);
 
-        taskAnalyticsRepository.findByUserId(userId)
-                .ifPresent(task -> analytics.setId(task.getId()));
+        if (lifetime.getTotal() == 0) {
+            return saveEmptyAnalytics(userId);
+        }
 
-        log.info("Successfully upserted task analytics for user [%s]".formatted(userId));
-        return taskAnalyticsRepository.save(analytics);
+        TaskAnalytics analytics = properties.getAggregation().getEngine() == AggregationEngine.SQL
+                ? getTasksAnalyticsFromDatabase(userId)
+                : toTaskAnalytics(current, lifetime, userId);
+        analytics.setPayloadHash(payloadHash.value());
+
+        log.info("Successfully streamed %d tasks into analytics for user [%s]".formatted(lifetime.getTotal(), userId));
+        return saveAnalytics(analytics);
     }
 
+    @Transactional
+    public TaskAnalytics applyEvent(TaskEventRequest event, UUID userId) {
 
-    public TaskAnalytics getTasksAnalytics(List<TaskSnapshot> current, List<TaskSnapshot> lifetime, UUID userId) {
+        TaskAnalyticsRequest task = event.getTask();
+        userWriteLock.lock(userId);
 
-        return TaskAnalytics.builder()
-                .userId(userId)
-                .totalTasks(current.size())
-                .completedTasks(getCompletedTasks(current).size())
-                .inProgressTasks(getInProgressTasks(current))
-                .todoTasks(getTodoTasks(current))
-                .overdueTasks(getOverdueTasks(current))
-                .completionRate(getCompletionRate(current))
-                .avgCompletionTime(averageCompletionTime(current))
-                .lowPriorityCount(getLowPriorityTasks(current))
-                .mediumPriorityCount(getMediumPriorityTasks(current))
-                .highPriorityCount(getHighPriorityTasks(current))
-                .lifetimeTotalTasks(lifetime.size())
-                .lifetimeCompletedTasks(getCompletedTasks(lifetime).size())
-                .lifetimeAbandonedTasks(getAbandonedLifetimeTasks(lifetime).size())
-                .lifetimeOverdueTasks(getLifetimeOverdueTasks(lifetime).size())
-                .lifetimeAverageCompletionTime(averageCompletionTime(lifetime))
-                .lifetimeCompletionRate((int) getCompletionRate(lifetime))
-                .fastestCompletionTime(getFastestCompletionTime(lifetime))
-                .build();
+        TaskAnalytics stored = findStoredAnalytics(userId).orElseGet(() -> emptyAnalytics(userId));
 
-    }
+        SnapshotAccumulator current = SnapshotAccumulator.currentOf(stored);
+        SnapshotAccumulator lifetime = SnapshotAccumulator.lifetimeOf(stored);
+
+        Optional<TaskSnapshot> previous = snapshotRepository.findByTaskIdAndUserId(task.getTaskId(), userId);
+        DailyRollupDelta days = new DailyRollupDelta();
+        previous.ifPresent(snap -> {
+            lifetime.remove(snap);
+            if (!snap.isDeleted()) {
+                current.remove(snap);
+            }
+            days.remove(snap);
+        });
+
+        if (event.getType() == SnapshotEventType.DELETED) {
+            previous.ifPresent(snapshotRepository::delete);
+        } else {
+            TaskSnapshot snap = previous.orElseGet(() -> TaskSnapshot.builder().taskId(task.getTaskId()).build());
+            applyRequest(snap, task, userId);
+            snapshotRepository.save(snap);
+            overdueTracker.track(snap);
 
-    public long getFastestCompletionTime(List<TaskSnapshot> lifetime) {
-        return lifetime.stream().filter(t -> t.getCreatedOn() != null && t.getCompletedOn() != null)
-                .map(t -> Duration.between(t.getCreatedOn(), t.getCompletedOn())).sorted().findFirst()
-                .map(Duration::toHours).orElse(0L);
+            lifetime.accept(snap);
+            if (!snap.isDeleted()) {
+                current.accept(snap);
+            }
+            days.accept(snap);
+        }
+        dailyRollupService.apply(userId, days);
+
+        if (lifetime.isFastestStale()) {
+            lifetime.resetFastest(snapshotRepository.findFastestCompletionSeconds(userId));
+        }
+        if (current.isCompletionSketchStale()) {
+            current.resetCompletionSketch(snapshotRepository.countCurrentCompletionSeconds(userId));
+        }
+
+        TaskAnalytics analytics = toTaskAnalytics(current, lifetime, userId);
+
+        log.info("Applied %s task event for user [%s]".formatted(event.getType(), userId));
+        return saveAnalytics(analytics, stored);
     }
 
+    /**
+     * Moves the given open tasks whose due date has passed to {@link TaskStatus#OVERDUE}, adjusting the stored
+     * counters the same way a client event would. Tasks that were completed, deleted or rescheduled in the meantime
+     * are left alone; returns {@code null} when nothing changed.
+     */
+    @Transactional
+    public TaskAnalytics markOverdue(UUID userId, Collection<UUID> taskIds, LocalDateTime now) {
+
+        userWriteLock.lock(userId);
+
+        Optional<TaskAnalytics> stored = findStoredAnalytics(userId);
+        List<TaskSnapshot> due = new ArrayList<>();
+        for (TaskSnapshot snap : snapshotRepository.findAllByUserIdAndTaskIdIn(userId, taskIds)) {
+            if (snap.isDeleted() || !OverdueTracker.isOpen(snap.getStatus())) {
+                continue;
+            }
+            if (snap.getDueDate().isAfter(now)) {
+                // Rescheduled since it was queued; keep following the new due date.
+                overdueTracker.track(snap);
+            } else {
+                due.add(snap);
+            }
+        }
+
+        if (stored.isEmpty() || due.isEmpty()) {
+            return null;
+        }
+
+        SnapshotAccumulator current = SnapshotAccumulator.currentOf(stored.get());
+        SnapshotAccumulator lifetime = SnapshotAccumulator.lifetimeOf(stored.get());
+        DailyRollupDelta days = new DailyRollupDelta();
 
-    public List<TaskSnapshot> getLifetimeOverdueTasks(List<TaskSnapshot> lifetime) {
-        return lifetime.stream().filter(t -> t.getStatus().equals("OVERDUE") && t.isDeleted()).toList();
+        for (TaskSnapshot snap : due) {
+            lifetime.remove(snap);
+            current.remove(snap);
+            days.remove(snap);
+
+            snap.setStatus(TaskStatus.OVERDUE);
+
+            lifetime.accept(snap);
+            current.accept(snap);
+            days.accept(snap);
+        }
+        dailyRollupService.apply(userId, days);
+
+        if (lifetime.isFastestStale()) {
+            lifetime.resetFastest(snapshotRepository.findFastestCompletionSeconds(userId));
+        }
+        if (current.isCompletionSketchStale()) {
+            current.resetCompletionSketch(snapshotRepository.countCurrentCompletionSeconds(userId));
+        }
+
+        TaskAnalytics analytics = toTaskAnalytics(current, lifetime, userId);
+
+        log.info("Marked %d tasks overdue for user [%s]".formatted(due.size(), userId));
+        return saveAnalytics(analytics, stored.get());
     }
 
-    public List<TaskSnapshot> getAbandonedLifetimeTasks(List<TaskSnapshot> lifetime) {
-        return lifetime.stream().filter(t -> !t.getStatus().equals("COMPLETED") && t.isDeleted()).toList();
+    private void replaceSnapshots(List<TaskAnalyticsRequest> tasks, UUID userId) {
+
+        snapshotRepository.deleteAllByUserId(userId);
+        dailyRollupService.deleteAllByUserId(userId);
+
+        int batchSize = properties.getPersistence().getBatchSize();
+        int pending = 0;
+        DailyRollupDelta days = new DailyRollupDelta();
+
+        for (TaskAnalyticsRequest t : tasks) {
+            TaskSnapshot snap = toSnapshot(t, userId);
+            snapshotRepository.save(snap);
+            days.accept(snap);
+            overdueTracker.track(snap);
+
+            if (++pending == batchSize) {
+                snapshotRepository.flush();
+                entityManager.clear();
+                pending = 0;
+            }
+        }
+
+        dailyRollupService.apply(userId, days);
     }
 
-    public TaskAnalytics emptyAnalytics(UUID userId) {
-        return TaskAnalytics.builder()
-                .userId(userId)
-                .totalTasks(0)
-                .completedTasks(0)
-                .inProgressTasks(0)
-                .todoTasks(0)
-                .overdueTasks(0)
-                .completionRate(0)
-                .avgCompletionTime(0)
-                .lowPriorityCount(0)
-                .mediumPriorityCount(0)
-                .highPriorityCount(0)
-                .lifetimeTotalTasks(0)
-                .lifetimeCompletedTasks(0)
-                .lifetimeAbandonedTasks(0)
-                .lifetimeOverdueTasks(0)
-                .lifetimeAverageCompletionTime(0)
-                .lifetimeCompletionRate(0)
-                .fastestCompletionTime(0)
-                .build();
+    private void mergeSnapshots(List<TaskAnalyticsRequest> tasks, UUID userId) {
+
+        Map<UUID, TaskSnapshot> existing = new HashMap<>();
+        for (TaskSnapshot snap : snapshotRepository.findAllByUserId(userId)) {
+            existing.put(snap.getTaskId(), snap);
+        }
+
+        int inserted = 0;
+        DailyRollupDelta days = new DailyRollupDelta();
+        for (TaskAnalyticsRequest t : tasks) {
+            TaskSnapshot snap = existing.remove(t.getTaskId());
+
+            if (snap == null) {
+                snap = toSnapshot(t, userId);
+                snapshotRepository.save(snap);
+                inserted++;
+            } else {
+                days.remove(snap);
+                // Managed entity: dirty checking only issues an UPDATE when one of the fields actually changed.
+                applyRequest(snap, t, userId);
+            }
+            days.accept(snap);
+            overdueTracker.track(snap);
+        }
+
+        if (!existing.isEmpty()) {
+            existing.values().forEach(days::remove);
+            snapshotRepository.deleteAllInBatch(existing.values());
+        }
+        dailyRollupService.apply(userId, days);
+
+        log.debug("Merged task snapshots for user [%s]: %d inserted, %d deleted".formatted(userId, inserted, existing.size()));
     }
 
-    public int getLowPriorityTasks(List<TaskSnapshot> tasks) {
-        return (int) tasks.stream().filter(t -> t.getPriority().equals("LOW")).count();
+    private TaskSnapshot toSnapshot(TaskAnalyticsRequest t, UUID userId) {
+        TaskSnapshot snap = TaskSnapshot.builder().taskId(t.getTaskId()).build();
+        applyRequest(snap, t, userId);
+        return snap;
     }
 
-    public int getMediumPriorityTasks(List<TaskSnapshot> tasks) {
-        return (int) tasks.stream().filter(t -> t.getPriority().equals("MEDIUM")).count();
+    private TaskAnalytics saveAnalytics(TaskAnalytics analytics) {
+        return saveAnalytics(analytics, findStoredAnalytics(analytics.getUserId()).orElse(null));
     }
 
-    public int getHighPriorityTasks(List<TaskSnapshot> tasks) {
-        return (int) tasks.stream().filter(t -> t.getPriority().equals("HIGH")).count();
+    // The stored counters and payload hash have to go as well, or the next upload of the old payload would be skipped.
+    private TaskAnalytics saveEmptyAnalytics(UUID userId) {
+        return findStoredAnalytics(userId)
+                .map(stored -> saveAnalytics(emptyAnalytics(userId), stored))
+                .orElseGet(() -> emptyAnalytics(userId));
     }
 
-    public int getTodoTasks(List<TaskSnapshot> tasks) {
-        return (int) tasks.stream().filter(t -> t.getStatus().equals("TODO")).count();
+    // Read as a detached copy: the row is only an input here and is written back through the upsert.
+    private Optional<TaskAnalytics> findStoredAnalytics(UUID userId) {
+        return taskAnalyticsRepository.findViewByUserId(userId).map(TaskAnalyticsView::toAnalytics);
     }
 
-    public List<TaskSnapshot> getCompletedTasks(List<TaskSnapshot> tasks) {
-        return  tasks.stream().filter(t -> t.getStatus().equals("COMPLETED")).toList();
+    private TaskAnalytics saveAnalytics(TaskAnalytics analytics, TaskAnalytics previous) {
+        rollupService.record(previous, analytics);
+        TaskAnalytics saved = taskAnalyticsRepository.upsert(analytics, previous);
+        analyticsCache.put(saved);
+        taskLeaderboard.update(saved);
+        return saved;
     }
 
-    public int getInProgressTasks(List<TaskSnapshot> tasks) {
-        return (int) tasks.stream().filter(t -> t.getStatus().equals("IN_PROGRESS")).count();
+    private void applyRequest(TaskSnapshot snap, TaskAnalyticsRequest t, UUID userId) {
+        snap.setUserId(userId);
+        snap.setStatus(t.getStatus());
+        snap.setPriority(t.getPriority());
+        snap.setCreatedOn(t.getCreatedOn());
+        snap.setDueDate(t.getDueDate());
+        snap.setCompletedOn(t.getCompletedOn());
+        snap.setCompletionSeconds(SnapshotAccumulator.completionSeconds(t.getCreatedOn(), t.getCompletedOn()));
+        snap.setDeleted(t.isDeleted());
     }
 
-    public int getOverdueTasks(List<TaskSnapshot> tasks) {
-        return (int) tasks.stream().filter(t -> t.getStatus().equals("OVERDUE")).count();
+    public TaskAnalytics getTasksAnalytics(List<TaskSnapshot> current, List<TaskSnapshot> lifetime, UUID userId) {
+        return toTaskAnalytics(SnapshotAccumulator.ofTasks(current), SnapshotAccumulator.ofTasks(lifetime), userId);
     }
 
-    public double getCompletionRate(List<TaskSnapshot> tasks) {
-        int totalTasks = tasks.size();
-        int completedTasks = getCompletedTasks(tasks).size();
+    public TaskAnalytics getTasksAnalyticsFromRequests(List<TaskAnalyticsRequest> tasks, UUID userId) {
 
-        if (totalTasks == 0) {
-            return 0;
+        SnapshotAccumulator current = new SnapshotAccumulator();
+        SnapshotAccumulator lifetime = new SnapshotAccumulator();
+
+        for (TaskAnalyticsRequest t : tasks) {
+            lifetime.accept(t);
+            if (!t.isDeleted()) {
+                current.accept(t);
+            }
         }
 
-        return ((double) completedTasks / totalTasks) * 100.0;
+        return toTaskAnalytics(current, lifetime, userId);
     }
 
-    public double averageCompletionTime(List<TaskSnapshot> tasks) {
-        if (tasks.isEmpty()) {
-            return 0;
-        }
+    public TaskAnalytics getTasksAnalyticsFromDatabase(UUID userId) {
 
-        List<Long> durationBetweenInDays = new ArrayList<>();
+        SnapshotAccumulator current = new SnapshotAccumulator();
+        SnapshotAccumulator lifetime = new SnapshotAccumulator();
 
-        for (TaskSnapshot task : tasks) {
-            LocalDateTime completedOn = task.getCompletedOn();
-            if (completedOn == null) {
-                continue;
+        for (TaskSnapshotTotals totals : snapshotRepository.aggregateByUserId(userId)) {
+            lifetime.add(totals);
+            if (!totals.isDeleted()) {
+                current.add(totals);
             }
-
-            Duration duration = Duration.between(task.getCreatedOn(), completedOn);
-            durationBetweenInDays.add(duration.toDays());
         }
+        current.add(snapshotRepository.countCurrentCompletionSeconds(userId));
 
-        if (durationBetweenInDays.isEmpty()) {
-            return 0;
-        }
+        return toTaskAnalytics(current, lifetime, userId);
+    }
 
-        double sum = durationBetweenInDays.stream()
-                .mapToLong(Long::longValue)
-                .sum();
+    public TaskAnalytics toTaskAnalytics(SnapshotAccumulator current, SnapshotAccumulator lifetime, UUID userId) {
 
-        return sum / durationBetweenInDays.size();
+        return TaskAnalytics.builder()
+                .userId(userId)
+                .totalTasks(current.getTotal())
+                .completedTasks(current.getCompleted())
+                .inProgressTasks(current.getInProgress())
+                .todoTasks(current.getTodo())
+                .overdueTasks(current.getOverdue())
+                .completionRate(current.completionRate())
+                .avgCompletionTime(current.averageCompletionDays())
+                .lowPriorityCount(current.getLowPriority())
+                .mediumPriorityCount(current.getMediumPriority())
+                .highPriorityCount(current.getHighPriority())
+                .lifetimeTotalTasks(lifetime.getTotal())
+                .lifetimeCompletedTasks(lifetime.getCompleted())
+                .lifetimeAbandonedTasks(lifetime.getDeletedIncomplete())
+                .lifetimeOverdueTasks(lifetime.getDeletedOverdue())
+                .lifetimeAverageCompletionTime(lifetime.averageCompletionDays())
+                .lifetimeCompletionRate((int) lifetime.completionRate())
+                .fastestCompletionTime(lifetime.fastestCompletionHours())
+                .completionTimeSum(current.getCompletionDaysSum())
+                .completionTimeCount(current.getCompletionCount())
+                .lifetimeCompletionTimeSum(lifetime.getCompletionDaysSum())
+                .lifetimeCompletionTimeCount(lifetime.getCompletionCount())
+                .p50CompletionTime(current.completionHoursQuantile(0.5))
+                .p90CompletionTime(current.completionHoursQuantile(0.9))
+                .p99CompletionTime(current.completionHoursQuantile(0.99))
+                .completionTimeSketch(current.getCompletionCount() == 0 ? null : current.getCompletionSketch().toBytes())
+                .build();
     }
 
+    public TaskAnalytics emptyAnalytics(UUID userId) {
+        return TaskAnalytics.builder()
+                .userId(userId)
+                .totalTasks(0)
+                .completedTasks(0)
+                .inProgressTasks(0)
+                .todoTasks(0)
+                .overdueTasks(0)
+                .completionRate(0)
+                .avgCompletionTime(0)
+                .lowPriorityCount(0)
+                .mediumPriorityCount(0)
+                .highPriorityCount(0)
+                .lifetimeTotalTasks(0)
+                .lifetimeCompletedTasks(0)
+                .lifetimeAbandonedTasks(0)
+                .lifetimeOverdueTasks(0)
+                .lifetimeAverageCompletionTime(0)
+                .lifetimeCompletionRate(0)
+                .fastestCompletionTime(0)
+                .build();
+    }
 }
@@ -0,0 +1,148 @@
+package com.example.analytics_svc.service;
+
+import com.example.analytics_svc.config.AnalyticsProperties;
+import com.example.analytics_svc.domain.UserWriteLockTimeout;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Serializes snapshot writes for the same user while different users proceed in parallel.
+ * The lock is taken inside the writing transaction and released when it completes, so the delete and
+ * re-insert of one user's snapshots never interleave with another writer for that user.
+ * Users are hashed onto a fixed set of stripes; with {@code analytics.locking.database-lock} a MySQL
+ * GET_LOCK is taken as well to cover writers on other nodes.
+ */
+@Slf4j
+@Component
+public class UserWriteLock {
+
+    private final ReentrantLock[] stripes;
+    private final AnalyticsProperties.Locking properties;
+    private final JdbcTemplate jdbcTemplate;
+
+    private final Timer waitTimer;
+    private final Counter contended;
+    private final Counter timeouts;
+
+    public UserWriteLock(AnalyticsProperties properties, JdbcTemplate jdbcTemplate, MeterRegistry meterRegistry) {
+        this.properties = properties.getLocking();
+        this.jdbcTemplate = jdbcTemplate;
+
+        this.stripes = new ReentrantLock[this.properties.getStripes()];
+        for (int i = 0; i < stripes.length; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+
+        this.waitTimer = Timer.builder("analytics.write.lock.wait").register(meterRegistry);
+        this.contended = Counter.builder("analytics.write.lock.contended").register(meterRegistry);
+        this.timeouts = Counter.builder("analytics.write.lock.timeouts").register(meterRegistry);
+    }
+
+    /**
+     * Must be called inside a transaction; the lock is held until that transaction commits or rolls back.
+     */
+    public void lock(UUID userId) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            throw new IllegalStateException("User write lock requires an active transaction");
+        }
+
+        ReentrantLock stripe = stripes[stripeOf(userId)];
+        acquire(stripe, userId);
+
+        try {
+            if (properties.isDatabaseLock()) {
+                acquireDatabaseLock(userId);
+            }
+        } catch (RuntimeException e) {
+            stripe.unlock();
+            throw e;
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                try {
+                    if (properties.isDatabaseLock()) {
+                        releaseDatabaseLock(userId);
+                    }
+                } finally {
+                    stripe.unlock();
+                }
+            }
+        });
+    }
+
+    /**
+     * Locks several users in the same transaction. The users are taken in stripe order, so two callers
+     * holding overlapping sets cannot deadlock; later {@link #lock(UUID)} calls for these users re-enter.
+     */
+    public void lockAll(Collection<UUID> userIds) {
+        userIds.stream()
+                .sorted(Comparator.comparingInt(this::stripeOf).thenComparing(Comparator.naturalOrder()))
+                .forEach(this::lock);
+    }
+
+    private int stripeOf(UUID userId) {
+        return Math.floorMod(userId.hashCode(), stripes.length);
+    }
+
+    private void acquire(ReentrantLock stripe, UUID userId) {
+        if (stripe.tryLock()) {
+            waitTimer.record(0, TimeUnit.NANOSECONDS);
+            return;
+        }
+
+        contended.increment();
+        long start = System.nanoTime();
+        boolean acquired;
+
+        try {
+            acquired = stripe.tryLock(properties.getTimeout().toMillis(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new UserWriteLockTimeout("Interrupted while waiting for write lock of user [%s]".formatted(userId));
+        } finally {
+            waitTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+
+        if (!acquired) {
+            timeouts.increment();
+            throw new UserWriteLockTimeout("Timed out waiting for write lock of user [%s]".formatted(userId));
+        }
+    }
+
+    private void acquireDatabaseLock(UUID userId) {
+        Integer acquired = jdbcTemplate.queryForObject("select get_lock(?, ?)", Integer.class,
+                lockName(userId), properties.getTimeout().toSeconds());
+
+        if (acquired == null || acquired != 1) {
+            timeouts.increment();
+            throw new UserWriteLockTimeout("Timed out waiting for database write lock of user [%s]".formatted(userId));
+        }
+    }
+
+    private void releaseDatabaseLock(UUID userId) {
+        try {
+            jdbcTemplate.queryForObject("select release_lock(?)", Integer.class, lockName(userId));
+        } catch (RuntimeException e) {
+            // The lock is tied to the session, it is dropped at the latest when the connection closes.
+            log.warn("Could not release database write lock of user [%s]".formatted(userId), e);
+        }
+    }
+
+    private static String lockName(UUID userId) {
+        return "analytics-write-" + userId;
+    }
+}
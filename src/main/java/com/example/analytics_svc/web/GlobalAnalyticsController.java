@@ -0,0 +1,26 @@
+package com.example.analytics_svc.web;
+
+import com.example.analytics_svc.service.AnalyticsRollupService;
+import com.example.analytics_svc.web.dto.GlobalAnalytics;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/api/v1/analytics")
+public class GlobalAnalyticsController {
+
+    private final AnalyticsRollupService rollupService;
+
+    public GlobalAnalyticsController(AnalyticsRollupService rollupService) {
+        this.rollupService = rollupService;
+    }
+
+    @GetMapping("/global")
+    public ResponseEntity<GlobalAnalytics> getGlobalAnalytics() {
+
+        GlobalAnalytics analytics = rollupService.getGlobalAnalytics();
+        return ResponseEntity.ok(analytics);
+    }
+}
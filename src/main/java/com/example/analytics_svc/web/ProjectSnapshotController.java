@@ -1,15 +1,21 @@
 package com.example.analytics_svc.web;
 
-import com.example.analytics_svc.domain.AnalyticsNotFound;
 import com.example.analytics_svc.model.ProjectAnalytics;
 import com.example.analytics_svc.repository.ProjectAnalyticsRepository;
-import com.example.analytics_svc.repository.ProjectSnapshotRepository;
+import com.example.analytics_svc.repository.ProjectAnalyticsView;
+import com.example.analytics_svc.service.AnalyticsCache;
+import com.example.analytics_svc.service.AsyncUpsertService;
+import com.example.analytics_svc.service.BulkSyncService;
 import com.example.analytics_svc.service.ProjectService;
+import com.example.analytics_svc.web.dto.BulkSyncResponse;
 import com.example.analytics_svc.web.dto.ProjectAnalyticsRequest;
+import com.example.analytics_svc.web.dto.ProjectEventRequest;
+import jakarta.validation.Valid;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 
 @RestController
@@ -17,36 +23,58 @@ import java.util.UUID;
 public class ProjectSnapshotController {
 
     private final ProjectService projectService;
-    private final ProjectSnapshotRepository snapshotRepository;
     private final ProjectAnalyticsRepository analyticsRepository;
+    private final AsyncUpsertService asyncUpsertService;
+    private final AnalyticsCache analyticsCache;
+    private final BulkSyncService bulkSyncService;
 
-    public ProjectSnapshotController(ProjectService projectService, ProjectSnapshotRepository snapshotRepository, ProjectAnalyticsRepository analyticsRepository) {
+    public ProjectSnapshotController(ProjectService projectService, ProjectAnalyticsRepository analyticsRepository, AsyncUpsertService asyncUpsertService, AnalyticsCache analyticsCache, BulkSyncService bulkSyncService) {
         this.projectService = projectService;
-        this.snapshotRepository = snapshotRepository;
         this.analyticsRepository = analyticsRepository;
+        this.asyncUpsertService = asyncUpsertService;
+        this.analyticsCache = analyticsCache;
+        this.bulkSyncService = bulkSyncService;
     }
 
     @PostMapping("/{userId}")
-    public ResponseEntity<ProjectAnalytics> updateAnalytics(@RequestBody List<ProjectAnalyticsRequest> requests, @PathVariable UUID userId) {
+    public ResponseEntity<ProjectAnalytics> updateAnalytics(@RequestBody List<@Valid ProjectAnalyticsRequest> requests, @PathVariable UUID userId) {
 
-        if (requests == null || requests.isEmpty()) {
-            snapshotRepository.deleteAllByUserId(userId);
-            ProjectAnalytics empty = projectService.emptyAnalytics(userId);
-            return ResponseEntity.ok(empty);
+        // An empty list clears the user; it goes through the queue too, so it is ordered with writes already queued.
+        if (asyncUpsertService.isEnabled()) {
+            return asyncUpsertService.submitProjects(requests, userId)
+                    .map(ResponseEntity::ok)
+                    .orElseGet(() -> ResponseEntity.accepted().build());
         }
 
         ProjectAnalytics projectAnalytics = projectService.upsertProjects(requests, userId);
         return ResponseEntity.ok(projectAnalytics);
     }
 
+    @PostMapping("/bulk")
+    public ResponseEntity<BulkSyncResponse<ProjectAnalytics>> bulkUpdateAnalytics(@Valid @RequestBody Map<UUID, List<@Valid ProjectAnalyticsRequest>> requestsByUser) {
+
+        BulkSyncResponse<ProjectAnalytics> response = bulkSyncService.syncProjects(requestsByUser);
+        return ResponseEntity.ok(response);
+    }
+
+    @PostMapping("/{userId}/events")
+    public ResponseEntity<ProjectAnalytics> applyEvent(@Valid @RequestBody ProjectEventRequest event, @PathVariable UUID userId) {
+
+        ProjectAnalytics analytics = projectService.applyEvent(event, userId);
+        return ResponseEntity.ok(analytics);
+    }
+
     @GetMapping("/{userId}")
-    public ProjectAnalytics getProjectAnalytics(@PathVariable UUID userId) {
-        try {
-            return analyticsRepository.findByUserId(userId).orElseThrow(() ->
-                    new AnalyticsNotFound("Project analytics not found for user: [%s]".formatted(userId)));
-        } catch (AnalyticsNotFound e) {
-            ProjectAnalytics projectAnalytics = projectService.emptyAnalytics(userId);
-            return analyticsRepository.save(projectAnalytics);
-        }
+    public ResponseEntity<ProjectAnalytics> getProjectAnalytics(@PathVariable UUID userId) {
+
+        ProjectAnalytics analytics = analyticsCache.getProjectAnalytics(userId, this::loadProjectAnalytics);
+        return ResponseEntity.ok()
+                .eTag(String.valueOf(analytics.getVersion()))
+                .body(analytics);
     }
+
+    private ProjectAnalytics loadProjectAnalytics(UUID userId) {
+        return analyticsRepository.findViewByUserId(userId).map(ProjectAnalyticsView::toAnalytics).orElseGet(() -> projectService.emptyAnalytics(userId));
+    }
+
 }
@@ -1,54 +1,204 @@
 package com.example.analytics_svc.web;
 
-import com.example.analytics_svc.domain.AnalyticsNotFound;
+import com.example.analytics_svc.domain.MalformedPayload;
 import com.example.analytics_svc.model.TaskAnalytics;
 import com.example.analytics_svc.repository.TaskAnalyticsRepository;
-import com.example.analytics_svc.repository.TaskSnapshotRepository;
+import com.example.analytics_svc.repository.TaskAnalyticsView;
+import com.example.analytics_svc.service.AnalyticsCache;
+import com.example.analytics_svc.service.AsyncUpsertService;
+import com.example.analytics_svc.service.BulkSyncService;
+import com.example.analytics_svc.service.TaskDailyRollupService;
+import com.example.analytics_svc.service.TaskLeaderboard;
 import com.example.analytics_svc.service.TaskService;
+import com.example.analytics_svc.web.codec.TaskAnalyticsBinaryCodec;
+import com.example.analytics_svc.web.dto.BulkSyncResponse;
+import com.example.analytics_svc.web.dto.LeaderboardEntry;
+import com.example.analytics_svc.web.dto.LeaderboardMetric;
 import com.example.analytics_svc.web.dto.TaskAnalyticsRequest;
+import com.example.analytics_svc.web.dto.TaskEventRequest;
+import com.example.analytics_svc.web.dto.TrendBucket;
+import com.example.analytics_svc.web.dto.TrendGranularity;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.RuntimeJsonMappingException;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Valid;
+import jakarta.validation.Validator;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.LocalDate;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
+import java.util.stream.Collectors;
 
 @RestController
 @RequestMapping("/api/v1/tasks")
 public class TaskSnapshotController {
 
+    private static final int MAX_LEADERBOARD_PAGE = 100;
+    private static final int MAX_TREND_WEEKS = 104;
+
     private final TaskService taskService;
     private final TaskAnalyticsRepository taskAnalyticsRepository;
-    private final TaskSnapshotRepository taskSnapshotRepository;
+    private final AsyncUpsertService asyncUpsertService;
+    private final AnalyticsCache analyticsCache;
+    private final BulkSyncService bulkSyncService;
+    private final TaskLeaderboard taskLeaderboard;
+    private final TaskDailyRollupService dailyRollupService;
+    private final ObjectReader taskReader;
+    private final Validator validator;
 
-    public TaskSnapshotController(TaskService taskService, TaskAnalyticsRepository taskAnalyticsRepository, TaskSnapshotRepository taskSnapshotRepository) {
+    public TaskSnapshotController(TaskService taskService, TaskAnalyticsRepository taskAnalyticsRepository, AsyncUpsertService asyncUpsertService, AnalyticsCache analyticsCache, BulkSyncService bulkSyncService, TaskLeaderboard taskLeaderboard, TaskDailyRollupService dailyRollupService, ObjectMapper objectMapper, Validator validator) {
         this.taskService = taskService;
         this.taskAnalyticsRepository = taskAnalyticsRepository;
-        this.taskSnapshotRepository = taskSnapshotRepository;
+        this.asyncUpsertService = asyncUpsertService;
+        this.analyticsCache = analyticsCache;
+        this.bulkSyncService = bulkSyncService;
+        this.taskLeaderboard = taskLeaderboard;
+        this.dailyRollupService = dailyRollupService;
+        this.taskReader = objectMapper.readerFor(TaskAnalyticsRequest.class);
+        this.validator = validator;
     }
 
     @PostMapping("/{userId}")
-    public ResponseEntity<TaskAnalytics> updateAnalytics(@RequestBody List<TaskAnalyticsRequest> tasks, @PathVariable UUID userId) {
+    public ResponseEntity<TaskAnalytics> updateAnalytics(@RequestBody List<@Valid TaskAnalyticsRequest> tasks, @PathVariable UUID userId) {
 
-        if (tasks == null || tasks.isEmpty()) {
-            taskSnapshotRepository.deleteAllByUserId(userId);
-            TaskAnalytics taskAnalytics = taskService.emptyAnalytics(userId);
-            return ResponseEntity.ok(taskAnalytics);
+        // An empty list clears the user; it goes through the queue too, so it is ordered with writes already queued.
+        if (asyncUpsertService.isEnabled()) {
+            return asyncUpsertService.submitTasks(tasks, userId)
+                    .map(ResponseEntity::ok)
+                    .orElseGet(() -> ResponseEntity.accepted().build());
         }
+
         TaskAnalytics taskAnalytics = taskService.upsertTasks(tasks, userId);
 
         return ResponseEntity.ok(taskAnalytics);
     }
 
+    @PostMapping(value = "/{userId}", consumes = TaskAnalyticsBinaryCodec.MEDIA_TYPE)
+    public ResponseEntity<TaskAnalytics> updateAnalyticsBinary(InputStream body, @PathVariable UUID userId) throws IOException {
+
+        TaskAnalytics taskAnalytics = taskService.upsertTaskStream(validated(TaskAnalyticsBinaryCodec.decode(body)), userId);
+        return ResponseEntity.ok(taskAnalytics);
+    }
+
+    @PostMapping(value = "/{userId}/stream", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<TaskAnalytics> streamAnalytics(InputStream body, @PathVariable UUID userId) throws IOException {
+
+        try (MappingIterator<TaskAnalyticsRequest> tasks = taskReader.readValues(body)) {
+            TaskAnalytics taskAnalytics = taskService.upsertTaskStream(validated(readingMalformedJson(tasks)), userId);
+            return ResponseEntity.ok(taskAnalytics);
+        } catch (JsonProcessingException e) {
+            throw new MalformedPayload(e.getOriginalMessage(), e);
+        }
+    }
+
+    @PostMapping("/bulk")
+    public ResponseEntity<BulkSyncResponse<TaskAnalytics>> bulkUpdateAnalytics(@Valid @RequestBody Map<UUID, List<@Valid TaskAnalyticsRequest>> requestsByUser) {
+
+        BulkSyncResponse<TaskAnalytics> response = bulkSyncService.syncTasks(requestsByUser);
+        return ResponseEntity.ok(response);
+    }
+
+    @PostMapping("/{userId}/events")
+    public ResponseEntity<TaskAnalytics> applyEvent(@Valid @RequestBody TaskEventRequest event, @PathVariable UUID userId) {
+
+        TaskAnalytics analytics = taskService.applyEvent(event, userId);
+        return ResponseEntity.ok(analytics);
+    }
+
+    @GetMapping("/leaderboard")
+    public ResponseEntity<List<LeaderboardEntry>> getLeaderboard(@RequestParam(defaultValue = "COMPLETION_RATE") LeaderboardMetric metric,
+                                                                 @RequestParam(defaultValue = "0") int page,
+                                                                 @RequestParam(defaultValue = "100") int size) {
+
+        List<LeaderboardEntry> leaderboard = taskLeaderboard.getPage(metric, Math.max(page, 0), Math.max(1, Math.min(size, MAX_LEADERBOARD_PAGE)));
+        return ResponseEntity.ok(leaderboard);
+    }
+
+    @GetMapping("/{userId}/trend")
+    public ResponseEntity<List<TrendBucket>> getTrend(@PathVariable UUID userId,
+                                                      @RequestParam(defaultValue = "12") int weeks,
+                                                      @RequestParam(defaultValue = "WEEK") TrendGranularity granularity) {
+
+        List<TrendBucket> trend = dailyRollupService.getTrend(userId, Math.max(1, Math.min(weeks, MAX_TREND_WEEKS)), granularity, LocalDate.now());
+        return ResponseEntity.ok(trend);
+    }
+
     @GetMapping("/{userId}")
-    public TaskAnalytics getTaskAnalytics(@PathVariable UUID userId) {
-        try {
-            return taskAnalyticsRepository.findByUserId(userId)
-                    .orElseThrow(() -> new AnalyticsNotFound("No analytics for user: " + userId));
-        } catch (AnalyticsNotFound e) {
-            TaskAnalytics taskAnalytics = taskService.emptyAnalytics(userId);
-            return taskAnalyticsRepository.save(taskAnalytics);
+    public ResponseEntity<TaskAnalytics> getTaskAnalytics(@PathVariable UUID userId) {
+
+        TaskAnalytics analytics = analyticsCache.getTaskAnalytics(userId, this::loadTaskAnalytics);
+        return ResponseEntity.ok()
+                .eTag(String.valueOf(analytics.getVersion()))
+                .body(analytics);
+    }
+
+    // Streamed tasks bypass @Valid, so each one is checked as it is read.
+    private Iterator<TaskAnalyticsRequest> validated(Iterator<TaskAnalyticsRequest> tasks) {
+        return new Iterator<>() {
+
+            @Override
+            public boolean hasNext() {
+                return tasks.hasNext();
+            }
+
+            @Override
+            public TaskAnalyticsRequest next() {
+                TaskAnalyticsRequest task = tasks.next();
+                Set<ConstraintViolation<TaskAnalyticsRequest>> violations = validator.validate(task);
+                if (!violations.isEmpty()) {
+                    throw new MalformedPayload(violations.stream()
+                            .map(violation -> violation.getPropertyPath() + " " + violation.getMessage())
+                            .collect(Collectors.joining(", ")));
+                }
+                return task;
+            }
+        };
+    }
+
+    // MappingIterator reports bad JSON as unchecked exceptions; surface them as a malformed payload instead of a 500.
+    private static Iterator<TaskAnalyticsRequest> readingMalformedJson(MappingIterator<TaskAnalyticsRequest> tasks) {
+        return new Iterator<>() {
+
+            @Override
+            public boolean hasNext() {
+                try {
+                    return tasks.hasNext();
+                } catch (RuntimeException e) {
+                    throw malformed(e);
+                }
+            }
+
+            @Override
+            public TaskAnalyticsRequest next() {
+                try {
+                    return tasks.next();
+                } catch (RuntimeException e) {
+                    throw malformed(e);
+                }
+            }
+        };
+    }
+
+    private static RuntimeException malformed(RuntimeException e) {
+        if (e instanceof RuntimeJsonMappingException || e.getCause() instanceof JsonProcessingException) {
+            return new MalformedPayload(e.getMessage(), e);
         }
+        return e;
+    }
 
+    private TaskAnalytics loadTaskAnalytics(UUID userId) {
+        return taskAnalyticsRepository.findViewByUserId(userId).map(TaskAnalyticsView::toAnalytics).orElseGet(() -> taskService.emptyAnalytics(userId));
     }
 
 }
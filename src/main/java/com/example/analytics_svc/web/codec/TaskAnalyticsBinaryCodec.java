@@ -0,0 +1,147 @@
+package com.example.analytics_svc.web.codec;
+
+import com.example.analytics_svc.domain.MalformedPayload;
+import com.example.analytics_svc.model.CodedEnum;
+import com.example.analytics_svc.model.CodedEnumConverter;
+import com.example.analytics_svc.model.TaskPriorityConverter;
+import com.example.analytics_svc.model.TaskStatusConverter;
+import com.example.analytics_svc.web.dto.TaskAnalyticsRequest;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.time.DateTimeException;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.UUID;
+
+/**
+ * Binary layout for task uploads, all values big-endian:
+ * <pre>
+ * int32 count
+ * count x { int64 taskId msb, int64 taskId lsb, int8 status, int8 priority, int8 deleted,
+ *           int64 createdOn, int64 dueDate, int64 completedOn }
+ * </pre>
+ * Status and priority use the codes of {@link com.example.analytics_svc.model.TaskStatus} and {@link com.example.analytics_svc.model.TaskPriority}.
+ * Timestamps are UTC epoch seconds, {@link Long#MIN_VALUE} encodes a missing value and -1 a missing status or priority.
+ * A payload that does not follow this layout fails with {@link MalformedPayload}.
+ */
+public final class TaskAnalyticsBinaryCodec {
+
+    public static final String MEDIA_TYPE = "application/x-task-analytics";
+
+    private static final TaskStatusConverter STATUSES = new TaskStatusConverter();
+    private static final TaskPriorityConverter PRIORITIES = new TaskPriorityConverter();
+    private static final byte NO_CODE = -1;
+    private static final long NO_TIMESTAMP = Long.MIN_VALUE;
+
+    private TaskAnalyticsBinaryCodec() {
+    }
+
+    public static void encode(Collection<TaskAnalyticsRequest> tasks, OutputStream output) throws IOException {
+
+        DataOutputStream out = new DataOutputStream(output);
+        out.writeInt(tasks.size());
+
+        for (TaskAnalyticsRequest task : tasks) {
+            out.writeLong(task.getTaskId().getMostSignificantBits());
+            out.writeLong(task.getTaskId().getLeastSignificantBits());
+            out.writeByte(code(task.getStatus()));
+            out.writeByte(code(task.getPriority()));
+            out.writeBoolean(task.isDeleted());
+            out.writeLong(toEpochSecond(task.getCreatedOn()));
+            out.writeLong(toEpochSecond(task.getDueDate()));
+            out.writeLong(toEpochSecond(task.getCompletedOn()));
+        }
+
+        out.flush();
+    }
+
+    /**
+     * Decodes lazily, one task per {@link Iterator#next()}; status and priority resolve to their enum constants.
+     */
+    public static Iterator<TaskAnalyticsRequest> decode(InputStream input) throws IOException {
+
+        DataInputStream in = new DataInputStream(input);
+        int count;
+        try {
+            count = in.readInt();
+        } catch (EOFException e) {
+            throw new MalformedPayload("Payload ended before the task count", e);
+        }
+        if (count < 0) {
+            throw new MalformedPayload("Negative task count [%d]".formatted(count));
+        }
+
+        return new Iterator<>() {
+
+            private int remaining = count;
+
+            @Override
+            public boolean hasNext() {
+                return remaining > 0;
+            }
+
+            @Override
+            public TaskAnalyticsRequest next() {
+                if (remaining == 0) {
+                    throw new NoSuchElementException();
+                }
+                remaining--;
+
+                try {
+                    return TaskAnalyticsRequest.builder()
+                            .taskId(new UUID(in.readLong(), in.readLong()))
+                            .status(value(STATUSES, in.readByte()))
+                            .priority(value(PRIORITIES, in.readByte()))
+                            .deleted(in.readBoolean())
+                            .createdOn(fromEpochSecond(in.readLong()))
+                            .dueDate(fromEpochSecond(in.readLong()))
+                            .completedOn(fromEpochSecond(in.readLong()))
+                            .build();
+                } catch (EOFException e) {
+                    throw new MalformedPayload("Payload ended with %d tasks still expected".formatted(remaining + 1), e);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+        };
+    }
+
+    private static byte code(CodedEnum value) {
+        return value == null ? NO_CODE : value.getCode();
+    }
+
+    private static <E extends Enum<E> & CodedEnum> E value(CodedEnumConverter<E> converter, byte code) {
+        if (code == NO_CODE) {
+            return null;
+        }
+        try {
+            return converter.fromCode(code);
+        } catch (IllegalArgumentException e) {
+            throw new MalformedPayload(e.getMessage(), e);
+        }
+    }
+
+    private static long toEpochSecond(LocalDateTime dateTime) {
+        return dateTime == null ? NO_TIMESTAMP : dateTime.toEpochSecond(ZoneOffset.UTC);
+    }
+
+    private static LocalDateTime fromEpochSecond(long epochSecond) {
+        if (epochSecond == NO_TIMESTAMP) {
+            return null;
+        }
+        try {
+            return LocalDateTime.ofEpochSecond(epochSecond, 0, ZoneOffset.UTC);
+        } catch (DateTimeException e) {
+            throw new MalformedPayload("Timestamp [%d] is out of range".formatted(epochSecond), e);
+        }
+    }
+}
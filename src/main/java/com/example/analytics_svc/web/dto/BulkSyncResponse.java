@@ -0,0 +1,21 @@
+package com.example.analytics_svc.web.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Map;
+import java.util.UUID;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkSyncResponse<T> {
+
+    private Map<UUID, T> analytics;
+
+    private Map<UUID, String> errors;
+
+}
@@ -0,0 +1,70 @@
+package com.example.analytics_svc.web.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class GlobalAnalytics {
+
+    private long taskUsers;
+
+    private long totalTasks;
+
+    private long completedTasks;
+
+    private long inProgressTasks;
+
+    private long todoTasks;
+
+    private long overdueTasks;
+
+    private double completionRate;
+
+    private double avgCompletionTime;
+
+    private long lowPriorityCount;
+
+    private long mediumPriorityCount;
+
+    private long highPriorityCount;
+
+    private long lifetimeTotalTasks;
+
+    private long lifetimeCompletedTasks;
+
+    private long lifetimeAbandonedTasks;
+
+    private long lifetimeOverdueTasks;
+
+    private double lifetimeAverageCompletionTime;
+
+    private double lifetimeCompletionRate;
+
+    private long projectUsers;
+
+    private long totalProjects;
+
+    private long activeProjects;
+
+    private long completedProjects;
+
+    private long overdueProjects;
+
+    private int averageProgress;
+
+    private long totalProjectsLifetime;
+
+    private long completedProjectsLifetime;
+
+    private long abandonedProjectsLifetime;
+
+    private double averageProjectDurationLifetime;
+
+    private double projectCompletionRateLifetime;
+
+}
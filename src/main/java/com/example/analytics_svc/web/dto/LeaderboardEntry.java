@@ -0,0 +1,22 @@
+package com.example.analytics_svc.web.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.UUID;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class LeaderboardEntry {
+
+    private int rank;
+
+    private UUID userId;
+
+    private double value;
+
+}
@@ -0,0 +1,8 @@
+package com.example.analytics_svc.web.dto;
+
+public enum LeaderboardMetric {
+
+    COMPLETION_RATE,
+
+    FASTEST_COMPLETION
+}
@@ -1,5 +1,7 @@
 package com.example.analytics_svc.web.dto;
 
+import com.example.analytics_svc.model.ProjectStatus;
+import jakarta.validation.constraints.NotNull;
 import lombok.Builder;
 import lombok.Data;
 
@@ -10,18 +12,25 @@ import java.util.UUID;
 @Builder
 public class ProjectAnalyticsRequest {
 
+    @NotNull
     private UUID userId;
 
+    @NotNull
     private UUID projectId;
 
+    @NotNull
     private LocalDateTime createdOn;
 
-    private String status;
+    @NotNull
+    private ProjectStatus status;
 
+    @NotNull
     private LocalDateTime dueDate;
 
     private int completionPercentage;
 
+    private LocalDateTime completedOn;
+
     private boolean deleted;
 
 }
@@ -0,0 +1,23 @@
+package com.example.analytics_svc.web.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProjectEventRequest {
+
+    @NotNull
+    private SnapshotEventType type;
+
+    @Valid
+    @NotNull
+    private ProjectAnalyticsRequest project;
+
+}
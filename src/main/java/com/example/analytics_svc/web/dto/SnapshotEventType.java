@@ -0,0 +1,10 @@
+package com.example.analytics_svc.web.dto;
+
+public enum SnapshotEventType {
+
+    CREATED,
+
+    UPDATED,
+
+    DELETED
+}
@@ -1,5 +1,8 @@
 package com.example.analytics_svc.web.dto;
 
+import com.example.analytics_svc.model.TaskPriority;
+import com.example.analytics_svc.model.TaskStatus;
+import jakarta.validation.constraints.NotNull;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -14,16 +17,21 @@ import java.util.UUID;
 @AllArgsConstructor
 public class TaskAnalyticsRequest {
 
+    @NotNull
     private UUID taskId;
 
     private UUID userId;
 
-    private String status;
+    @NotNull
+    private TaskStatus status;
 
-    private String priority;
+    @NotNull
+    private TaskPriority priority;
 
+    @NotNull
     private LocalDateTime createdOn;
 
+    @NotNull
     private LocalDateTime dueDate;
 
     private LocalDateTime completedOn;
@@ -0,0 +1,28 @@
+package com.example.analytics_svc.web.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TrendBucket {
+
+    private LocalDate start;
+
+    private int createdTasks;
+
+    private int completedTasks;
+
+    private int abandonedTasks;
+
+    private int overdueTasks;
+
+    private double avgCompletionTime;
+
+}
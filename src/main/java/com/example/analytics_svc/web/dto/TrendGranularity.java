@@ -0,0 +1,8 @@
+package com.example.analytics_svc.web.dto;
+
+public enum TrendGranularity {
+
+    DAY,
+
+    WEEK
+}
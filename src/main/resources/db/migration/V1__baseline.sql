@@ -0,0 +1,67 @@
+create table project_analytics (
+    id                                binary(16) not null,
+    user_id                           binary(16) not null,
+    total_projects                    integer    not null,
+    active_projects                   integer    not null,
+    completed_projects                integer    not null,
+    average_progress                  integer    not null,
+    overdue_projects                  integer    not null,
+    total_projects_lifetime           integer    not null,
+    completed_projects_lifetime       integer    not null,
+    abandoned_projects_lifetime       integer    not null,
+    average_project_duration_lifetime bigint     not null,
+    project_completion_rate_lifetime  float(53)  not null,
+    primary key (id)
+) engine = InnoDB;
+
+create table project_snapshot (
+    id                    binary(16)   not null,
+    user_id               binary(16)   not null,
+    project_id            binary(16)   not null,
+    created_on            datetime(6)  not null,
+    status                varchar(255) not null,
+    due_date              datetime(6)  not null,
+    completion_percentage integer      not null,
+    completed_on          datetime(6),
+    deleted               bit          not null,
+    primary key (id),
+    constraint uk_project_snapshot_project_id unique (project_id)
+) engine = InnoDB;
+
+create table task_analytics (
+    id                              binary(16) not null,
+    user_id                         binary(16) not null,
+    total_tasks                     integer    not null,
+    completed_tasks                 integer    not null,
+    in_progress_tasks               integer    not null,
+    todo_tasks                      integer    not null,
+    overdue_tasks                   integer    not null,
+    completion_rate                 float(53)  not null,
+    avg_completion_time             float(53)  not null,
+    low_priority_count              integer    not null,
+    medium_priority_count           integer    not null,
+    high_priority_count             integer    not null,
+    lifetime_total_tasks            integer    not null,
+    lifetime_completed_tasks        integer    not null,
+    lifetime_abandoned_tasks        integer    not null,
+    lifetime_overdue_tasks          integer    not null,
+    lifetime_average_completion_time float(53) not null,
+    lifetime_completion_rate        integer    not null,
+    fastest_completion_time         bigint     not null,
+    primary key (id),
+    constraint uk_task_analytics_user_id unique (user_id)
+) engine = InnoDB;
+
+create table task_snapshot (
+    id           binary(16)   not null,
+    task_id      binary(16)   not null,
+    user_id      binary(16)   not null,
+    status       varchar(255) not null,
+    priority     varchar(255) not null,
+    created_on   datetime(6)  not null,
+    due_date     datetime(6)  not null,
+    completed_on datetime(6),
+    deleted      bit          not null,
+    primary key (id),
+    constraint uk_task_snapshot_task_id unique (task_id)
+) engine = InnoDB;
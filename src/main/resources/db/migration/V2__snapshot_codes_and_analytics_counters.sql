@@ -0,0 +1,94 @@
+-- Status and priority are stored as the one-byte codes of TaskStatus, TaskPriority and ProjectStatus.
+-- Rows with values outside those enums cannot be read any more and are dropped; the next sync re-sends them.
+
+alter table task_snapshot add column status_code tinyint;
+alter table task_snapshot add column priority_code tinyint;
+
+update task_snapshot
+set status_code   = case status
+                        when 'TODO' then 0
+                        when 'IN_PROGRESS' then 1
+                        when 'COMPLETED' then 2
+                        when 'OVERDUE' then 3
+                    end,
+    priority_code = case priority
+                        when 'LOW' then 0
+                        when 'MEDIUM' then 1
+                        when 'HIGH' then 2
+                    end;
+
+delete from task_snapshot where status_code is null or priority_code is null;
+
+alter table task_snapshot drop column status;
+alter table task_snapshot drop column priority;
+alter table task_snapshot rename column status_code to status;
+alter table task_snapshot rename column priority_code to priority;
+alter table task_snapshot modify status tinyint not null;
+alter table task_snapshot modify priority tinyint not null;
+
+alter table project_snapshot add column status_code tinyint;
+
+update project_snapshot
+set status_code = case status
+                      when 'ACTIVE' then 0
+                      when 'COMPLETED' then 1
+                      when 'OVERDUE' then 2
+                      when 'IN_PROGRESS' then 3
+                  end;
+
+delete from project_snapshot where status_code is null;
+
+alter table project_snapshot drop column status;
+alter table project_snapshot rename column status_code to status;
+alter table project_snapshot modify status tinyint not null;
+
+-- Completion duration is computed once at ingest time.
+
+alter table task_snapshot add column completion_seconds bigint;
+alter table project_snapshot add column completion_seconds bigint;
+
+update task_snapshot
+set completion_seconds = timestampdiff(second, created_on, completed_on)
+where completed_on is not null;
+
+update project_snapshot
+set completion_seconds = timestampdiff(second, created_on, completed_on)
+where completed_on is not null;
+
+-- Running sums that let single events adjust the stored analytics.
+
+alter table task_analytics add column completion_time_sum bigint not null default 0;
+alter table task_analytics add column completion_time_count integer not null default 0;
+alter table task_analytics add column lifetime_completion_time_sum bigint not null default 0;
+alter table task_analytics add column lifetime_completion_time_count integer not null default 0;
+alter table task_analytics add column version bigint not null default 0;
+
+alter table project_analytics add column progress_sum integer not null default 0;
+alter table project_analytics add column duration_sum_lifetime bigint not null default 0;
+alter table project_analytics add column duration_count_lifetime integer not null default 0;
+alter table project_analytics add column version bigint not null default 0;
+
+update task_analytics a
+set completion_time_sum            = (select coalesce(sum(truncate(s.completion_seconds / 86400, 0)), 0)
+                                      from task_snapshot s
+                                      where s.user_id = a.user_id and s.deleted = false),
+    completion_time_count          = (select count(s.completion_seconds)
+                                      from task_snapshot s
+                                      where s.user_id = a.user_id and s.deleted = false),
+    lifetime_completion_time_sum   = (select coalesce(sum(truncate(s.completion_seconds / 86400, 0)), 0)
+                                      from task_snapshot s
+                                      where s.user_id = a.user_id),
+    lifetime_completion_time_count = (select count(s.completion_seconds)
+                                      from task_snapshot s
+                                      where s.user_id = a.user_id);
+
+update project_analytics a
+set progress_sum            = (select coalesce(sum(s.completion_percentage), 0)
+                               from project_snapshot s
+                               where s.user_id = a.user_id and s.deleted = false),
+    duration_sum_lifetime   = (select coalesce(sum(truncate(s.completion_seconds / 86400, 0)), 0)
+                               from project_snapshot s
+                               where s.user_id = a.user_id),
+    duration_count_lifetime = (select count(s.completion_seconds)
+                               from project_snapshot s
+                               where s.user_id = a.user_id);
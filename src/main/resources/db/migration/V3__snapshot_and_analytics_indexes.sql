@@ -0,0 +1,18 @@
+-- Covering indexes for the snapshot queries: every lookup filters on user_id and the aggregates group by deleted.
+
+create index idx_task_snapshot_user_deleted
+    on task_snapshot (user_id, deleted, status, priority, completion_seconds);
+
+create index idx_task_snapshot_user_completion
+    on task_snapshot (user_id, completion_seconds);
+
+create index idx_project_snapshot_user_deleted
+    on project_snapshot (user_id, deleted, status, completion_percentage, completion_seconds);
+
+-- Concurrent first views used to insert several empty rows per user; keep one before enforcing the key.
+
+delete from project_analytics
+where id not in (select keep.id
+                 from (select min(id) as id from project_analytics group by user_id) keep);
+
+alter table project_analytics add constraint uk_project_analytics_user_id unique (user_id);
@@ -0,0 +1,7 @@
+-- Completion time percentiles in hours, derived from a serialized CompletionTimeSketch of the current tasks.
+-- Existing rows start without a sketch; the next sync or event rebuilds it from the snapshots.
+
+alter table task_analytics add column p50_completion_time float(53) not null default 0;
+alter table task_analytics add column p90_completion_time float(53) not null default 0;
+alter table task_analytics add column p99_completion_time float(53) not null default 0;
+alter table task_analytics add column completion_time_sketch varbinary(4096);
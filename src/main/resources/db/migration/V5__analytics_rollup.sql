@@ -0,0 +1,68 @@
+-- Organization-wide sums and counts, split over 16 shard rows so concurrent writers rarely update the same row.
+-- Existing analytics are folded into shard 0; from then on every write adds its delta to the shard of its user.
+
+create table analytics_rollup (
+    shard                          integer not null,
+    task_users                     bigint  not null default 0,
+    total_tasks                    bigint  not null default 0,
+    completed_tasks                bigint  not null default 0,
+    in_progress_tasks              bigint  not null default 0,
+    todo_tasks                     bigint  not null default 0,
+    overdue_tasks                  bigint  not null default 0,
+    low_priority_count             bigint  not null default 0,
+    medium_priority_count          bigint  not null default 0,
+    high_priority_count            bigint  not null default 0,
+    completion_time_sum            bigint  not null default 0,
+    completion_time_count          bigint  not null default 0,
+    lifetime_total_tasks           bigint  not null default 0,
+    lifetime_completed_tasks       bigint  not null default 0,
+    lifetime_abandoned_tasks       bigint  not null default 0,
+    lifetime_overdue_tasks         bigint  not null default 0,
+    lifetime_completion_time_sum   bigint  not null default 0,
+    lifetime_completion_time_count bigint  not null default 0,
+    project_users                  bigint  not null default 0,
+    total_projects                 bigint  not null default 0,
+    active_projects                bigint  not null default 0,
+    completed_projects             bigint  not null default 0,
+    overdue_projects               bigint  not null default 0,
+    progress_sum                   bigint  not null default 0,
+    total_projects_lifetime        bigint  not null default 0,
+    completed_projects_lifetime    bigint  not null default 0,
+    abandoned_projects_lifetime    bigint  not null default 0,
+    duration_sum_lifetime          bigint  not null default 0,
+    duration_count_lifetime        bigint  not null default 0,
+    primary key (shard)
+) engine = InnoDB;
+
+insert into analytics_rollup (shard) values (0), (1), (2), (3), (4), (5), (6), (7), (8), (9), (10), (11), (12), (13), (14), (15);
+
+update analytics_rollup
+set task_users                     = (select count(*) from task_analytics where lifetime_total_tasks > 0),
+    total_tasks                    = (select coalesce(sum(total_tasks), 0) from task_analytics),
+    completed_tasks                = (select coalesce(sum(completed_tasks), 0) from task_analytics),
+    in_progress_tasks              = (select coalesce(sum(in_progress_tasks), 0) from task_analytics),
+    todo_tasks                     = (select coalesce(sum(todo_tasks), 0) from task_analytics),
+    overdue_tasks                  = (select coalesce(sum(overdue_tasks), 0) from task_analytics),
+    low_priority_count             = (select coalesce(sum(low_priority_count), 0) from task_analytics),
+    medium_priority_count          = (select coalesce(sum(medium_priority_count), 0) from task_analytics),
+    high_priority_count            = (select coalesce(sum(high_priority_count), 0) from task_analytics),
+    completion_time_sum            = (select coalesce(sum(completion_time_sum), 0) from task_analytics),
+    completion_time_count          = (select coalesce(sum(completion_time_count), 0) from task_analytics),
+    lifetime_total_tasks           = (select coalesce(sum(lifetime_total_tasks), 0) from task_analytics),
+    lifetime_completed_tasks       = (select coalesce(sum(lifetime_completed_tasks), 0) from task_analytics),
+    lifetime_abandoned_tasks       = (select coalesce(sum(lifetime_abandoned_tasks), 0) from task_analytics),
+    lifetime_overdue_tasks         = (select coalesce(sum(lifetime_overdue_tasks), 0) from task_analytics),
+    lifetime_completion_time_sum   = (select coalesce(sum(lifetime_completion_time_sum), 0) from task_analytics),
+    lifetime_completion_time_count = (select coalesce(sum(lifetime_completion_time_count), 0) from task_analytics),
+    project_users                  = (select count(*) from project_analytics where total_projects_lifetime > 0),
+    total_projects                 = (select coalesce(sum(total_projects), 0) from project_analytics),
+    active_projects                = (select coalesce(sum(active_projects), 0) from project_analytics),
+    completed_projects             = (select coalesce(sum(completed_projects), 0) from project_analytics),
+    overdue_projects               = (select coalesce(sum(overdue_projects), 0) from project_analytics),
+    progress_sum                   = (select coalesce(sum(progress_sum), 0) from project_analytics),
+    total_projects_lifetime        = (select coalesce(sum(total_projects_lifetime), 0) from project_analytics),
+    completed_projects_lifetime    = (select coalesce(sum(completed_projects_lifetime), 0) from project_analytics),
+    abandoned_projects_lifetime    = (select coalesce(sum(abandoned_projects_lifetime), 0) from project_analytics),
+    duration_sum_lifetime          = (select coalesce(sum(duration_sum_lifetime), 0) from project_analytics),
+    duration_count_lifetime        = (select coalesce(sum(duration_count_lifetime), 0) from project_analytics)
+where shard = 0;
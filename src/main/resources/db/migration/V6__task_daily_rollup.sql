@@ -0,0 +1,32 @@
+-- Per user and day: tasks created, completed (with their summed durations), abandoned and overdue.
+-- Every snapshot counts on fixed days: created on created_on, completed on completed_on,
+-- overdue and abandoned (deleted without completing) on due_date. Existing snapshots are folded in here.
+
+create table task_daily_rollup (
+    user_id                binary(16) not null,
+    bucket_date            date       not null,
+    created_tasks          integer    not null,
+    completed_tasks        integer    not null,
+    abandoned_tasks        integer    not null,
+    overdue_tasks          integer    not null,
+    completion_seconds_sum bigint     not null,
+    primary key (user_id, bucket_date)
+) engine = InnoDB;
+
+insert into task_daily_rollup (user_id, bucket_date, created_tasks, completed_tasks, abandoned_tasks, overdue_tasks, completion_seconds_sum)
+select user_id, bucket_date, sum(created), sum(completed), sum(abandoned), sum(overdue), sum(seconds)
+from (select user_id, cast(created_on as date) as bucket_date, 1 as created, 0 as completed, 0 as abandoned, 0 as overdue, 0 as seconds
+      from task_snapshot
+      union all
+      select user_id, cast(completed_on as date), 0, 1, 0, 0, completion_seconds
+      from task_snapshot
+      where completion_seconds is not null
+      union all
+      select user_id, cast(due_date as date), 0, 0, 1, 0, 0
+      from task_snapshot
+      where deleted = true and status <> 2
+      union all
+      select user_id, cast(due_date as date), 0, 0, 0, 1, 0
+      from task_snapshot
+      where status = 3) contributions
+group by user_id, bucket_date;
@@ -0,0 +1,7 @@
+-- Open snapshots by due date, read at startup to rebuild the in-memory overdue deadlines.
+
+create index idx_task_snapshot_open_due
+    on task_snapshot (deleted, status, due_date);
+
+create index idx_project_snapshot_open_due
+    on project_snapshot (deleted, status, due_date);
@@ -0,0 +1,6 @@
+-- Fingerprint of the last full sync payload; a resync with the same fingerprint skips the snapshot tables.
+-- Any other write (events, overdue marking) clears it.
+
+alter table task_analytics add column payload_hash bigint null;
+
+alter table project_analytics add column payload_hash bigint null;
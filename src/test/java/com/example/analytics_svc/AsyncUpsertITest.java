@@ -0,0 +1,79 @@
+package com.example.analytics_svc;
+
+import com.example.analytics_svc.model.TaskAnalytics;
+import com.example.analytics_svc.model.TaskPriority;
+import com.example.analytics_svc.model.TaskStatus;
+import com.example.analytics_svc.repository.TaskAnalyticsRepository;
+import com.example.analytics_svc.repository.TaskSnapshotRepository;
+import com.example.analytics_svc.service.AsyncUpsertService;
+import com.example.analytics_svc.web.dto.TaskAnalyticsRequest;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = "analytics.async.enabled=true")
+@AutoConfigureMockMvc
+@DirtiesContext(classMode = DirtiesContext.ClassMode.BEFORE_EACH_TEST_METHOD)
+public class AsyncUpsertITest {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2025, 3, 10, 12, 0);
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private AsyncUpsertService asyncUpsertService;
+
+    @Autowired
+    private TaskSnapshotRepository snapshotRepository;
+
+    @Autowired
+    private TaskAnalyticsRepository taskAnalyticsRepository;
+
+    @Test
+    void testEmptyUpload_afterAQueuedPayload_leavesTheUserCleared() throws Exception {
+
+        UUID userId = UUID.randomUUID();
+        List<TaskAnalyticsRequest> tasks = IntStream.range(0, 500)
+                .mapToObj(i -> TaskAnalyticsRequest.builder()
+                        .taskId(UUID.randomUUID())
+                        .status(TaskStatus.TODO)
+                        .priority(TaskPriority.LOW)
+                        .createdOn(NOW.minusDays(2))
+                        .dueDate(NOW.plusDays(5))
+                        .build())
+                .toList();
+
+        mockMvc.perform(post("/api/v1/tasks/" + userId).contentType(MediaType.APPLICATION_JSON).content(objectMapper.writeValueAsString(tasks)))
+                .andExpect(status().isAccepted());
+        mockMvc.perform(post("/api/v1/tasks/" + userId).contentType(MediaType.APPLICATION_JSON).content("[]"))
+                .andExpect(status().isAccepted());
+
+        asyncUpsertService.drain();
+
+        assertThat(snapshotRepository.findAllByUserId(userId)).isEmpty();
+        TaskAnalytics stored = taskAnalyticsRepository.findByUserId(userId).orElse(null);
+        if (stored != null) {
+            // The payload was written before the clear; the clear still has to win.
+            assertThat(stored.getTotalTasks()).isZero();
+            assertThat(stored.getLifetimeTotalTasks()).isZero();
+        }
+    }
+}
@@ -2,10 +2,13 @@ package com.example.analytics_svc;
 
 import com.example.analytics_svc.model.ProjectAnalytics;
 import com.example.analytics_svc.model.ProjectSnapshot;
+import com.example.analytics_svc.model.ProjectStatus;
 import com.example.analytics_svc.repository.ProjectAnalyticsRepository;
 import com.example.analytics_svc.repository.ProjectSnapshotRepository;
 import com.example.analytics_svc.service.ProjectService;
 import com.example.analytics_svc.web.dto.ProjectAnalyticsRequest;
+import com.example.analytics_svc.web.dto.ProjectEventRequest;
+import com.example.analytics_svc.web.dto.SnapshotEventType;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
@@ -43,7 +46,7 @@ public class ProjectAnalyticsITest {
                 .projectId(projectId)
                 .createdOn(LocalDateTime.now())
                 .dueDate(LocalDateTime.now().plusDays(7))
-                .status("ACTIVE")
+                .status(ProjectStatus.ACTIVE)
                 .completionPercentage(20)
                 .deleted(false)
                 .build();
@@ -56,7 +59,7 @@ public class ProjectAnalyticsITest {
         ProjectSnapshot snap = snapshots.get(0);
         assertThat(snap.getProjectId()).isEqualTo(projectId);
         assertThat(snap.getUserId()).isEqualTo(userId);
-        assertThat(snap.getStatus()).isEqualTo("ACTIVE");
+        assertThat(snap.getStatus()).isEqualTo(ProjectStatus.ACTIVE);
         assertThat(snap.getCompletionPercentage()).isEqualTo(20);
 
 
@@ -82,7 +85,7 @@ public class ProjectAnalyticsITest {
                 .projectId(projectId)
                 .createdOn(LocalDateTime.now())
                 .dueDate(LocalDateTime.now().plusDays(5))
-                .status("IN_PROGRESS")
+                .status(ProjectStatus.IN_PROGRESS)
                 .completionPercentage(10)
                 .deleted(false)
                 .build();
@@ -94,7 +97,7 @@ public class ProjectAnalyticsITest {
                 .projectId(projectId)
                 .createdOn(LocalDateTime.now())
                 .dueDate(LocalDateTime.now().plusDays(10))
-                .status("COMPLETED")
+                .status(ProjectStatus.COMPLETED)
                 .completionPercentage(100)
                 .deleted(false)
                 .build();
@@ -114,4 +117,74 @@ public class ProjectAnalyticsITest {
 
         assertThat(second.getId()).isEqualTo(first.getId());
     }
+
+    @Test
+    void testApplyEvents_matchesFullRecompute() {
+
+        UUID userId = UUID.randomUUID();
+        LocalDateTime now = LocalDateTime.of(2025, 3, 10, 12, 0);
+        ProjectAnalyticsRequest abandoned = project(userId, ProjectStatus.OVERDUE, 40, true, now.minusDays(20), null);
+        ProjectAnalyticsRequest finished = project(userId, ProjectStatus.COMPLETED, 100, true, now.minusDays(9), now.minusDays(2));
+
+        // No current projects: the analytics row is stored empty although both snapshots exist.
+        service.upsertProjects(List.of(abandoned, finished), userId);
+
+        abandoned.setCompletionPercentage(45);
+        assertMatchesFullRecompute(service.applyEvent(new ProjectEventRequest(SnapshotEventType.UPDATED, abandoned), userId), userId);
+
+        ProjectAnalyticsRequest active = project(userId, ProjectStatus.ACTIVE, 10, false, now.minusDays(3), null);
+        ProjectAnalytics created = service.applyEvent(new ProjectEventRequest(SnapshotEventType.CREATED, active), userId);
+        assertMatchesFullRecompute(created, userId);
+        assertThat(created.getTotalProjectsLifetime()).isEqualTo(3);
+        assertThat(created.getAbandonedProjectsLifetime()).isEqualTo(1);
+
+        active.setStatus(ProjectStatus.COMPLETED);
+        active.setCompletionPercentage(100);
+        active.setCompletedOn(now);
+        assertMatchesFullRecompute(service.applyEvent(new ProjectEventRequest(SnapshotEventType.UPDATED, active), userId), userId);
+
+        assertMatchesFullRecompute(service.applyEvent(new ProjectEventRequest(SnapshotEventType.DELETED, finished), userId), userId);
+
+        ProjectAnalytics deleted = service.applyEvent(new ProjectEventRequest(SnapshotEventType.DELETED, active), userId);
+        assertMatchesFullRecompute(deleted, userId);
+        assertThat(deleted).usingRecursiveComparison().ignoringFields("id", "version").isEqualTo(service.emptyAnalytics(userId));
+    }
+
+    @Test
+    void testClearProjects_clearsStoredAnalyticsSoTheSamePayloadIsWrittenAgain() {
+
+        UUID userId = UUID.randomUUID();
+        LocalDateTime now = LocalDateTime.of(2025, 3, 10, 12, 0);
+        List<ProjectAnalyticsRequest> projects = List.of(project(userId, ProjectStatus.ACTIVE, 30, false, now.minusDays(3), null));
+
+        ProjectAnalytics first = service.upsertProjects(projects, userId);
+        ProjectAnalytics cleared = service.clearProjects(userId);
+
+        assertThat(cleared.getVersion()).isEqualTo(first.getVersion() + 1);
+        assertThat(cleared.getTotalProjects()).isZero();
+        assertThat(snapshotRepository.findAllByUserId(userId).size()).isZero();
+        assertThat(analyticsRepository.findByUserId(userId).orElseThrow().getPayloadHash()).isNull();
+
+        ProjectAnalytics resent = service.upsertProjects(projects, userId);
+        assertThat(resent.getVersion()).isEqualTo(first.getVersion() + 2);
+        assertThat(resent.getTotalProjects()).isEqualTo(1);
+    }
+
+    private void assertMatchesFullRecompute(ProjectAnalytics analytics, UUID userId) {
+        assertThat(analytics).usingRecursiveComparison().ignoringFields("id", "version", "payloadHash")
+                .isEqualTo(service.getProjectAnalyticsFromDatabase(userId));
+    }
+
+    private ProjectAnalyticsRequest project(UUID userId, ProjectStatus status, int completionPercentage, boolean deleted, LocalDateTime createdOn, LocalDateTime completedOn) {
+        return ProjectAnalyticsRequest.builder()
+                .userId(userId)
+                .projectId(UUID.randomUUID())
+                .status(status)
+                .completionPercentage(completionPercentage)
+                .deleted(deleted)
+                .createdOn(createdOn)
+                .dueDate(createdOn.plusDays(14))
+                .completedOn(completedOn)
+                .build();
+    }
 }
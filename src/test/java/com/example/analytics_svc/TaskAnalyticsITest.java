@@ -0,0 +1,524 @@
+package com.example.analytics_svc;
+
+import com.example.analytics_svc.model.ProjectAnalytics;
+import com.example.analytics_svc.model.ProjectStatus;
+import com.example.analytics_svc.model.TaskAnalytics;
+import com.example.analytics_svc.model.TaskPriority;
+import com.example.analytics_svc.model.TaskSnapshot;
+import com.example.analytics_svc.model.TaskStatus;
+import com.example.analytics_svc.repository.ProjectAnalyticsRepository;
+import com.example.analytics_svc.repository.TaskAnalyticsRepository;
+import com.example.analytics_svc.repository.TaskSnapshotRepository;
+import com.example.analytics_svc.service.AnalyticsCache;
+import com.example.analytics_svc.service.AnalyticsRollupService;
+import com.example.analytics_svc.service.BulkSyncService;
+import com.example.analytics_svc.service.OverdueScheduler;
+import com.example.analytics_svc.service.ProjectService;
+import com.example.analytics_svc.service.TaskDailyRollupService;
+import com.example.analytics_svc.service.TaskLeaderboard;
+import com.example.analytics_svc.service.TaskService;
+import com.example.analytics_svc.web.dto.BulkSyncResponse;
+import com.example.analytics_svc.web.dto.GlobalAnalytics;
+import com.example.analytics_svc.web.dto.LeaderboardEntry;
+import com.example.analytics_svc.web.dto.LeaderboardMetric;
+import com.example.analytics_svc.web.dto.ProjectAnalyticsRequest;
+import com.example.analytics_svc.web.dto.SnapshotEventType;
+import com.example.analytics_svc.web.dto.TaskAnalyticsRequest;
+import com.example.analytics_svc.web.dto.TaskEventRequest;
+import com.example.analytics_svc.web.dto.TrendBucket;
+import com.example.analytics_svc.web.dto.TrendGranularity;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@DirtiesContext(classMode = DirtiesContext.ClassMode.BEFORE_EACH_TEST_METHOD)
+public class TaskAnalyticsITest {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2025, 3, 10, 12, 0);
+
+    @Autowired
+    private TaskService taskService;
+
+    @Autowired
+    private ProjectService projectService;
+
+    @Autowired
+    private TaskSnapshotRepository snapshotRepository;
+
+    @Autowired
+    private TaskAnalyticsRepository taskAnalyticsRepository;
+
+    @Autowired
+    private ProjectAnalyticsRepository projectAnalyticsRepository;
+
+    @Autowired
+    private AnalyticsCache analyticsCache;
+
+    @Autowired
+    private BulkSyncService bulkSyncService;
+
+    @Autowired
+    private AnalyticsRollupService rollupService;
+
+    @Autowired
+    private TaskDailyRollupService dailyRollupService;
+
+    @Autowired
+    private OverdueScheduler overdueScheduler;
+
+    @Autowired
+    private TaskLeaderboard taskLeaderboard;
+
+    @Test
+    void testUpsertTasks_secondSyncKeepsOnlyThePayloadRows() {
+
+        UUID userId = UUID.randomUUID();
+        TaskAnalyticsRequest kept = task(TaskStatus.TODO, TaskPriority.LOW, false, NOW.minusDays(2), null);
+        TaskAnalyticsRequest dropped = task(TaskStatus.IN_PROGRESS, TaskPriority.HIGH, false, NOW.minusDays(3), null);
+
+        taskService.upsertTasks(List.of(kept, dropped), userId);
+
+        kept.setStatus(TaskStatus.COMPLETED);
+        kept.setCompletedOn(NOW);
+        TaskAnalyticsRequest added = task(TaskStatus.OVERDUE, TaskPriority.MEDIUM, false, NOW.minusDays(9), null);
+
+        TaskAnalytics analytics = taskService.upsertTasks(List.of(kept, added), userId);
+
+        List<TaskSnapshot> snapshots = snapshotRepository.findAllByUserId(userId);
+        assertThat(snapshots).extracting(TaskSnapshot::getTaskId)
+                .containsExactlyInAnyOrder(kept.getTaskId(), added.getTaskId());
+        assertThat(analytics.getCompletedTasks()).isEqualTo(1);
+        assertThat(analytics.getOverdueTasks()).isEqualTo(1);
+        assertThat(analytics.getInProgressTasks()).isZero();
+        assertThat(analytics.getVersion()).isEqualTo(2);
+    }
+
+    @Test
+    void testSqlEngine_matchesJavaEngineForTasks() {
+
+        UUID userId = UUID.randomUUID();
+        List<TaskAnalyticsRequest> tasks = List.of(
+                task(TaskStatus.COMPLETED, TaskPriority.LOW, false, NOW.minusDays(9).minusHours(5), NOW.minusDays(1)),
+                task(TaskStatus.COMPLETED, TaskPriority.HIGH, true, NOW.minusHours(30), NOW),
+                task(TaskStatus.IN_PROGRESS, TaskPriority.MEDIUM, false, NOW.minusDays(3), null),
+                task(TaskStatus.TODO, TaskPriority.LOW, true, NOW.minusDays(2), null),
+                task(TaskStatus.OVERDUE, TaskPriority.HIGH, true, NOW.minusDays(20), null),
+                task(TaskStatus.COMPLETED, TaskPriority.MEDIUM, false, NOW.minusDays(2), NOW.minusHours(2)));
+
+        TaskAnalytics javaEngine = taskService.upsertTasks(tasks, userId);
+        TaskAnalytics sqlEngine = taskService.getTasksAnalyticsFromDatabase(userId);
+
+        assertThat(sqlEngine).usingRecursiveComparison().ignoringFields("id", "version", "payloadHash").isEqualTo(javaEngine);
+    }
+
+    @Test
+    void testSqlEngine_matchesJavaEngineForProjects() {
+
+        UUID userId = UUID.randomUUID();
+        List<ProjectAnalyticsRequest> projects = List.of(
+                project(userId, ProjectStatus.ACTIVE, 35, false),
+                project(userId, ProjectStatus.COMPLETED, 100, false),
+                project(userId, ProjectStatus.OVERDUE, 60, true),
+                project(userId, ProjectStatus.OVERDUE, 15, false));
+
+        projects.get(1).setCompletedOn(NOW.minusDays(2).minusHours(3));
+        projects.get(2).setCompletedOn(NOW.minusDays(5));
+
+        ProjectAnalytics javaEngine = projectService.upsertProjects(projects, userId);
+        ProjectAnalytics sqlEngine = projectService.getProjectAnalyticsFromDatabase(userId);
+
+        assertThat(sqlEngine).usingRecursiveComparison().ignoringFields("id", "version", "payloadHash").isEqualTo(javaEngine);
+        assertThat(javaEngine.getAverageProjectDurationLifetime()).isEqualTo(6);
+    }
+
+    @Test
+    void testSqlEngine_truncatesNegativeDurationsLikeJavaEngine() {
+
+        UUID userId = UUID.randomUUID();
+        List<TaskAnalyticsRequest> tasks = List.of(
+                task(TaskStatus.COMPLETED, TaskPriority.LOW, false, NOW, NOW.minusHours(36)),
+                task(TaskStatus.COMPLETED, TaskPriority.HIGH, false, NOW.minusDays(3), NOW));
+
+        TaskAnalytics javaTasks = taskService.upsertTasks(tasks, userId);
+
+        assertThat(taskService.getTasksAnalyticsFromDatabase(userId)).usingRecursiveComparison()
+                .ignoringFields("id", "version", "payloadHash").isEqualTo(javaTasks);
+        assertThat(javaTasks.getCompletionTimeSum()).isEqualTo(2);
+
+        ProjectAnalyticsRequest project = project(userId, ProjectStatus.COMPLETED, 100, false);
+        project.setCompletedOn(project.getCreatedOn().minusHours(36));
+
+        ProjectAnalytics javaProjects = projectService.upsertProjects(List.of(project), userId);
+
+        assertThat(projectService.getProjectAnalyticsFromDatabase(userId)).usingRecursiveComparison()
+                .ignoringFields("id", "version", "payloadHash").isEqualTo(javaProjects);
+        assertThat(javaProjects.getDurationSumLifetime()).isEqualTo(-1);
+    }
+
+    @Test
+    void testApplyEvents_matchesFullRecompute() {
+
+        UUID userId = UUID.randomUUID();
+        TaskAnalyticsRequest fastest = task(TaskStatus.COMPLETED, TaskPriority.HIGH, false, NOW.minusHours(5), NOW);
+        TaskAnalyticsRequest slow = task(TaskStatus.COMPLETED, TaskPriority.LOW, false, NOW.minusDays(4), NOW);
+        TaskAnalyticsRequest open = task(TaskStatus.TODO, TaskPriority.MEDIUM, false, NOW.minusDays(1), null);
+
+        taskService.upsertTasks(List.of(fastest, slow, open), userId);
+
+        open.setStatus(TaskStatus.IN_PROGRESS);
+        taskService.applyEvent(new TaskEventRequest(SnapshotEventType.UPDATED, open), userId);
+        taskService.applyEvent(new TaskEventRequest(SnapshotEventType.CREATED, task(TaskStatus.OVERDUE, TaskPriority.LOW, true, NOW.minusDays(6), null)), userId);
+        TaskAnalytics analytics = taskService.applyEvent(new TaskEventRequest(SnapshotEventType.DELETED, fastest), userId);
+
+        assertThat(analytics).usingRecursiveComparison().ignoringFields("id", "version", "payloadHash")
+                .isEqualTo(taskService.getTasksAnalyticsFromDatabase(userId));
+        assertThat(analytics.getFastestCompletionTime()).isEqualTo(96);
+        assertThat(analytics.getInProgressTasks()).isEqualTo(1);
+        assertThat(analytics.getLifetimeOverdueTasks()).isEqualTo(1);
+    }
+
+    @Test
+    void testUpsertTasks_replacesCachedAnalyticsAfterCommit() {
+
+        UUID userId = UUID.randomUUID();
+        TaskAnalytics stale = TaskAnalytics.builder().userId(userId).build();
+        analyticsCache.getTaskAnalytics(userId, id -> stale);
+
+        TaskAnalytics saved = taskService.upsertTasks(List.of(task(TaskStatus.COMPLETED, TaskPriority.LOW, false, NOW.minusDays(1), NOW)), userId);
+
+        TaskAnalytics cached = analyticsCache.getTaskAnalytics(userId, id -> stale);
+        assertThat(cached).isSameAs(saved);
+        assertThat(cached.getCompletedTasks()).isEqualTo(1);
+    }
+
+    @Test
+    void testBulkSync_failingUserDoesNotRollBackOthers() {
+
+        Map<UUID, List<TaskAnalyticsRequest>> tasksByUser = new LinkedHashMap<>();
+        for (int i = 0; i < 120; i++) {
+            tasksByUser.put(UUID.randomUUID(), List.of(task(TaskStatus.COMPLETED, TaskPriority.LOW, false, NOW.minusDays(2), NOW)));
+        }
+        // Task ids are unique across users, so claiming another user's task fails only this user's write.
+        TaskAnalyticsRequest owned = task(TaskStatus.TODO, TaskPriority.LOW, false, NOW.minusDays(2), null);
+        taskService.upsertTasks(List.of(owned), UUID.randomUUID());
+        TaskAnalyticsRequest claimed = task(TaskStatus.TODO, TaskPriority.LOW, false, NOW.minusDays(2), null);
+        claimed.setTaskId(owned.getTaskId());
+        UUID failing = UUID.randomUUID();
+        tasksByUser.put(failing, List.of(claimed));
+
+        BulkSyncResponse<TaskAnalytics> response = bulkSyncService.syncTasks(tasksByUser);
+
+        assertThat(response.getErrors()).containsOnlyKeys(failing);
+        assertThat(response.getAnalytics()).hasSize(120).doesNotContainKey(failing);
+        assertThat(snapshotRepository.findAllByUserId(failing)).isEmpty();
+        tasksByUser.keySet().stream().filter(userId -> !userId.equals(failing)).forEach(userId ->
+                assertThat(snapshotRepository.findAllByUserId(userId)).hasSize(1));
+    }
+
+    @Test
+    void testBulkSync_emptyEntryClearsTheUserLikeASingleUserSync() {
+
+        UUID userId = UUID.randomUUID();
+        TaskAnalytics synced = taskService.upsertTasks(List.of(
+                task(TaskStatus.COMPLETED, TaskPriority.LOW, false, NOW.minusDays(2), NOW),
+                task(TaskStatus.TODO, TaskPriority.HIGH, false, NOW.minusDays(1), null)), userId);
+        projectService.upsertProjects(List.of(project(userId, ProjectStatus.ACTIVE, 40, false)), userId);
+
+        BulkSyncResponse<TaskAnalytics> tasks = bulkSyncService.syncTasks(Map.of(userId, List.of()));
+        BulkSyncResponse<ProjectAnalytics> projects = bulkSyncService.syncProjects(Map.of(userId, List.of()));
+
+        assertThat(tasks.getErrors()).isEmpty();
+        assertThat(tasks.getAnalytics().get(userId).getVersion()).isEqualTo(synced.getVersion() + 1);
+        assertThat(snapshotRepository.findAllByUserId(userId)).isEmpty();
+        assertThat(dailyRollupService.getTrend(userId, 1, TrendGranularity.DAY, NOW.toLocalDate()))
+                .allSatisfy(bucket -> assertThat(bucket.getCreatedTasks()).isZero());
+
+        TaskAnalytics stored = taskAnalyticsRepository.findByUserId(userId).orElseThrow();
+        assertThat(stored.getTotalTasks()).isZero();
+        assertThat(stored.getLifetimeTotalTasks()).isZero();
+        assertThat(stored.getPayloadHash()).isNull();
+        assertThat(analyticsCache.getTaskAnalytics(userId, id -> synced).getTotalTasks()).isZero();
+        assertThat(taskLeaderboard.getPage(LeaderboardMetric.COMPLETION_RATE, 0, 100))
+                .extracting(LeaderboardEntry::getUserId).doesNotContain(userId);
+
+        assertThat(projects.getErrors()).isEmpty();
+        ProjectAnalytics storedProjects = projectAnalyticsRepository.findByUserId(userId).orElseThrow();
+        assertThat(storedProjects.getTotalProjects()).isZero();
+        assertThat(storedProjects.getTotalProjectsLifetime()).isZero();
+        assertThat(storedProjects.getPayloadHash()).isNull();
+    }
+
+    @Test
+    void testUpsertTasks_concurrentWritesForSameUserAreSerialized() {
+
+        UUID userId = UUID.randomUUID();
+        List<CompletableFuture<TaskAnalytics>> writes = IntStream.range(0, 8)
+                .mapToObj(i -> CompletableFuture.supplyAsync(() -> taskService.upsertTasks(List.of(
+                        task(TaskStatus.TODO, TaskPriority.LOW, false, NOW.minusDays(2), null),
+                        task(TaskStatus.COMPLETED, TaskPriority.HIGH, false, NOW.minusDays(3), NOW)), userId)))
+                .toList();
+
+        assertThat(writes).allSatisfy(write -> assertThat(write.join().getTotalTasks()).isEqualTo(2));
+        assertThat(snapshotRepository.findAllByUserId(userId)).hasSize(2);
+        assertThat(writes.stream().map(write -> write.join().getVersion())).containsExactlyInAnyOrder(1L, 2L, 3L, 4L, 5L, 6L, 7L, 8L);
+    }
+
+    @Test
+    void testApplyEvents_concurrentEventsPublishDistinctVersions() {
+
+        UUID userId = UUID.randomUUID();
+        taskService.upsertTasks(List.of(task(TaskStatus.TODO, TaskPriority.LOW, false, NOW.minusDays(2), null)), userId);
+
+        List<CompletableFuture<TaskAnalytics>> events = IntStream.range(0, 8)
+                .mapToObj(i -> CompletableFuture.supplyAsync(() -> taskService.applyEvent(new TaskEventRequest(SnapshotEventType.CREATED,
+                        task(TaskStatus.IN_PROGRESS, TaskPriority.MEDIUM, false, NOW.minusDays(1), null)), userId)))
+                .toList();
+
+        assertThat(events.stream().map(event -> event.join().getVersion())).containsExactlyInAnyOrder(2L, 3L, 4L, 5L, 6L, 7L, 8L, 9L);
+        assertThat(events.stream().map(CompletableFuture::join).filter(analytics -> analytics.getVersion() == 9).findFirst().orElseThrow().getTotalTasks())
+                .isEqualTo(9);
+        assertThat(taskAnalyticsRepository.findByUserId(userId).orElseThrow().getVersion()).isEqualTo(9);
+    }
+
+    @Test
+    void testGlobalRollup_tracksSumsOfAllUsersAcrossResyncsAndEvents() {
+
+        GlobalAnalytics before = rollupService.getGlobalAnalytics();
+
+        UUID first = UUID.randomUUID();
+        UUID second = UUID.randomUUID();
+        TaskAnalyticsRequest open = task(TaskStatus.TODO, TaskPriority.LOW, false, NOW.minusDays(2), null);
+
+        taskService.upsertTasks(List.of(open, task(TaskStatus.COMPLETED, TaskPriority.HIGH, false, NOW.minusDays(4), NOW)), first);
+        taskService.upsertTasks(List.of(task(TaskStatus.COMPLETED, TaskPriority.LOW, false, NOW.minusDays(2), NOW)), second);
+        taskService.upsertTasks(List.of(open), first);
+        open.setStatus(TaskStatus.COMPLETED);
+        open.setCompletedOn(NOW);
+        taskService.applyEvent(new TaskEventRequest(SnapshotEventType.UPDATED, open), first);
+        projectService.upsertProjects(List.of(project(second, ProjectStatus.ACTIVE, 40, false), project(second, ProjectStatus.ACTIVE, 60, false)), second);
+
+        GlobalAnalytics after = rollupService.getGlobalAnalytics();
+
+        assertThat(after.getTaskUsers() - before.getTaskUsers()).isEqualTo(2);
+        assertThat(after.getTotalTasks() - before.getTotalTasks()).isEqualTo(2);
+        assertThat(after.getCompletedTasks() - before.getCompletedTasks()).isEqualTo(2);
+        assertThat(after.getLowPriorityCount() - before.getLowPriorityCount()).isEqualTo(2);
+        assertThat(after.getHighPriorityCount() - before.getHighPriorityCount()).isZero();
+        assertThat(after.getProjectUsers() - before.getProjectUsers()).isEqualTo(1);
+        assertThat(after.getActiveProjects() - before.getActiveProjects()).isEqualTo(2);
+    }
+
+    @Test
+    void testDailyRollup_followsSyncsAndEvents() {
+
+        UUID userId = UUID.randomUUID();
+        TaskAnalyticsRequest open = task(TaskStatus.TODO, TaskPriority.LOW, false, NOW.minusDays(2), null);
+        TaskAnalyticsRequest dropped = task(TaskStatus.COMPLETED, TaskPriority.HIGH, false, NOW.minusDays(3), NOW);
+
+        taskService.upsertTasks(List.of(open, dropped), userId);
+
+        open.setStatus(TaskStatus.COMPLETED);
+        open.setCompletedOn(NOW.minusDays(1));
+        TaskAnalyticsRequest late = task(TaskStatus.OVERDUE, TaskPriority.MEDIUM, false, NOW.minusDays(9), null);
+        taskService.upsertTasks(List.of(open, late), userId);
+
+        late.setDeleted(true);
+        taskService.applyEvent(new TaskEventRequest(SnapshotEventType.UPDATED, late), userId);
+
+        List<TrendBucket> trend = dailyRollupService.getTrend(userId, 2, TrendGranularity.DAY, NOW.toLocalDate());
+        Map<LocalDate, TrendBucket> byDay = trend.stream().collect(Collectors.toMap(TrendBucket::getStart, bucket -> bucket));
+
+        assertThat(trend).hasSize(14);
+        assertThat(byDay.get(NOW.toLocalDate().minusDays(9)).getCreatedTasks()).isEqualTo(1);
+        assertThat(byDay.get(NOW.toLocalDate().minusDays(2)))
+                .extracting(TrendBucket::getCreatedTasks, TrendBucket::getOverdueTasks, TrendBucket::getAbandonedTasks)
+                .containsExactly(1, 1, 1);
+        assertThat(byDay.get(NOW.toLocalDate().minusDays(1)))
+                .extracting(TrendBucket::getCompletedTasks, TrendBucket::getAvgCompletionTime)
+                .containsExactly(1, 1.0);
+        assertThat(byDay.get(NOW.toLocalDate().minusDays(3)).getCreatedTasks()).isZero();
+        assertThat(byDay.get(NOW.toLocalDate()).getCompletedTasks()).isZero();
+        assertThat(trend.stream().mapToInt(TrendBucket::getCreatedTasks).sum()).isEqualTo(2);
+    }
+
+    @Test
+    void testOverdueScheduler_marksOpenTasksAndProjectsOnceTheirDueDatePasses() {
+
+        UUID userId = UUID.randomUUID();
+        TaskAnalyticsRequest late = task(TaskStatus.TODO, TaskPriority.LOW, false, NOW.minusDays(8), null);
+        TaskAnalyticsRequest onTime = task(TaskStatus.IN_PROGRESS, TaskPriority.HIGH, false, NOW.minusDays(2), null);
+        TaskAnalyticsRequest done = task(TaskStatus.COMPLETED, TaskPriority.MEDIUM, false, NOW.minusDays(9), NOW.minusDays(3));
+        taskService.upsertTasks(List.of(late, onTime, done), userId);
+
+        ProjectAnalyticsRequest lateProject = project(userId, ProjectStatus.ACTIVE, 30, false);
+        lateProject.setDueDate(NOW.minusHours(1));
+        projectService.upsertProjects(List.of(lateProject, project(userId, ProjectStatus.ACTIVE, 70, false)), userId);
+
+        overdueScheduler.markOverdue(NOW);
+        overdueScheduler.markOverdue(NOW);
+
+        TaskAnalytics tasks = analyticsCache.getTaskAnalytics(userId, id -> null);
+        assertThat(tasks.getOverdueTasks()).isEqualTo(1);
+        assertThat(tasks.getTodoTasks()).isZero();
+        assertThat(tasks.getInProgressTasks()).isEqualTo(1);
+        assertThat(tasks.getVersion()).isEqualTo(2);
+        assertThat(snapshotRepository.findByTaskIdAndUserId(late.getTaskId(), userId))
+                .get().extracting(TaskSnapshot::getStatus).isEqualTo(TaskStatus.OVERDUE);
+        assertThat(dailyRollupService.getTrend(userId, 1, TrendGranularity.DAY, NOW.toLocalDate()))
+                .filteredOn(bucket -> bucket.getStart().equals(NOW.toLocalDate().minusDays(1)))
+                .extracting(TrendBucket::getOverdueTasks).containsExactly(1);
+
+        ProjectAnalytics projects = analyticsCache.getProjectAnalytics(userId, id -> null);
+        assertThat(projects.getOverdueProjects()).isEqualTo(1);
+        assertThat(projects.getActiveProjects()).isEqualTo(1);
+
+        overdueScheduler.markOverdue(NOW.plusDays(5));
+
+        assertThat(analyticsCache.getTaskAnalytics(userId, id -> null).getOverdueTasks()).isEqualTo(2);
+    }
+
+    @Test
+    void testMarkOverdue_rebuildsTheSketchOfARowWrittenBeforePercentiles() {
+
+        UUID userId = UUID.randomUUID();
+        TaskAnalyticsRequest late = task(TaskStatus.TODO, TaskPriority.LOW, false, NOW.minusDays(10), null);
+        TaskAnalytics synced = taskService.upsertTasks(List.of(
+                task(TaskStatus.COMPLETED, TaskPriority.HIGH, false, NOW.minusDays(4), NOW),
+                task(TaskStatus.COMPLETED, TaskPriority.HIGH, false, NOW.minusDays(2), NOW),
+                late), userId);
+
+        // Rows from before V4 have completions counted but no sketch and zero percentiles.
+        TaskAnalytics row = taskAnalyticsRepository.findByUserId(userId).orElseThrow();
+        row.setCompletionTimeSketch(null);
+        row.setP50CompletionTime(0);
+        row.setP90CompletionTime(0);
+        row.setP99CompletionTime(0);
+        taskAnalyticsRepository.save(row);
+
+        TaskAnalytics marked = taskService.markOverdue(userId, List.of(late.getTaskId()), NOW);
+
+        assertThat(marked.getOverdueTasks()).isEqualTo(1);
+        assertThat(marked.getCompletionTimeCount()).isEqualTo(2);
+        assertThat(marked.getP50CompletionTime()).isPositive().isEqualTo(synced.getP50CompletionTime());
+        assertThat(marked.getP90CompletionTime()).isEqualTo(synced.getP90CompletionTime());
+        assertThat(marked.getP99CompletionTime()).isEqualTo(synced.getP99CompletionTime());
+        assertThat(marked.getCompletionTimeSketch()).isNotNull();
+    }
+
+    @Test
+    void testUpsertTasks_unchangedPayloadSkipsTheSnapshotTables() {
+
+        UUID userId = UUID.randomUUID();
+        TaskAnalyticsRequest open = task(TaskStatus.TODO, TaskPriority.LOW, false, NOW.minusDays(2), null);
+        TaskAnalyticsRequest done = task(TaskStatus.COMPLETED, TaskPriority.HIGH, false, NOW.minusDays(4), NOW);
+
+        TaskAnalytics first = taskService.upsertTasks(List.of(open, done), userId);
+        List<UUID> snapshotIds = snapshotRepository.findAllByUserId(userId).stream().map(TaskSnapshot::getId).toList();
+
+        TaskAnalytics resent = taskService.upsertTasks(List.of(done, open), userId);
+
+        assertThat(resent.getVersion()).isEqualTo(first.getVersion());
+        assertThat(resent.getCompletedTasks()).isEqualTo(1);
+        assertThat(snapshotRepository.findAllByUserId(userId)).extracting(TaskSnapshot::getId)
+                .containsExactlyInAnyOrderElementsOf(snapshotIds);
+
+        open.setStatus(TaskStatus.IN_PROGRESS);
+        taskService.applyEvent(new TaskEventRequest(SnapshotEventType.UPDATED, open), userId);
+        open.setStatus(TaskStatus.TODO);
+
+        TaskAnalytics afterEvent = taskService.upsertTasks(List.of(open, done), userId);
+
+        assertThat(afterEvent.getVersion()).isEqualTo(first.getVersion() + 2);
+        assertThat(afterEvent.getTodoTasks()).isEqualTo(1);
+        assertThat(afterEvent.getInProgressTasks()).isZero();
+
+        ProjectAnalytics projects = projectService.upsertProjects(List.of(project(userId, ProjectStatus.ACTIVE, 40, false)), userId);
+        List<ProjectAnalyticsRequest> changed = List.of(project(userId, ProjectStatus.ACTIVE, 40, false));
+
+        assertThat(projectService.upsertProjects(changed, userId).getVersion()).isEqualTo(projects.getVersion() + 1);
+        assertThat(projectService.upsertProjects(changed, userId).getVersion()).isEqualTo(projects.getVersion() + 1);
+    }
+
+    @Test
+    void testEmptyUploads_clearStoredAnalyticsSoTheSamePayloadIsWrittenAgain() {
+
+        UUID userId = UUID.randomUUID();
+        List<TaskAnalyticsRequest> tasks = List.of(
+                task(TaskStatus.TODO, TaskPriority.LOW, false, NOW.minusDays(2), null),
+                task(TaskStatus.COMPLETED, TaskPriority.HIGH, false, NOW.minusDays(4), NOW));
+
+        TaskAnalytics first = taskService.upsertTasks(tasks, userId);
+        TaskAnalytics cleared = taskService.clearTasks(userId);
+
+        assertThat(cleared.getVersion()).isEqualTo(first.getVersion() + 1);
+        assertThat(cleared.getTotalTasks()).isZero();
+        assertThat(snapshotRepository.findAllByUserId(userId)).isEmpty();
+        assertThat(taskAnalyticsRepository.findByUserId(userId).orElseThrow().getPayloadHash()).isNull();
+        assertThat(analyticsCache.getTaskAnalytics(userId, id -> first)).isSameAs(cleared);
+        assertThat(dailyRollupService.getTrend(userId, 1, TrendGranularity.DAY, NOW.toLocalDate()))
+                .allSatisfy(bucket -> assertThat(bucket.getCreatedTasks()).isZero());
+
+        TaskAnalytics resent = taskService.upsertTasks(tasks, userId);
+        assertThat(resent.getVersion()).isEqualTo(first.getVersion() + 2);
+        assertThat(resent.getTotalTasks()).isEqualTo(2);
+
+        TaskAnalytics streamed = taskService.upsertTaskStream(List.<TaskAnalyticsRequest>of().iterator(), userId);
+        assertThat(streamed.getVersion()).isEqualTo(first.getVersion() + 3);
+        assertThat(streamed.getTotalTasks()).isZero();
+        assertThat(taskAnalyticsRepository.findByUserId(userId).orElseThrow().getPayloadHash()).isNull();
+
+        assertThat(taskService.upsertTasks(tasks, userId).getTotalTasks()).isEqualTo(2);
+    }
+
+    @Test
+    void testAnalyticsView_copiesEveryStoredColumn() {
+
+        UUID userId = UUID.randomUUID();
+        TaskAnalytics saved = taskService.upsertTasks(List.of(
+                task(TaskStatus.COMPLETED, TaskPriority.HIGH, false, NOW.minusDays(3), NOW),
+                task(TaskStatus.TODO, TaskPriority.LOW, false, NOW.minusDays(1), null)), userId);
+
+        TaskAnalytics view = taskAnalyticsRepository.findViewByUserId(userId).orElseThrow().toAnalytics();
+
+        assertThat(view).usingRecursiveComparison().isEqualTo(saved);
+        assertThat(taskAnalyticsRepository.findViewByUserId(UUID.randomUUID())).isEmpty();
+    }
+
+    private TaskAnalyticsRequest task(TaskStatus status, TaskPriority priority, boolean deleted, LocalDateTime createdOn, LocalDateTime completedOn) {
+        return TaskAnalyticsRequest.builder()
+                .taskId(UUID.randomUUID())
+                .status(status)
+                .priority(priority)
+                .deleted(deleted)
+                .createdOn(createdOn)
+                .dueDate(createdOn.plusDays(7))
+                .completedOn(completedOn)
+                .build();
+    }
+
+    private ProjectAnalyticsRequest project(UUID userId, ProjectStatus status, int completionPercentage, boolean deleted) {
+        return ProjectAnalyticsRequest.builder()
+                .userId(userId)
+                .projectId(UUID.randomUUID())
+                .status(status)
+                .completionPercentage(completionPercentage)
+                .deleted(deleted)
+                .createdOn(NOW.minusDays(10))
+                .dueDate(NOW.plusDays(10))
+                .build();
+    }
+}
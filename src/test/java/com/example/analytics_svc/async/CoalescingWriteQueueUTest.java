@@ -0,0 +1,130 @@
+package com.example.analytics_svc.async;
+
+import com.example.analytics_svc.service.CoalescingWriteQueue;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class CoalescingWriteQueueUTest {
+
+    @Test
+    void whenSubmittingBurstForSameUser_thenOnlyLatestPendingPayloadIsWritten() throws Exception {
+        UUID userId = UUID.randomUUID();
+        CountDownLatch firstWriteStarted = new CountDownLatch(1);
+        CountDownLatch releaseFirstWrite = new CountDownLatch(1);
+        List<String> written = new CopyOnWriteArrayList<>();
+
+        CoalescingWriteQueue<String> queue = new CoalescingWriteQueue<>("test", 2, 10, (payload, user) -> {
+            if (payload.equals("first")) {
+                firstWriteStarted.countDown();
+                await(releaseFirstWrite);
+            }
+            written.add(payload);
+        }, new SimpleMeterRegistry());
+
+        assertTrue(queue.submit(userId, "first", payload -> payload).isEmpty());
+        assertTrue(firstWriteStarted.await(5, TimeUnit.SECONDS));
+
+        assertTrue(queue.submit(userId, "second", payload -> payload).isEmpty());
+        assertTrue(queue.submit(userId, "third", payload -> payload).isEmpty());
+        releaseFirstWrite.countDown();
+
+        queue.shutdown(Duration.ofSeconds(5));
+
+        assertEquals(List.of("first", "third"), written);
+        assertEquals(1.5, queue.coalesceRatio());
+    }
+
+    @Test
+    void whenQueueIsShutDown_thenPayloadIsWrittenOnTheCallerThread() {
+        CoalescingWriteQueue<String> queue = new CoalescingWriteQueue<>("test", 1, 1, (payload, user) -> {
+        }, new SimpleMeterRegistry());
+
+        queue.shutdown(Duration.ofSeconds(1));
+
+        assertEquals(Optional.of("written payload"), queue.submit(UUID.randomUUID(), "payload", payload -> "written " + payload));
+        assertEquals(0, queue.queueDepth());
+    }
+
+    @Test
+    void whenWritingOnTheCallerThread_thenPayloadsSubmittedMeanwhileAreWrittenAfterIt() throws Exception {
+        UUID userId = UUID.randomUUID();
+        List<String> written = new CopyOnWriteArrayList<>();
+        CountDownLatch fallbackStarted = new CountDownLatch(1);
+        CountDownLatch releaseFallback = new CountDownLatch(1);
+
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(1)) {
+            @Override
+            public void execute(Runnable command) {
+                throw new RejectedExecutionException();
+            }
+        };
+        CoalescingWriteQueue<String> queue = new CoalescingWriteQueue<>("test", executor, (payload, user) -> written.add(payload), new SimpleMeterRegistry());
+
+        Thread full = new Thread(() -> queue.submit(userId, "first", payload -> {
+            fallbackStarted.countDown();
+            await(releaseFallback);
+            written.add(payload);
+            return payload;
+        }));
+        full.start();
+        assertTrue(fallbackStarted.await(5, TimeUnit.SECONDS));
+
+        // The caller-thread write still holds the user's slot, so this one queues behind it instead of racing it.
+        assertTrue(queue.submit(userId, "second", payload -> "unexpected").isEmpty());
+        releaseFallback.countDown();
+        full.join(5000);
+
+        assertEquals(List.of("first", "second"), written);
+        executor.shutdown();
+    }
+
+    @Test
+    void whenSubmitIsRejectedAfterANewerPayloadCoalesced_thenTheNewerPayloadIsStillWritten() {
+        UUID userId = UUID.randomUUID();
+        List<String> written = new CopyOnWriteArrayList<>();
+        AtomicReference<CoalescingWriteQueue<String>> queue = new AtomicReference<>();
+        AtomicReference<Boolean> secondAccepted = new AtomicReference<>();
+
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(1)) {
+            @Override
+            public void execute(Runnable command) {
+                // A second request for the same user coalesces while the first is being scheduled, then the queue is full.
+                secondAccepted.set(queue.get().submit(userId, "second", payload -> "unexpected").isEmpty());
+                throw new RejectedExecutionException();
+            }
+        };
+        queue.set(new CoalescingWriteQueue<>("test", executor, (payload, user) -> written.add(payload), new SimpleMeterRegistry()));
+
+        assertEquals(Optional.of("second"), queue.get().submit(userId, "first", payload -> {
+            written.add(payload);
+            return payload;
+        }));
+
+        assertTrue(secondAccepted.get());
+        assertEquals(List.of("second"), written);
+        executor.shutdown();
+    }
+
+    private void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package com.example.analytics_svc.locking;
+
+import com.example.analytics_svc.config.AnalyticsProperties;
+import com.example.analytics_svc.domain.UserWriteLockTimeout;
+import com.example.analytics_svc.service.UserWriteLock;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class UserWriteLockUTest {
+
+    @Test
+    void whenSameUserWritesConcurrently_thenSecondWriterWaitsForFirstTransaction() throws Exception {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        UserWriteLock lock = new UserWriteLock(properties(Duration.ofSeconds(5)), null, meterRegistry);
+        UUID userId = UUID.randomUUID();
+
+        List<TransactionSynchronization> first = lockInTransaction(lock, userId);
+
+        CountDownLatch started = new CountDownLatch(1);
+        CompletableFuture<Void> second = CompletableFuture.runAsync(() -> {
+            started.countDown();
+            complete(lockInTransaction(lock, userId));
+        });
+
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        Thread.sleep(100);
+        assertFalse(second.isDone());
+
+        complete(first);
+        second.get(5, TimeUnit.SECONDS);
+
+        assertEquals(1, meterRegistry.get("analytics.write.lock.contended").counter().count());
+    }
+
+    @Test
+    void whenLockIsNotReleasedInTime_thenThrowsTimeout() {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        UserWriteLock lock = new UserWriteLock(properties(Duration.ofMillis(50)), null, meterRegistry);
+        UUID userId = UUID.randomUUID();
+
+        List<TransactionSynchronization> first = lockInTransaction(lock, userId);
+
+        CompletableFuture<Void> second = CompletableFuture.runAsync(() -> lockInTransaction(lock, userId));
+
+        Exception e = assertThrows(Exception.class, second::join);
+        assertTrue(e.getCause() instanceof UserWriteLockTimeout);
+        assertEquals(1, meterRegistry.get("analytics.write.lock.timeouts").counter().count());
+
+        complete(first);
+    }
+
+    @Test
+    void whenNoTransactionIsActive_thenLockIsRejected() {
+        UserWriteLock lock = new UserWriteLock(properties(Duration.ofSeconds(1)), null, new SimpleMeterRegistry());
+
+        assertThrows(IllegalStateException.class, () -> lock.lock(UUID.randomUUID()));
+    }
+
+    private List<TransactionSynchronization> lockInTransaction(UserWriteLock lock, UUID userId) {
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            lock.lock(userId);
+            return TransactionSynchronizationManager.getSynchronizations();
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    private void complete(List<TransactionSynchronization> synchronizations) {
+        synchronizations.forEach(s -> s.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+    }
+
+    private AnalyticsProperties properties(Duration timeout) {
+        AnalyticsProperties properties = new AnalyticsProperties();
+        properties.getLocking().setTimeout(timeout);
+        return properties;
+    }
+}
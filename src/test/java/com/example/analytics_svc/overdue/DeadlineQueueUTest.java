@@ -0,0 +1,72 @@
+package com.example.analytics_svc.overdue;
+
+import com.example.analytics_svc.service.DeadlineQueue;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class DeadlineQueueUTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2025, 3, 10, 12, 0);
+
+    @Test
+    void whenPollingDue_thenOnlyExpiredDeadlinesAreReturnedPerUser() {
+        UUID first = UUID.randomUUID();
+        UUID second = UUID.randomUUID();
+        UUID a = UUID.randomUUID();
+        UUID b = UUID.randomUUID();
+        UUID c = UUID.randomUUID();
+        UUID later = UUID.randomUUID();
+
+        DeadlineQueue queue = new DeadlineQueue();
+        queue.schedule(a, first, NOW.minusDays(1));
+        queue.schedule(b, second, NOW.minusHours(1));
+        queue.schedule(c, first, NOW);
+        queue.schedule(later, first, NOW.plusMinutes(1));
+
+        Map<UUID, List<UUID>> due = queue.pollDue(NOW, 10);
+
+        assertEquals(Map.of(first, List.of(a, c), second, List.of(b)), due);
+        assertEquals(1, queue.size());
+        assertTrue(queue.pollDue(NOW, 10).isEmpty());
+    }
+
+    @Test
+    void whenRescheduledOrCancelled_thenOldDeadlineIsDropped() {
+        UUID userId = UUID.randomUUID();
+        UUID moved = UUID.randomUUID();
+        UUID cancelled = UUID.randomUUID();
+
+        DeadlineQueue queue = new DeadlineQueue();
+        queue.schedule(moved, userId, NOW.minusDays(1));
+        queue.schedule(cancelled, userId, NOW.minusDays(1));
+        queue.schedule(moved, userId, NOW.plusDays(1));
+        queue.cancel(cancelled);
+
+        assertTrue(queue.pollDue(NOW, 10).isEmpty());
+        assertEquals(Map.of(userId, List.of(moved)), queue.pollDue(NOW.plusDays(1), 10));
+        assertEquals(0, queue.size());
+    }
+
+    @Test
+    void whenMoreDeadlinesAreDueThanTheLimit_thenEarliestAreReturnedFirst() {
+        UUID userId = UUID.randomUUID();
+        UUID earliest = UUID.randomUUID();
+        UUID middle = UUID.randomUUID();
+        UUID latest = UUID.randomUUID();
+
+        DeadlineQueue queue = new DeadlineQueue();
+        queue.schedule(latest, userId, NOW.minusHours(1));
+        queue.schedule(earliest, userId, NOW.minusHours(3));
+        queue.schedule(middle, userId, NOW.minusHours(2));
+
+        assertEquals(Map.of(userId, List.of(earliest, middle)), queue.pollDue(NOW, 2));
+        assertEquals(Map.of(userId, List.of(latest)), queue.pollDue(NOW, 2));
+    }
+}
@@ -0,0 +1,107 @@
+package com.example.analytics_svc.overdue;
+
+import com.example.analytics_svc.config.AnalyticsProperties;
+import com.example.analytics_svc.model.ProjectSnapshot;
+import com.example.analytics_svc.model.ProjectStatus;
+import com.example.analytics_svc.model.TaskSnapshot;
+import com.example.analytics_svc.model.TaskStatus;
+import com.example.analytics_svc.service.OverdueTracker;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class OverdueTrackerUTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2025, 3, 10, 12, 0);
+
+    private final OverdueTracker tracker = new OverdueTracker(null, null, new AnalyticsProperties(), new SimpleMeterRegistry());
+
+    @Test
+    void whenManySnapshotsAreTrackedInATransaction_thenOneSynchronizationAppliesThemAfterCommit() {
+        UUID userId = UUID.randomUUID();
+        List<TaskSnapshot> snapshots = IntStream.range(0, 1_000)
+                .mapToObj(i -> task(userId, TaskStatus.TODO, NOW.minusMinutes(i)))
+                .toList();
+
+        List<TransactionSynchronization> synchronizations = inTransaction(t -> snapshots.forEach(t::track));
+
+        assertEquals(1, synchronizations.size());
+        assertTrue(tracker.pollDueTasks(NOW, 10_000).isEmpty());
+
+        complete(synchronizations, TransactionSynchronization.STATUS_COMMITTED);
+
+        Map<UUID, List<UUID>> due = tracker.pollDueTasks(NOW, 10_000);
+        assertEquals(1_000, due.get(userId).size());
+        // Polled earliest first, so the queued due dates are the ones that were tracked.
+        assertEquals(snapshots.get(999).getTaskId(), due.get(userId).get(0));
+    }
+
+    @Test
+    void whenSnapshotIsClosedLaterInTheSameTransaction_thenItsDeadlineIsCancelled() {
+        UUID userId = UUID.randomUUID();
+        TaskSnapshot open = task(userId, TaskStatus.TODO, NOW.minusDays(1));
+        TaskSnapshot completed = task(userId, TaskStatus.COMPLETED, NOW.minusDays(1));
+        completed.setTaskId(open.getTaskId());
+        ProjectSnapshot project = ProjectSnapshot.builder()
+                .projectId(UUID.randomUUID())
+                .userId(userId)
+                .status(ProjectStatus.ACTIVE)
+                .dueDate(NOW.minusHours(1))
+                .build();
+
+        complete(inTransaction(t -> {
+            t.track(open);
+            t.track(completed);
+            t.track(project);
+        }), TransactionSynchronization.STATUS_COMMITTED);
+
+        assertTrue(tracker.pollDueTasks(NOW, 10).isEmpty());
+        assertEquals(Map.of(userId, List.of(project.getProjectId())), tracker.pollDueProjects(NOW, 10));
+    }
+
+    @Test
+    void whenTransactionRollsBack_thenNothingIsTracked() {
+        UUID userId = UUID.randomUUID();
+
+        complete(inTransaction(t -> t.track(task(userId, TaskStatus.TODO, NOW.minusDays(1)))), TransactionSynchronization.STATUS_ROLLED_BACK);
+
+        assertTrue(tracker.pollDueTasks(NOW, 10).isEmpty());
+    }
+
+    private List<TransactionSynchronization> inTransaction(Consumer<OverdueTracker> work) {
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            work.accept(tracker);
+            return TransactionSynchronizationManager.getSynchronizations();
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    private void complete(List<TransactionSynchronization> synchronizations, int status) {
+        if (status == TransactionSynchronization.STATUS_COMMITTED) {
+            synchronizations.forEach(TransactionSynchronization::afterCommit);
+        }
+        synchronizations.forEach(s -> s.afterCompletion(status));
+    }
+
+    private TaskSnapshot task(UUID userId, TaskStatus status, LocalDateTime dueDate) {
+        return TaskSnapshot.builder()
+                .taskId(UUID.randomUUID())
+                .userId(userId)
+                .status(status)
+                .dueDate(dueDate)
+                .build();
+    }
+}
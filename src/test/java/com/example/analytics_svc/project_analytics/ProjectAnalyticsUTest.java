@@ -1,10 +1,18 @@
 package com.example.analytics_svc.project_analytics;
 
+import com.example.analytics_svc.config.AnalyticsProperties;
 import com.example.analytics_svc.model.ProjectAnalytics;
 import com.example.analytics_svc.model.ProjectSnapshot;
+import com.example.analytics_svc.model.ProjectStatus;
 import com.example.analytics_svc.repository.ProjectAnalyticsRepository;
+import com.example.analytics_svc.repository.ProjectAnalyticsView;
 import com.example.analytics_svc.repository.ProjectSnapshotRepository;
+import com.example.analytics_svc.service.AnalyticsCache;
+import com.example.analytics_svc.service.AnalyticsRollupService;
+import com.example.analytics_svc.service.OverdueTracker;
 import com.example.analytics_svc.service.ProjectService;
+import com.example.analytics_svc.service.SnapshotAccumulator;
+import com.example.analytics_svc.service.UserWriteLock;
 import com.example.analytics_svc.web.dto.ProjectAnalyticsRequest;
 import jakarta.persistence.EntityManager;
 import org.junit.jupiter.api.Test;
@@ -13,6 +21,7 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.projection.SpelAwareProxyProjectionFactory;
 
 import java.time.LocalDateTime;
 import java.util.Collections;
@@ -34,6 +43,19 @@ public class ProjectAnalyticsUTest {
     private ProjectAnalyticsRepository projectAnalyticsRepository;
     @Mock
     private EntityManager entityManager;
+    @Mock
+    private AnalyticsCache analyticsCache;
+
+    @Mock
+    private UserWriteLock userWriteLock;
+
+    @Mock
+    private AnalyticsRollupService rollupService;
+
+    @Mock
+    private OverdueTracker overdueTracker;
+    @Spy
+    private AnalyticsProperties properties = new AnalyticsProperties();
 
     @Spy
     @InjectMocks
@@ -60,7 +82,7 @@ public class ProjectAnalyticsUTest {
     }
 
     @Test
-    void whenUpsert_andRequestsAreNull_thenReturnsEmptyAnalytics() {
+    void whenUpsert_andRequestsAreNull_thenClearsTheUserAndReturnsEmptyAnalytics() {
         UUID userId = UUID.randomUUID();
         ProjectAnalytics empty = new ProjectAnalytics();
 
@@ -69,12 +91,12 @@ public class ProjectAnalyticsUTest {
         ProjectAnalytics result = projectService.upsertProjects(null, userId);
 
         assertSame(empty, result);
-        verify(snapshotRepository, never()).deleteAllByUserId(any());
-        verify(projectAnalyticsRepository, never()).save(any());
+        verify(snapshotRepository).deleteAllByUserId(userId);
+        verify(projectAnalyticsRepository, never()).upsert(any(), any());
     }
 
     @Test
-    void whenUpsert_andEmptyList_thenReturnsEmptyAnalytics() {
+    void whenUpsert_andEmptyList_thenClearsTheUserAndReturnsEmptyAnalytics() {
         UUID userId = UUID.randomUUID();
         ProjectAnalytics empty = new ProjectAnalytics();
 
@@ -83,7 +105,7 @@ public class ProjectAnalyticsUTest {
         ProjectAnalytics result = projectService.upsertProjects(Collections.emptyList(), userId);
 
         assertSame(empty, result);
-        verify(snapshotRepository, never()).deleteAllByUserId(any());
+        verify(snapshotRepository).deleteAllByUserId(userId);
     }
 
     @Test
@@ -96,44 +118,38 @@ public class ProjectAnalyticsUTest {
 
         ProjectAnalytics analytics = new ProjectAnalytics();
         doReturn(analytics).when(projectService)
-                .getProjectAnalytics(anyList(), anyList(), eq(userId));
-
-        when(projectAnalyticsRepository.findByUserId(userId))
-                .thenReturn(Optional.empty());
+                .getProjectAnalyticsFromRequests(requests, userId);
 
         ProjectAnalytics saved = new ProjectAnalytics();
-        when(projectAnalyticsRepository.save(any())).thenReturn(saved);
+        when(projectAnalyticsRepository.upsert(any(), any())).thenReturn(saved);
 
         ProjectAnalytics result = projectService.upsertProjects(requests, userId);
 
         verify(snapshotRepository).deleteAllByUserId(userId);
         verify(snapshotRepository).save(any(ProjectSnapshot.class));
-        verify(projectAnalyticsRepository).save(analytics);
+        verify(projectAnalyticsRepository).upsert(analytics, null);
 
         assertSame(saved, result);
     }
 
     @Test
-    void whenUpsert_andExistingAnalytics_thenSetIdAndSaves() {
+    void whenUpsert_thenRecordsPreviousAndNewAnalyticsInRollup() {
         UUID userId = UUID.randomUUID();
-        UUID existingId = UUID.randomUUID();
 
-        ProjectAnalytics existing = new ProjectAnalytics();
-        existing.setId(existingId);
-
-        when(projectAnalyticsRepository.findByUserId(userId))
-                .thenReturn(Optional.of(existing));
-
-        ProjectAnalytics analytics = new ProjectAnalytics();
+        ProjectAnalytics previous = ProjectAnalytics.builder().userId(userId).totalProjects(3).build();
+        ProjectAnalytics analytics = ProjectAnalytics.builder().userId(userId).totalProjects(1).build();
         doReturn(analytics).when(projectService)
-                .getProjectAnalytics(any(), any(), eq(userId));
+                .getProjectAnalyticsFromRequests(any(), eq(userId));
 
-        when(projectAnalyticsRepository.save(any())).thenReturn(analytics);
+        when(projectAnalyticsRepository.findViewByUserId(userId))
+                .thenReturn(Optional.of(new SpelAwareProxyProjectionFactory().createProjection(ProjectAnalyticsView.class, previous)));
+        when(projectAnalyticsRepository.upsert(any(), any())).thenReturn(analytics);
 
         ProjectAnalytics result = projectService.upsertProjects(List.of(request(UUID.randomUUID())), userId);
 
-        assertEquals(existingId, analytics.getId());
-        verify(projectAnalyticsRepository).save(analytics);
+        verify(rollupService).record(previous, analytics);
+        verify(projectAnalyticsRepository).upsert(analytics, previous);
+        verify(projectAnalyticsRepository, never()).save(any());
         assertSame(analytics, result);
     }
 
@@ -153,60 +169,60 @@ public class ProjectAnalyticsUTest {
     }
 
     @Test
-    void getProjectAnalytics_validProjects_populatesAllFieldsCorrectly() {
+    void getProjectAnalytics_validProjects_returnsCorrectAnalyticsValues() {
         UUID userId = UUID.randomUUID();
-
-        List<ProjectSnapshot> projects = List.of(
-                new ProjectSnapshot(),
-                new ProjectSnapshot(),
-                new ProjectSnapshot());
+        LocalDateTime now = LocalDateTime.of(2025, 3, 10, 12, 0);
 
         List<ProjectSnapshot> lifetime = List.of(
-                new ProjectSnapshot(),
-                new ProjectSnapshot());
-
-        doReturn(2).when(projectService).getActiveProjects(projects);
-        doReturn(1).when(projectService).getCompletedProjects(projects);
-        doReturn(70).when(projectService).getAverageProgress(projects);
-        doReturn(3).when(projectService).getOverdueProjects(projects);
-
-        doReturn(2)
-                .when(projectService).getCompletedProjects(lifetime);
-
-        doReturn(List.of(new ProjectSnapshot()))
-                .when(projectService).getAbandonedLifetimeProjects(lifetime);
-
-        doReturn(48L)
-                .when(projectService).getAverageProjectDurationLifetime(lifetime);
-
-        doReturn(55.0)
-                .when(projectService).getCompletionRateLifetime(lifetime);
+                snap(ProjectStatus.ACTIVE, 35, false, now.minusDays(6), null),
+                snap(ProjectStatus.COMPLETED, 100, false, now.minusDays(12), now.minusDays(2)),
+                snap(ProjectStatus.OVERDUE, 60, true, now.minusDays(40), null),
+                snap(ProjectStatus.OVERDUE, 10, false, now.minusDays(15), null),
+                snap(ProjectStatus.COMPLETED, 100, true, now.minusDays(9).minusHours(7), now)
+        );
+        List<ProjectSnapshot> projects = lifetime.stream().filter(p -> !p.isDeleted()).toList();
 
         ProjectAnalytics result = projectService.getProjectAnalytics(projects, lifetime, userId);
 
         assertEquals(userId, result.getUserId());
         assertEquals(3, result.getTotalProjects());
-        assertEquals(2, result.getActiveProjects());
+        assertEquals(1, result.getActiveProjects());
         assertEquals(1, result.getCompletedProjects());
-        assertEquals(70, result.getAverageProgress());
-        assertEquals(3, result.getOverdueProjects());
+        assertEquals(48, result.getAverageProgress());
+        assertEquals(1, result.getOverdueProjects());
 
-        assertEquals(2, result.getTotalProjectsLifetime());
+        assertEquals(5, result.getTotalProjectsLifetime());
         assertEquals(2, result.getCompletedProjectsLifetime());
         assertEquals(1, result.getAbandonedProjectsLifetime());
-        assertEquals(48L, result.getAverageProjectDurationLifetime());
-        assertEquals(55.0, result.getProjectCompletionRateLifetime());
+        assertEquals(9L, result.getAverageProjectDurationLifetime());
+        assertEquals(40.0, result.getProjectCompletionRateLifetime());
     }
 
     @Test
-    void whenGetAverageDuration_nullList_returnsZero() {
-        long result = projectService.getAverageProjectDurationLifetime(null);
-        assertEquals(0L, result);
+    void whenGetProjectAnalyticsFromRequests_thenCountsOnlyRequestsOfTheUser() {
+        UUID userId = UUID.randomUUID();
+
+        ProjectAnalyticsRequest active = request(UUID.randomUUID());
+        active.setUserId(userId);
+        ProjectAnalyticsRequest abandoned = request(UUID.randomUUID());
+        abandoned.setUserId(userId);
+        abandoned.setStatus(ProjectStatus.OVERDUE);
+        abandoned.setDeleted(true);
+        ProjectAnalyticsRequest foreign = request(UUID.randomUUID());
+
+        ProjectAnalytics result = projectService.getProjectAnalyticsFromRequests(List.of(active, abandoned, foreign), userId);
+
+        assertEquals(1, result.getTotalProjects());
+        assertEquals(1, result.getActiveProjects());
+        assertEquals(50, result.getAverageProgress());
+        assertEquals(2, result.getTotalProjectsLifetime());
+        assertEquals(1, result.getAbandonedProjectsLifetime());
+        assertEquals(0D, result.getProjectCompletionRateLifetime());
     }
 
     @Test
     void whenGetAverageDuration_andEmptyList_thenReturnsZero() {
-        long result = projectService.getAverageProjectDurationLifetime(Collections.emptyList());
+        long result = SnapshotAccumulator.ofProjects(Collections.emptyList()).averageCompletionWholeDays();
         assertEquals(0L, result);
     }
 
@@ -217,7 +233,7 @@ public class ProjectAnalyticsUTest {
                 snap(LocalDateTime.now().minusDays(1), null)
         );
 
-        long result = projectService.getAverageProjectDurationLifetime(items);
+        long result = SnapshotAccumulator.ofProjects(items).averageCompletionWholeDays();
 
         assertEquals(0L, result);
     }
@@ -232,7 +248,7 @@ public class ProjectAnalyticsUTest {
                 snap(now.minusDays(10), null)
         );
 
-        long result = projectService.getAverageProjectDurationLifetime(items);
+        long result = SnapshotAccumulator.ofProjects(items).averageCompletionWholeDays();
 
         assertEquals(3L, result);
     }
@@ -246,28 +262,26 @@ public class ProjectAnalyticsUTest {
                 snap(now.minusDays(5),  now.minusDays(1))
         );
 
-        long result = projectService.getAverageProjectDurationLifetime(items);
+        long result = SnapshotAccumulator.ofProjects(items).averageCompletionWholeDays();
 
         assertEquals(4L, result);
     }
 
     @Test
     void whenGetCompletionRate_addEmptyList_thenReturnsZero() {
-        double result = projectService.getCompletionRateLifetime(Collections.emptyList());
+        double result = SnapshotAccumulator.ofProjects(Collections.emptyList()).completionRate();
         assertEquals(0.0, result);
     }
 
     @Test
     void wheGetCompletionRate_andThereAreNoCompletedProjects_thenReturnsZeroPercent() {
         List<ProjectSnapshot> lifetime = List.of(
-                new ProjectSnapshot(),
-                new ProjectSnapshot(),
-                new ProjectSnapshot()
+                snap(ProjectStatus.ACTIVE),
+                snap(ProjectStatus.IN_PROGRESS),
+                snap(ProjectStatus.OVERDUE)
         );
 
-        doReturn(0).when(projectService).getCompletedProjects(lifetime);
-
-        double result = projectService.getCompletionRateLifetime(lifetime);
+        double result = SnapshotAccumulator.ofProjects(lifetime).completionRate();
 
         assertEquals(0.0, result);
     }
@@ -276,22 +290,20 @@ public class ProjectAnalyticsUTest {
     @Test
     void whenGetCompletionRate_andProjectsAreMixed_thenReturnsCorrectPercentage() {
         List<ProjectSnapshot> lifetime = List.of(
-                new ProjectSnapshot(),
-                new ProjectSnapshot(),
-                new ProjectSnapshot(),
-                new ProjectSnapshot()
+                snap(ProjectStatus.COMPLETED),
+                snap(ProjectStatus.COMPLETED),
+                snap(ProjectStatus.ACTIVE),
+                snap(ProjectStatus.OVERDUE)
         );
 
-        doReturn(2).when(projectService).getCompletedProjects(lifetime);
-
-        double result = projectService.getCompletionRateLifetime(lifetime);
+        double result = SnapshotAccumulator.ofProjects(lifetime).completionRate();
 
         assertEquals(50.0, result);
     }
 
     @Test
     void whenGetAverageProgress_andEmptyList_thenReturnsZero() {
-        int result = projectService.getAverageProgress(Collections.emptyList());
+        int result = SnapshotAccumulator.ofProjects(Collections.emptyList()).averageProgress();
         assertEquals(0, result);
     }
 
@@ -303,7 +315,7 @@ public class ProjectAnalyticsUTest {
                 snap(0)
         );
 
-        int result = projectService.getAverageProgress(list);
+        int result = SnapshotAccumulator.ofProjects(list).averageProgress();
 
         assertEquals(0, result);
     }
@@ -316,7 +328,7 @@ public class ProjectAnalyticsUTest {
                 snap(50)
         );
 
-        int result = projectService.getAverageProgress(list);
+        int result = SnapshotAccumulator.ofProjects(list).averageProgress();
 
         assertEquals(50, result);
     }
@@ -329,7 +341,7 @@ public class ProjectAnalyticsUTest {
                 snap(100)
         );
 
-        int result = projectService.getAverageProgress(list);
+        int result = SnapshotAccumulator.ofProjects(list).averageProgress();
 
         assertEquals(100, result);
     }
@@ -337,22 +349,19 @@ public class ProjectAnalyticsUTest {
     @Test
     void whenGetCompletedProjects_andProjectsAreEmpty_thenReturn0() {
         List<ProjectSnapshot> emptyList = Collections.emptyList();
-        doReturn(0).when(projectService).getCompletedProjects(emptyList);
 
-        int result = projectService.getCompletedProjects(emptyList);
+        int result = SnapshotAccumulator.ofProjects(emptyList).getCompleted();
         assertEquals(0, result);
     }
 
     @Test
     void whenGetCompletedProjects_andProjectsNotEmptyAndHas2CompletedProjects_thenReturn2() {
         List<ProjectSnapshot> list = List.of(
-                ProjectSnapshot.builder().status("COMPLETED").build(),
-                ProjectSnapshot.builder().status("COMPLETED").build()
+                ProjectSnapshot.builder().status(ProjectStatus.COMPLETED).build(),
+                ProjectSnapshot.builder().status(ProjectStatus.COMPLETED).build()
         );
 
-        doReturn(2).when(projectService).getCompletedProjects(list);
-
-        int result = projectService.getCompletedProjects(list);
+        int result = SnapshotAccumulator.ofProjects(list).getCompleted();
         assertEquals(2, result);
     }
 
@@ -360,18 +369,18 @@ public class ProjectAnalyticsUTest {
     void whenGetOverdueProjects_andProjectsAreEmpty_thenReturn0() {
         List<ProjectSnapshot> emptyList = Collections.emptyList();
 
-        int result = projectService.getOverdueProjects(emptyList);
+        int result = SnapshotAccumulator.ofProjects(emptyList).getOverdue();
         assertEquals(0, result);
     }
 
     @Test
     void whenGetOverdueProjects_andProjectsNotEmptyAndHas2OverdueProjects_thenReturn2() {
         List<ProjectSnapshot> list = List.of(
-                ProjectSnapshot.builder().status("OVERDUE").build(),
-                ProjectSnapshot.builder().status("OVERDUE").build()
+                ProjectSnapshot.builder().status(ProjectStatus.OVERDUE).build(),
+                ProjectSnapshot.builder().status(ProjectStatus.OVERDUE).build()
         );
 
-        int result = projectService.getOverdueProjects(list);
+        int result = SnapshotAccumulator.ofProjects(list).getOverdue();
         assertEquals(2, result);
     }
 
@@ -379,37 +388,37 @@ public class ProjectAnalyticsUTest {
     void whenGetAbandonedLifetimeProjects_andProjectsAreEmpty_thenReturn0() {
         List<ProjectSnapshot> emptyList = Collections.emptyList();
 
-        List<ProjectSnapshot> result = projectService.getAbandonedLifetimeProjects(emptyList);
-        assertEquals(emptyList, result);
+        int result = SnapshotAccumulator.ofProjects(emptyList).getDeletedOverdue();
+        assertEquals(0, result);
     }
 
     @Test
     void whenGetAbandonedLifetimeProjects_andProjectsNotEmptyAndHas2AbandonedProjects_thenReturn2() {
         List<ProjectSnapshot> list = List.of(
-                ProjectSnapshot.builder().status("OVERDUE").deleted(true).build(),
-                ProjectSnapshot.builder().status("OVERDUE").deleted(true).build()
+                ProjectSnapshot.builder().status(ProjectStatus.OVERDUE).deleted(true).build(),
+                ProjectSnapshot.builder().status(ProjectStatus.OVERDUE).deleted(true).build()
         );
 
-        List<ProjectSnapshot> result = projectService.getAbandonedLifetimeProjects(list);
-        assertEquals(list, result);
+        int result = SnapshotAccumulator.ofProjects(list).getDeletedOverdue();
+        assertEquals(2, result);
     }
 
     @Test
     void whenGetActiveProjects_andProjectsAreEmpty_thenReturn0() {
         List<ProjectSnapshot> emptyList = Collections.emptyList();
 
-        int result = projectService.getOverdueProjects(emptyList);
+        int result = SnapshotAccumulator.ofProjects(emptyList).getActive();
         assertEquals(0, result);
     }
 
     @Test
     void whenGetActiveProjects_andProjectsNotEmptyAndHas2ActiveProjects_thenReturn2() {
         List<ProjectSnapshot> list = List.of(
-                ProjectSnapshot.builder().status("ACTIVE").build(),
-                ProjectSnapshot.builder().status("ACTIVE").build()
+                ProjectSnapshot.builder().status(ProjectStatus.ACTIVE).build(),
+                ProjectSnapshot.builder().status(ProjectStatus.ACTIVE).build()
         );
 
-        int result = projectService.getActiveProjects(list);
+        int result = SnapshotAccumulator.ofProjects(list).getActive();
         assertEquals(2, result);
     }
 
@@ -417,7 +426,7 @@ public class ProjectAnalyticsUTest {
         ProjectAnalyticsRequest request = ProjectAnalyticsRequest.builder().build();
         request.setProjectId(id);
         request.setUserId(id);
-        request.setStatus("ACTIVE");
+        request.setStatus(ProjectStatus.ACTIVE);
         request.setCompletionPercentage(50);
         request.setCreatedOn(LocalDateTime.now());
         request.setDueDate(LocalDateTime.now().plusDays(3));
@@ -426,15 +435,30 @@ public class ProjectAnalyticsUTest {
     }
 
     private ProjectSnapshot snap(LocalDateTime created, LocalDateTime completed) {
-        ProjectSnapshot p = new ProjectSnapshot();
+        ProjectSnapshot p = snap(completed == null ? ProjectStatus.ACTIVE : ProjectStatus.COMPLETED);
         p.setCreatedOn(created);
         p.setCompletedOn(completed);
+        p.setCompletionSeconds(SnapshotAccumulator.completionSeconds(created, completed));
+        return p;
+    }
+
+    private ProjectSnapshot snap(ProjectStatus status, int percent, boolean deleted, LocalDateTime created, LocalDateTime completed) {
+        ProjectSnapshot p = snap(created, completed);
+        p.setStatus(status);
+        p.setCompletionPercentage(percent);
+        p.setDeleted(deleted);
         return p;
     }
 
     private ProjectSnapshot snap(int percent) {
-        ProjectSnapshot p = new ProjectSnapshot();
+        ProjectSnapshot p = snap(ProjectStatus.IN_PROGRESS);
         p.setCompletionPercentage(percent);
         return p;
     }
+
+    private ProjectSnapshot snap(ProjectStatus status) {
+        ProjectSnapshot p = new ProjectSnapshot();
+        p.setStatus(status);
+        return p;
+    }
 }
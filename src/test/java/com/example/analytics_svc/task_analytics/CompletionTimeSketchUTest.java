@@ -0,0 +1,72 @@
+package com.example.analytics_svc.task_analytics;
+
+import com.example.analytics_svc.service.CompletionTimeSketch;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class CompletionTimeSketchUTest {
+
+    @Test
+    void whenDurationsAreAdded_thenQuantilesAreWithinTwoPercent() {
+        CompletionTimeSketch sketch = new CompletionTimeSketch();
+        for (long hours = 1; hours <= 1000; hours++) {
+            sketch.add(hours * 3600, 1);
+        }
+
+        assertEquals(500 * 3600, sketch.quantile(0.5), 500 * 3600 * 0.02);
+        assertEquals(900 * 3600, sketch.quantile(0.9), 900 * 3600 * 0.02);
+        assertEquals(990 * 3600, sketch.quantile(0.99), 990 * 3600 * 0.02);
+    }
+
+    @Test
+    void whenOneOutlierIsAdded_thenMedianIsUnaffected() {
+        CompletionTimeSketch sketch = new CompletionTimeSketch();
+        for (int i = 0; i < 9; i++) {
+            sketch.add(2 * 3600, 1);
+        }
+        sketch.add(400L * 24 * 3600, 1);
+
+        assertEquals(2 * 3600, sketch.quantile(0.5), 2 * 3600 * 0.02);
+        assertTrue(sketch.quantile(0.99) > 390L * 24 * 3600);
+    }
+
+    @Test
+    void whenSketchIsSerialized_thenRoundTripKeepsBuckets() {
+        CompletionTimeSketch sketch = new CompletionTimeSketch();
+        Random random = new Random(42);
+        for (int i = 0; i < 5000; i++) {
+            sketch.add(random.nextLong(0, 90L * 24 * 3600), 1);
+        }
+
+        byte[] bytes = sketch.toBytes();
+        CompletionTimeSketch restored = CompletionTimeSketch.fromBytes(bytes);
+
+        assertEquals(5000, restored.count());
+        assertArrayEquals(bytes, restored.toBytes());
+        assertTrue(bytes.length < 1024);
+    }
+
+    @Test
+    void whenDurationIsRemoved_thenSketchEqualsOneBuiltWithoutIt() {
+        CompletionTimeSketch merged = new CompletionTimeSketch();
+        merged.add(3600, 1);
+        merged.add(7 * 24 * 3600, 1);
+
+        CompletionTimeSketch other = new CompletionTimeSketch();
+        other.add(30, 1);
+        merged.merge(other);
+        merged.add(7 * 24 * 3600, -1);
+
+        CompletionTimeSketch expected = new CompletionTimeSketch();
+        expected.add(3600, 1);
+        expected.add(30, 1);
+
+        assertEquals(2, merged.count());
+        assertArrayEquals(expected.toBytes(), merged.toBytes());
+    }
+}
@@ -0,0 +1,87 @@
+package com.example.analytics_svc.task_analytics;
+
+import com.example.analytics_svc.model.ProjectStatus;
+import com.example.analytics_svc.model.TaskPriority;
+import com.example.analytics_svc.model.TaskStatus;
+import com.example.analytics_svc.service.PayloadHash;
+import com.example.analytics_svc.web.dto.ProjectAnalyticsRequest;
+import com.example.analytics_svc.web.dto.TaskAnalyticsRequest;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+public class PayloadHashUTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2025, 3, 10, 12, 0);
+
+    @Test
+    void whenTasksAreReordered_thenHashIsUnchanged() {
+        TaskAnalyticsRequest first = task(TaskStatus.TODO, NOW.minusDays(2), null);
+        TaskAnalyticsRequest second = task(TaskStatus.COMPLETED, NOW.minusDays(5), NOW.minusDays(1));
+        TaskAnalyticsRequest third = task(TaskStatus.IN_PROGRESS, NOW.minusDays(1), null);
+
+        assertEquals(PayloadHash.ofTasks(List.of(first, second, third)), PayloadHash.ofTasks(List.of(third, first, second)));
+    }
+
+    @Test
+    void whenAnyTaskFieldChanges_thenHashChanges() {
+        TaskAnalyticsRequest task = task(TaskStatus.TODO, NOW.minusDays(2), null);
+        long original = PayloadHash.ofTasks(List.of(task));
+
+        task.setStatus(TaskStatus.COMPLETED);
+        long statusChanged = PayloadHash.ofTasks(List.of(task));
+        task.setCompletedOn(NOW);
+        long completed = PayloadHash.ofTasks(List.of(task));
+        task.setDeleted(true);
+        long deleted = PayloadHash.ofTasks(List.of(task));
+
+        assertNotEquals(original, statusChanged);
+        assertNotEquals(statusChanged, completed);
+        assertNotEquals(completed, deleted);
+    }
+
+    @Test
+    void whenTaskIsRepeatedOrRemoved_thenHashChanges() {
+        TaskAnalyticsRequest first = task(TaskStatus.TODO, NOW.minusDays(2), null);
+        TaskAnalyticsRequest second = task(TaskStatus.TODO, NOW.minusDays(3), null);
+
+        long both = PayloadHash.ofTasks(List.of(first, second));
+
+        assertNotEquals(both, PayloadHash.ofTasks(List.of(first)));
+        assertNotEquals(both, PayloadHash.ofTasks(List.of(first, second, second)));
+        assertNotEquals(PayloadHash.ofTasks(List.of()), PayloadHash.ofTasks(List.of(first, first)));
+    }
+
+    @Test
+    void whenProjectMovesToAnotherUser_thenHashChanges() {
+        ProjectAnalyticsRequest project = ProjectAnalyticsRequest.builder()
+                .userId(UUID.randomUUID())
+                .projectId(UUID.randomUUID())
+                .status(ProjectStatus.ACTIVE)
+                .completionPercentage(40)
+                .createdOn(NOW.minusDays(10))
+                .dueDate(NOW.plusDays(10))
+                .build();
+        long original = PayloadHash.ofProjects(List.of(project));
+
+        project.setUserId(UUID.randomUUID());
+
+        assertNotEquals(original, PayloadHash.ofProjects(List.of(project)));
+    }
+
+    private TaskAnalyticsRequest task(TaskStatus status, LocalDateTime createdOn, LocalDateTime completedOn) {
+        return TaskAnalyticsRequest.builder()
+                .taskId(UUID.randomUUID())
+                .status(status)
+                .priority(TaskPriority.MEDIUM)
+                .createdOn(createdOn)
+                .dueDate(createdOn.plusDays(7))
+                .completedOn(completedOn)
+                .build();
+    }
+}
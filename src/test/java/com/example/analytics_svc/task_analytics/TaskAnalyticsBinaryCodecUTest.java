@@ -0,0 +1,98 @@
+package com.example.analytics_svc.task_analytics;
+
+import com.example.analytics_svc.domain.MalformedPayload;
+import com.example.analytics_svc.model.TaskPriority;
+import com.example.analytics_svc.model.TaskStatus;
+import com.example.analytics_svc.web.codec.TaskAnalyticsBinaryCodec;
+import com.example.analytics_svc.web.dto.TaskAnalyticsRequest;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TaskAnalyticsBinaryCodecUTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2025, 3, 10, 12, 0, 30);
+
+    @Test
+    void whenEncodedAndDecoded_thenTasksRoundTrip() throws Exception {
+        List<TaskAnalyticsRequest> tasks = List.of(
+                task(TaskStatus.COMPLETED, TaskPriority.HIGH, false, NOW.minusDays(2), NOW),
+                task(TaskStatus.TODO, TaskPriority.LOW, true, NOW.minusHours(3), null),
+                task(null, null, false, null, null));
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        TaskAnalyticsBinaryCodec.encode(tasks, out);
+
+        assertEquals(4 + tasks.size() * 43, out.size());
+
+        List<TaskAnalyticsRequest> decoded = new ArrayList<>();
+        TaskAnalyticsBinaryCodec.decode(new ByteArrayInputStream(out.toByteArray())).forEachRemaining(decoded::add);
+
+        assertEquals(tasks, decoded);
+    }
+
+    @Test
+    void whenPayloadIsTruncated_thenDecodingFails() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        TaskAnalyticsBinaryCodec.encode(List.of(task(TaskStatus.TODO, TaskPriority.LOW, false, NOW, null)), out);
+        byte[] truncated = Arrays.copyOf(out.toByteArray(), out.size() - 5);
+
+        Iterator<TaskAnalyticsRequest> tasks = TaskAnalyticsBinaryCodec.decode(new ByteArrayInputStream(truncated));
+
+        assertTrue(tasks.hasNext());
+        assertThrows(MalformedPayload.class, tasks::next);
+    }
+
+    @Test
+    void whenPayloadIsEmpty_thenDecodingFails() {
+        assertThrows(MalformedPayload.class, () -> TaskAnalyticsBinaryCodec.decode(new ByteArrayInputStream(new byte[0])));
+    }
+
+    @Test
+    void whenStatusCodeIsUnknown_thenDecodingFails() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        TaskAnalyticsBinaryCodec.encode(List.of(task(TaskStatus.TODO, TaskPriority.LOW, false, NOW, null)), out);
+        byte[] payload = out.toByteArray();
+        payload[4 + 16] = 9;
+
+        Iterator<TaskAnalyticsRequest> tasks = TaskAnalyticsBinaryCodec.decode(new ByteArrayInputStream(payload));
+
+        assertThrows(MalformedPayload.class, tasks::next);
+    }
+
+    @Test
+    void whenTimestampIsOutOfRange_thenDecodingFails() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        TaskAnalyticsBinaryCodec.encode(List.of(task(TaskStatus.TODO, TaskPriority.LOW, false, NOW, null)), out);
+        byte[] payload = out.toByteArray();
+        // createdOn follows the 16-byte id and the three 1-byte fields.
+        ByteBuffer.wrap(payload).putLong(4 + 16 + 3, Long.MAX_VALUE - 1);
+
+        Iterator<TaskAnalyticsRequest> tasks = TaskAnalyticsBinaryCodec.decode(new ByteArrayInputStream(payload));
+
+        MalformedPayload e = assertThrows(MalformedPayload.class, tasks::next);
+        assertEquals("Timestamp [%d] is out of range".formatted(Long.MAX_VALUE - 1), e.getMessage());
+    }
+
+    private TaskAnalyticsRequest task(TaskStatus status, TaskPriority priority, boolean deleted, LocalDateTime createdOn, LocalDateTime completedOn) {
+        return TaskAnalyticsRequest.builder()
+                .taskId(UUID.randomUUID())
+                .status(status)
+                .priority(priority)
+                .deleted(deleted)
+                .createdOn(createdOn)
+                .dueDate(createdOn == null ? null : createdOn.plusDays(7))
+                .completedOn(completedOn)
+                .build();
+    }
+}
@@ -1,10 +1,22 @@
 package com.example.analytics_svc.task_analytics;
 
+import com.example.analytics_svc.config.AnalyticsProperties;
+import com.example.analytics_svc.config.UpsertMode;
 import com.example.analytics_svc.model.TaskAnalytics;
+import com.example.analytics_svc.model.TaskPriority;
 import com.example.analytics_svc.model.TaskSnapshot;
+import com.example.analytics_svc.model.TaskStatus;
 import com.example.analytics_svc.repository.TaskAnalyticsRepository;
 import com.example.analytics_svc.repository.TaskSnapshotRepository;
+import com.example.analytics_svc.service.AnalyticsCache;
+import com.example.analytics_svc.service.AnalyticsRollupService;
+import com.example.analytics_svc.service.OverdueTracker;
+import com.example.analytics_svc.service.PayloadHash;
+import com.example.analytics_svc.service.SnapshotAccumulator;
+import com.example.analytics_svc.service.TaskDailyRollupService;
+import com.example.analytics_svc.service.TaskLeaderboard;
 import com.example.analytics_svc.service.TaskService;
+import com.example.analytics_svc.service.UserWriteLock;
 import com.example.analytics_svc.web.dto.TaskAnalyticsRequest;
 import jakarta.persistence.EntityManager;
 import org.junit.jupiter.api.Test;
@@ -32,28 +44,49 @@ public class TaskAnalyticsUTest {
     private TaskAnalyticsRepository taskAnalyticsRepository;
     @Mock
     private EntityManager entityManager;
+    @Mock
+    private AnalyticsCache analyticsCache;
+
+    @Mock
+    private UserWriteLock userWriteLock;
+
+    @Mock
+    private AnalyticsRollupService rollupService;
+
+    @Mock
+    private TaskLeaderboard taskLeaderboard;
+
+    @Mock
+    private TaskDailyRollupService dailyRollupService;
+
+    @Mock
+    private OverdueTracker overdueTracker;
+    @Spy
+    private AnalyticsProperties properties = new AnalyticsProperties();
 
     @Spy
     @InjectMocks
     private TaskService taskService;
 
     @Test
-    void whenUpsert_andTasksAreNull_thenReturnsEmptyAnalyticsAndDoesNotTouchDatabase() {
+    void whenUpsert_andTasksAreNull_thenClearsTheUserAndReturnsEmptyAnalytics() {
         UUID userId = UUID.randomUUID();
         TaskAnalytics empty = new TaskAnalytics();
 
         doReturn(empty).when(taskService).emptyAnalytics(userId);
 
-        TaskAnalytics result = taskService.upsertTasks(Collections.emptyList(), userId);
+        TaskAnalytics result = taskService.upsertTasks(null, userId);
 
         assertSame(empty, result);
-        verify(snapshotRepository, never()).deleteAllByUserId(any());
+        verify(snapshotRepository).deleteAllByUserId(userId);
+        verify(dailyRollupService).deleteAllByUserId(userId);
         verify(snapshotRepository, never()).save(any());
-        verify(taskAnalyticsRepository, never()).save(any());
+        // Nothing stored yet, so there is no row to overwrite.
+        verify(taskAnalyticsRepository, never()).upsert(any(), any());
     }
 
     @Test
-    void whenUpsert_andTasksAreEmpty_thenReturnsEmptyAnalyticsAndDoesNotTouchDatabase() {
+    void whenUpsert_andTasksAreEmpty_thenClearsTheUserAndReturnsEmptyAnalytics() {
         UUID userId = UUID.randomUUID();
         TaskAnalytics empty = new TaskAnalytics();
 
@@ -62,22 +95,113 @@ public class TaskAnalyticsUTest {
         TaskAnalytics result = taskService.upsertTasks(Collections.emptyList(), userId);
 
         assertSame(empty, result);
-        verify(snapshotRepository, never()).deleteAllByUserId(any());
+        verify(snapshotRepository).deleteAllByUserId(userId);
+        verify(dailyRollupService).deleteAllByUserId(userId);
         verify(snapshotRepository, never()).save(any());
-        verify(taskAnalyticsRepository, never()).save(any());
+        // Nothing stored yet, so there is no row to overwrite.
+        verify(taskAnalyticsRepository, never()).upsert(any(), any());
     }
 
     @Test
-    void whenUpsert_thenCallsDeleteSnapshotsOnce() {
+    void whenUpsert_andReplaceMode_thenCallsDeleteSnapshotsOnce() {
         UUID userId = UUID.randomUUID();
+        properties.getTasks().setUpsertMode(UpsertMode.REPLACE);
         List<TaskAnalyticsRequest> tasks = List.of(TaskAnalyticsRequest.builder().build());
 
         doReturn(new TaskAnalytics()).when(taskService)
-                .getTasksAnalytics(any(), any(), any());
+                .getTasksAnalyticsFromRequests(any(), any());
+
+        taskService.upsertTasks(tasks, userId);
+
+        verify(snapshotRepository).deleteAllByUserId(userId);
+    }
+
+    @Test
+    void whenUpsert_andReplaceMode_thenFlushesSnapshotsInBatches() {
+        UUID userId = UUID.randomUUID();
+        properties.getTasks().setUpsertMode(UpsertMode.REPLACE);
+        properties.getPersistence().setBatchSize(2);
+
+        List<TaskAnalyticsRequest> tasks = List.of(
+                TaskAnalyticsRequest.builder().taskId(UUID.randomUUID()).build(),
+                TaskAnalyticsRequest.builder().taskId(UUID.randomUUID()).build(),
+                TaskAnalyticsRequest.builder().taskId(UUID.randomUUID()).build(),
+                TaskAnalyticsRequest.builder().taskId(UUID.randomUUID()).build(),
+                TaskAnalyticsRequest.builder().taskId(UUID.randomUUID()).build());
+
+        doReturn(new TaskAnalytics()).when(taskService)
+                .getTasksAnalyticsFromRequests(any(), any());
 
         taskService.upsertTasks(tasks, userId);
 
+        verify(snapshotRepository, times(5)).save(any(TaskSnapshot.class));
+        verify(snapshotRepository, times(2)).flush();
+        verify(entityManager, times(2)).clear();
+    }
+
+    @Test
+    void whenUpsertTaskStream_thenFlushesInBatchesAndAggregatesStreamedTasks() {
+        UUID userId = UUID.randomUUID();
+        properties.getPersistence().setBatchSize(2);
+        LocalDateTime now = LocalDateTime.now();
+
+        List<TaskAnalyticsRequest> tasks = List.of(
+                request(TaskStatus.COMPLETED, TaskPriority.LOW, false, now.minusDays(3), now),
+                request(TaskStatus.TODO, TaskPriority.HIGH, false, now.minusDays(1), null),
+                request(TaskStatus.OVERDUE, TaskPriority.MEDIUM, true, now.minusDays(9), null),
+                request(TaskStatus.IN_PROGRESS, TaskPriority.LOW, false, now.minusDays(2), null),
+                request(TaskStatus.COMPLETED, TaskPriority.HIGH, true, now.minusHours(6), now));
+
+        TaskAnalytics expected = taskService.getTasksAnalyticsFromRequests(tasks, userId);
+        expected.setPayloadHash(PayloadHash.ofTasks(tasks));
+
+        taskService.upsertTaskStream(tasks.iterator(), userId);
+
         verify(snapshotRepository).deleteAllByUserId(userId);
+        verify(snapshotRepository, times(5)).save(any(TaskSnapshot.class));
+        verify(snapshotRepository, times(2)).flush();
+        verify(entityManager, times(2)).clear();
+        verify(taskAnalyticsRepository).upsert(expected, null);
+    }
+
+    @Test
+    void whenUpsert_andDiffMode_thenUpdatesExistingInsertsNewAndDeletesMissing() {
+        UUID userId = UUID.randomUUID();
+
+        TaskSnapshot kept = TaskSnapshot.builder().taskId(UUID.randomUUID()).userId(userId).status(TaskStatus.TODO).build();
+        TaskSnapshot removed = TaskSnapshot.builder().taskId(UUID.randomUUID()).userId(userId).status(TaskStatus.TODO).build();
+        when(snapshotRepository.findAllByUserId(userId)).thenReturn(List.of(kept, removed));
+
+        TaskAnalyticsRequest update = TaskAnalyticsRequest.builder().taskId(kept.getTaskId()).status(TaskStatus.COMPLETED).build();
+        TaskAnalyticsRequest insert = TaskAnalyticsRequest.builder().taskId(UUID.randomUUID()).status(TaskStatus.TODO).build();
+
+        doReturn(new TaskAnalytics()).when(taskService)
+                .getTasksAnalyticsFromRequests(any(), any());
+
+        taskService.upsertTasks(List.of(update, insert), userId);
+
+        assertEquals(TaskStatus.COMPLETED, kept.getStatus());
+        verify(snapshotRepository, never()).deleteAllByUserId(any());
+        verify(snapshotRepository, times(1)).save(any(TaskSnapshot.class));
+        verify(snapshotRepository).deleteAllInBatch(argThat(deleted -> deleted.iterator().next() == removed));
+    }
+
+    @Test
+    void whenUpsert_andDiffModeWithUnchangedTasks_thenDoesNotInsertOrDelete() {
+        UUID userId = UUID.randomUUID();
+
+        TaskSnapshot existing = TaskSnapshot.builder().taskId(UUID.randomUUID()).userId(userId).status(TaskStatus.TODO).build();
+        when(snapshotRepository.findAllByUserId(userId)).thenReturn(List.of(existing));
+
+        TaskAnalyticsRequest same = TaskAnalyticsRequest.builder().taskId(existing.getTaskId()).status(TaskStatus.TODO).build();
+
+        doReturn(new TaskAnalytics()).when(taskService)
+                .getTasksAnalyticsFromRequests(any(), any());
+
+        taskService.upsertTasks(List.of(same), userId);
+
+        verify(snapshotRepository, never()).save(any(TaskSnapshot.class));
+        verify(snapshotRepository, never()).deleteAllInBatch(any());
     }
 
     @Test
@@ -93,7 +217,7 @@ public class TaskAnalyticsUTest {
         List<TaskAnalyticsRequest> tasks = List.of(t1, t2);
 
         doReturn(new TaskAnalytics()).when(taskService)
-                .getTasksAnalytics(any(), any(), any());
+                .getTasksAnalyticsFromRequests(any(), any());
 
         taskService.upsertTasks(tasks, userId);
 
@@ -101,7 +225,7 @@ public class TaskAnalyticsUTest {
     }
 
     @Test
-    void whenUpsert_thenCallsGetTasksAnalytics() {
+    void whenUpsert_thenComputesAnalyticsFromRequests() {
         UUID userId = UUID.randomUUID();
         TaskAnalyticsRequest req = TaskAnalyticsRequest.builder().build();
         req.setTaskId(UUID.randomUUID());
@@ -110,11 +234,12 @@ public class TaskAnalyticsUTest {
 
         TaskAnalytics analytics = new TaskAnalytics();
         doReturn(analytics).when(taskService)
-                .getTasksAnalytics(any(), any(), any());
+                .getTasksAnalyticsFromRequests(any(), any());
 
         taskService.upsertTasks(tasks, userId);
 
-        verify(taskService).getTasksAnalytics(any(), any(), eq(userId));
+        verify(taskService).getTasksAnalyticsFromRequests(tasks, userId);
+        verify(snapshotRepository, never()).findAllByUserIdAndDeletedFalse(any());
     }
 
     @Test
@@ -130,100 +255,96 @@ public class TaskAnalyticsUTest {
         TaskAnalytics saved = new TaskAnalytics();
 
         doReturn(analytics).when(taskService)
-                .getTasksAnalytics(any(), any(), any());
+                .getTasksAnalyticsFromRequests(any(), any());
 
-        when(taskAnalyticsRepository.save(analytics)).thenReturn(saved);
+        when(taskAnalyticsRepository.upsert(analytics, null)).thenReturn(saved);
 
         TaskAnalytics result = taskService.upsertTasks(tasks, userId);
 
-        verify(taskAnalyticsRepository).save(analytics);
+        verify(taskAnalyticsRepository).upsert(analytics, null);
         assertSame(saved, result);
     }
 
     @Test
     void whenGetTasksAnalytics_thenReturnsCorrectAnalyticsValues() {
         UUID userId = UUID.randomUUID();
+        LocalDateTime now = LocalDateTime.of(2025, 3, 10, 12, 0, 0, 500_000_000);
+
+        List<TaskSnapshot> lifetime = List.of(
+                snap(TaskStatus.COMPLETED, TaskPriority.LOW, false, now.minusDays(9).minusHours(5), now.minusDays(1)),
+                snap(TaskStatus.COMPLETED, TaskPriority.HIGH, true, now.minusHours(30).plusNanos(700_000_000), now),
+                snap(TaskStatus.IN_PROGRESS, TaskPriority.MEDIUM, false, now.minusDays(3), null),
+                snap(TaskStatus.TODO, TaskPriority.LOW, true, now.minusDays(2), null),
+                snap(TaskStatus.OVERDUE, TaskPriority.HIGH, true, now.minusDays(20), null),
+                snap(TaskStatus.OVERDUE, TaskPriority.MEDIUM, false, now.minusDays(4), null),
+                snap(TaskStatus.COMPLETED, TaskPriority.MEDIUM, false, now.minusDays(2), now.minusHours(2))
+        );
+        List<TaskSnapshot> current = lifetime.stream().filter(t -> !t.isDeleted()).toList();
 
-        List<TaskSnapshot> current = List.of(new TaskSnapshot(), new TaskSnapshot());
-        List<TaskSnapshot> lifetime = List.of(new TaskSnapshot());
-
-        doReturn(List.of(new TaskSnapshot()))
-                .when(taskService).getCompletedTasks(current);
-
-        doReturn(1)
-                .when(taskService).getInProgressTasks(current);
-
-        doReturn(1)
-                .when(taskService).getTodoTasks(current);
-
-        doReturn(1)
-                .when(taskService).getOverdueTasks(current);
-
-        doReturn(50.0)
-                .when(taskService).getCompletionRate(current);
-
-        doReturn(123.0)
-                .when(taskService).averageCompletionTime(current);
-
-        doReturn(1)
-                .when(taskService).getLowPriorityTasks(current);
-
-        doReturn(1)
-                .when(taskService).getMediumPriorityTasks(current);
+        TaskAnalytics result = taskService.getTasksAnalytics(current, lifetime, userId);
 
-        doReturn(1)
-                .when(taskService).getHighPriorityTasks(current);
+        assertEquals(userId, result.getUserId());
+        assertEquals(4, result.getTotalTasks());
+        assertEquals(2, result.getCompletedTasks());
+        assertEquals(1, result.getInProgressTasks());
+        assertEquals(0, result.getTodoTasks());
+        assertEquals(1, result.getOverdueTasks());
+        assertEquals(50.0, result.getCompletionRate());
+        assertEquals(4.5, result.getAvgCompletionTime());
+        assertEquals(1, result.getLowPriorityCount());
+        assertEquals(3, result.getMediumPriorityCount());
+        assertEquals(0, result.getHighPriorityCount());
 
-        doReturn(List.of(new TaskSnapshot()))
-                .when(taskService).getCompletedTasks(lifetime);
+        assertEquals(7, result.getLifetimeTotalTasks());
+        assertEquals(3, result.getLifetimeCompletedTasks());
+        assertEquals(2, result.getLifetimeAbandonedTasks());
+        assertEquals(1, result.getLifetimeOverdueTasks());
+        assertEquals(10.0 / 3, result.getLifetimeAverageCompletionTime());
+        assertEquals(42, result.getLifetimeCompletionRate());
+        // 30 hours minus 0.7 seconds: whole hours are floored.
+        assertEquals(29, result.getFastestCompletionTime());
+    }
 
-        doReturn(List.of(new TaskSnapshot()))
-                .when(taskService).getAbandonedLifetimeTasks(lifetime);
+    @Test
+    void whenGetTasksAnalytics_andListsAreEmpty_thenReturnsZeroValues() {
+        UUID userId = UUID.randomUUID();
 
-        doReturn(List.of(new TaskSnapshot()))
-                .when(taskService).getLifetimeOverdueTasks(lifetime);
+        TaskAnalytics result = taskService.getTasksAnalytics(Collections.emptyList(), Collections.emptyList(), userId);
 
-        doReturn(25.0)
-                .when(taskService).averageCompletionTime(lifetime);
+        assertEquals(taskService.emptyAnalytics(userId), result);
+    }
 
-        doReturn(66.0)
-                .when(taskService).getCompletionRate(lifetime);
+    @Test
+    void whenGetTasksAnalyticsFromRequests_thenMatchesSnapshotAnalytics() {
+        UUID userId = UUID.randomUUID();
+        LocalDateTime now = LocalDateTime.of(2025, 3, 10, 12, 0);
 
-        doReturn(13L)
-                .when(taskService).getFastestCompletionTime(lifetime);
+        List<TaskAnalyticsRequest> requests = List.of(
+                request(TaskStatus.COMPLETED, TaskPriority.LOW, false, now.minusDays(5), now),
+                request(TaskStatus.TODO, TaskPriority.HIGH, false, now.minusDays(1), null),
+                request(TaskStatus.OVERDUE, TaskPriority.MEDIUM, true, now.minusDays(8), null),
+                request(TaskStatus.COMPLETED, TaskPriority.HIGH, true, now.minusHours(9), now)
+        );
 
-        TaskAnalytics result = taskService.getTasksAnalytics(current, lifetime, userId);
+        List<TaskSnapshot> lifetime = requests.stream()
+                .map(r -> snap(r.getStatus(), r.getPriority(), r.isDeleted(), r.getCreatedOn(), r.getCompletedOn()))
+                .toList();
+        List<TaskSnapshot> current = lifetime.stream().filter(t -> !t.isDeleted()).toList();
 
-        assertEquals(userId, result.getUserId());
-        assertEquals(2, result.getTotalTasks());
-        assertEquals(1, result.getCompletedTasks());
-        assertEquals(1, result.getInProgressTasks());
-        assertEquals(1, result.getTodoTasks());
-        assertEquals(1, result.getOverdueTasks());
-        assertEquals(50.0, result.getCompletionRate());
-        assertEquals(123.0, result.getAvgCompletionTime());
-        assertEquals(1, result.getLowPriorityCount());
-        assertEquals(1, result.getMediumPriorityCount());
-        assertEquals(1, result.getHighPriorityCount());
+        TaskAnalytics result = taskService.getTasksAnalyticsFromRequests(requests, userId);
 
-        assertEquals(1, result.getLifetimeTotalTasks());
-        assertEquals(1, result.getLifetimeCompletedTasks());
-        assertEquals(1, result.getLifetimeAbandonedTasks());
-        assertEquals(1, result.getLifetimeOverdueTasks());
-        assertEquals(25.0, result.getLifetimeAverageCompletionTime());
-        assertEquals(66, result.getLifetimeCompletionRate());
-        assertEquals(13L, result.getFastestCompletionTime());
+        assertEquals(taskService.getTasksAnalytics(current, lifetime, userId), result);
     }
 
     @Test
     void whenGetLowPriorityTasks_thenReturnsCorrectCount() {
         List<TaskSnapshot> tasks = List.of(
-                snap("TODO", "LOW"),
-                snap("COMPLETED", "HIGH"),
-                snap("IN_PROGRESS", "LOW")
+                snap(TaskStatus.TODO, TaskPriority.LOW),
+                snap(TaskStatus.COMPLETED, TaskPriority.HIGH),
+                snap(TaskStatus.IN_PROGRESS, TaskPriority.LOW)
         );
 
-        int count = taskService.getLowPriorityTasks(tasks);
+        int count = SnapshotAccumulator.ofTasks(tasks).getLowPriority();
 
         assertEquals(2, count);
     }
@@ -231,12 +352,12 @@ public class TaskAnalyticsUTest {
     @Test
     void whenGetMediumPriorityTasks_thenReturnsCorrectCount() {
         List<TaskSnapshot> tasks = List.of(
-                snap("TODO", "MEDIUM"),
-                snap("IN_PROGRESS", "LOW"),
-                snap("COMPLETED", "MEDIUM")
+                snap(TaskStatus.TODO, TaskPriority.MEDIUM),
+                snap(TaskStatus.IN_PROGRESS, TaskPriority.LOW),
+                snap(TaskStatus.COMPLETED, TaskPriority.MEDIUM)
         );
 
-        int count = taskService.getMediumPriorityTasks(tasks);
+        int count = SnapshotAccumulator.ofTasks(tasks).getMediumPriority();
 
         assertEquals(2, count);
     }
@@ -244,12 +365,12 @@ public class TaskAnalyticsUTest {
     @Test
     void whenGetHighPriorityTasks_thenReturnsCorrectCount() {
         List<TaskSnapshot> tasks = List.of(
-                snap("TODO", "HIGH"),
-                snap("COMPLETED", "HIGH"),
-                snap("IN_PROGRESS", "LOW")
+                snap(TaskStatus.TODO, TaskPriority.HIGH),
+                snap(TaskStatus.COMPLETED, TaskPriority.HIGH),
+                snap(TaskStatus.IN_PROGRESS, TaskPriority.LOW)
         );
 
-        int count = taskService.getHighPriorityTasks(tasks);
+        int count = SnapshotAccumulator.ofTasks(tasks).getHighPriority();
 
         assertEquals(2, count);
     }
@@ -257,40 +378,39 @@ public class TaskAnalyticsUTest {
     @Test
     void whenGetTodoTasks_thenReturnsCorrectCount() {
         List<TaskSnapshot> tasks = List.of(
-                snap("TODO", "LOW"),
-                snap("COMPLETED", "HIGH"),
-                snap("TODO", "MEDIUM")
+                snap(TaskStatus.TODO, TaskPriority.LOW),
+                snap(TaskStatus.COMPLETED, TaskPriority.HIGH),
+                snap(TaskStatus.TODO, TaskPriority.MEDIUM)
         );
 
-        int count = taskService.getTodoTasks(tasks);
+        int count = SnapshotAccumulator.ofTasks(tasks).getTodo();
 
         assertEquals(2, count);
     }
 
     @Test
-    void whenGetCompletedTasks_thenReturnsOnlyCompletedTasks() {
+    void whenGetCompletedTasks_thenReturnsCorrectCount() {
         List<TaskSnapshot> tasks = List.of(
-                snap("COMPLETED", "LOW"),
-                snap("COMPLETED", "HIGH"),
-                snap("TODO", "LOW")
+                snap(TaskStatus.COMPLETED, TaskPriority.LOW),
+                snap(TaskStatus.COMPLETED, TaskPriority.HIGH),
+                snap(TaskStatus.TODO, TaskPriority.LOW)
         );
 
-        List<TaskSnapshot> result = taskService.getCompletedTasks(tasks);
+        int count = SnapshotAccumulator.ofTasks(tasks).getCompleted();
 
-        assertEquals(2, result.size());
-        assertTrue(result.stream().allMatch(t -> t.getStatus().equals("COMPLETED")));
+        assertEquals(2, count);
     }
 
 
     @Test
     void whenGetInProgressTasks_thenReturnsCorrectCount() {
         List<TaskSnapshot> tasks = List.of(
-                snap("IN_PROGRESS", "LOW"),
-                snap("IN_PROGRESS", "HIGH"),
-                snap("TODO", "LOW")
+                snap(TaskStatus.IN_PROGRESS, TaskPriority.LOW),
+                snap(TaskStatus.IN_PROGRESS, TaskPriority.HIGH),
+                snap(TaskStatus.TODO, TaskPriority.LOW)
         );
 
-        int count = taskService.getInProgressTasks(tasks);
+        int count = SnapshotAccumulator.ofTasks(tasks).getInProgress();
 
         assertEquals(2, count);
     }
@@ -299,19 +419,19 @@ public class TaskAnalyticsUTest {
     @Test
     void whenGetOverdueTasks_thenReturnsCorrectCount() {
         List<TaskSnapshot> tasks = List.of(
-                snap("OVERDUE", "HIGH"),
-                snap("OVERDUE", "LOW"),
-                snap("COMPLETED", "LOW")
+                snap(TaskStatus.OVERDUE, TaskPriority.HIGH),
+                snap(TaskStatus.OVERDUE, TaskPriority.LOW),
+                snap(TaskStatus.COMPLETED, TaskPriority.LOW)
         );
 
-        int count = taskService.getOverdueTasks(tasks);
+        int count = SnapshotAccumulator.ofTasks(tasks).getOverdue();
 
         assertEquals(2, count);
     }
 
     @Test
     void whenGetAverageCompletionTime_andServiceReturnsEmptyList_thenReturnsZero() {
-        double result = taskService.averageCompletionTime(Collections.emptyList());
+        double result = SnapshotAccumulator.ofTasks(Collections.emptyList()).averageCompletionDays();
         assertEquals(0.0, result);
     }
 
@@ -322,7 +442,7 @@ public class TaskAnalyticsUTest {
                 snap(LocalDateTime.now().minusDays(1), null)
         );
 
-        double result = taskService.averageCompletionTime(tasks);
+        double result = SnapshotAccumulator.ofTasks(tasks).averageCompletionDays();
 
         assertEquals(0.0, result);
     }
@@ -337,7 +457,7 @@ public class TaskAnalyticsUTest {
                 snap(now.minusDays(7), null)
         );
 
-        double result = taskService.averageCompletionTime(tasks);
+        double result = SnapshotAccumulator.ofTasks(tasks).averageCompletionDays();
 
         assertEquals(3.0, result);
     }
@@ -351,7 +471,7 @@ public class TaskAnalyticsUTest {
                 snap(now.minusDays(6),  now.minusDays(1))
         );
 
-        double result = taskService.averageCompletionTime(tasks);
+        double result = SnapshotAccumulator.ofTasks(tasks).averageCompletionDays();
 
         assertEquals(5.0, result);
     }
@@ -384,21 +504,19 @@ public class TaskAnalyticsUTest {
 
     @Test
     void whenGetCompletionRate_andIsEmptyList_thenReturnsZero() {
-        double rate = taskService.getCompletionRate(Collections.emptyList());
+        double rate = SnapshotAccumulator.ofTasks(Collections.emptyList()).completionRate();
         assertEquals(0.0, rate);
     }
 
     @Test
     void whenGetCompletionRate_andThereAreNoCompletedTasks_thenReturnsZero() {
         List<TaskSnapshot> tasks = List.of(
-                snap("TODO"),
-                snap("IN_PROGRESS"),
-                snap("OVERDUE")
+                snap(TaskStatus.TODO),
+                snap(TaskStatus.IN_PROGRESS),
+                snap(TaskStatus.OVERDUE)
         );
 
-        when(taskService.getCompletedTasks(tasks)).thenReturn(Collections.emptyList());
-
-        double rate = taskService.getCompletionRate(tasks);
+        double rate = SnapshotAccumulator.ofTasks(tasks).completionRate();
 
         assertEquals(0.0, rate);
     }
@@ -406,23 +524,18 @@ public class TaskAnalyticsUTest {
     @Test
     void whenGetCompletionRate_mixedTasks_thenComputesCorrectRate() {
         List<TaskSnapshot> tasks = List.of(
-                snap("COMPLETED"),
-                snap("COMPLETED"),
-                snap("TODO"),
-                snap("IN_PROGRESS")
+                snap(TaskStatus.COMPLETED),
+                snap(TaskStatus.COMPLETED),
+                snap(TaskStatus.TODO),
+                snap(TaskStatus.IN_PROGRESS)
         );
 
-        when(taskService.getCompletedTasks(tasks)).thenReturn(List.of(
-                snap("COMPLETED"),
-                snap("COMPLETED")
-        ));
-
-        double rate = taskService.getCompletionRate(tasks);
+        double rate = SnapshotAccumulator.ofTasks(tasks).completionRate();
 
         assertEquals(50.0, rate);
     }
 
-    private TaskSnapshot snap(String status, String priority) {
+    private TaskSnapshot snap(TaskStatus status, TaskPriority priority) {
         TaskSnapshot s = new TaskSnapshot();
         s.setStatus(status);
         s.setPriority(priority);
@@ -431,7 +544,7 @@ public class TaskAnalyticsUTest {
 
     @Test
     void whenGetFastestCompletion_andEmptyList_thenReturnsZero() {
-        long result = taskService.getFastestCompletionTime(Collections.emptyList());
+        long result = SnapshotAccumulator.ofTasks(Collections.emptyList()).fastestCompletionHours();
         assertEquals(0L, result);
     }
 
@@ -441,7 +554,7 @@ public class TaskAnalyticsUTest {
                 snap(LocalDateTime.now(), null),
                 snap(LocalDateTime.now().minusDays(1), null));
 
-        long result = taskService.getFastestCompletionTime(tasks);
+        long result = SnapshotAccumulator.ofTasks(tasks).fastestCompletionHours();
 
         assertEquals(0L, result);
     }
@@ -456,7 +569,7 @@ public class TaskAnalyticsUTest {
                 snap(now.minusHours(7),  now)
         );
 
-        long result = taskService.getFastestCompletionTime(tasks);
+        long result = SnapshotAccumulator.ofTasks(tasks).fastestCompletionHours();
 
         assertEquals(3L, result);
     }
@@ -465,50 +578,64 @@ public class TaskAnalyticsUTest {
     @Test
     void whenGetLifetimeOverdueTasks_thenFiltersCorrectly() {
         List<TaskSnapshot> tasks = List.of(
-                snap("OVERDUE", true),
-                snap("OVERDUE", false),
-                snap("COMPLETED", true)
+                snap(TaskStatus.OVERDUE, true),
+                snap(TaskStatus.OVERDUE, false),
+                snap(TaskStatus.COMPLETED, true)
         );
 
-        List<TaskSnapshot> result = taskService.getLifetimeOverdueTasks(tasks);
+        int count = SnapshotAccumulator.ofTasks(tasks).getDeletedOverdue();
 
-        assertEquals(1, result.size());
-        assertEquals("OVERDUE", result.get(0).getStatus());
-        assertTrue(result.get(0).isDeleted());
+        assertEquals(1, count);
     }
 
     @Test
     void whenGetAbandonedLifetimeTasks_thenFiltersCorrectly() {
         List<TaskSnapshot> tasks = List.of(
-                snap("TODO", true),
-                snap("IN_PROGRESS", true),
-                snap("COMPLETED", true),
-                snap("OVERDUE", false)
+                snap(TaskStatus.TODO, true),
+                snap(TaskStatus.IN_PROGRESS, true),
+                snap(TaskStatus.COMPLETED, true),
+                snap(TaskStatus.OVERDUE, false)
         );
 
-        List<TaskSnapshot> result = taskService.getAbandonedLifetimeTasks(tasks);
+        int count = SnapshotAccumulator.ofTasks(tasks).getDeletedIncomplete();
+
+        assertEquals(2, count);
+    }
 
-        assertEquals(2, result.size());
-        assertTrue(result.stream().allMatch(t -> t.isDeleted()));
-        assertTrue(result.stream().noneMatch(t -> t.getStatus().equals("COMPLETED")));
+    private TaskAnalyticsRequest request(TaskStatus status, TaskPriority priority, boolean deleted, LocalDateTime created, LocalDateTime completed) {
+        return TaskAnalyticsRequest.builder()
+                .taskId(UUID.randomUUID())
+                .status(status)
+                .priority(priority)
+                .deleted(deleted)
+                .createdOn(created)
+                .completedOn(completed)
+                .build();
     }
 
-    private TaskSnapshot snap(LocalDateTime created, LocalDateTime completed) {
-        TaskSnapshot t = new TaskSnapshot();
+    private TaskSnapshot snap(TaskStatus status, TaskPriority priority, boolean deleted, LocalDateTime created, LocalDateTime completed) {
+        TaskSnapshot t = snap(status, priority);
+        t.setDeleted(deleted);
         t.setCreatedOn(created);
         t.setCompletedOn(completed);
+        t.setCompletionSeconds(SnapshotAccumulator.completionSeconds(created, completed));
         return t;
     }
 
-    private TaskSnapshot snap(String status) {
-        TaskSnapshot t = new TaskSnapshot();
-        t.setStatus(status);
+    private TaskSnapshot snap(LocalDateTime created, LocalDateTime completed) {
+        TaskSnapshot t = snap(completed == null ? TaskStatus.IN_PROGRESS : TaskStatus.COMPLETED);
+        t.setCreatedOn(created);
+        t.setCompletedOn(completed);
+        t.setCompletionSeconds(SnapshotAccumulator.completionSeconds(created, completed));
         return t;
     }
 
-    private TaskSnapshot snap(String status, boolean deleted) {
-        TaskSnapshot t = new TaskSnapshot();
-        t.setStatus(status);
+    private TaskSnapshot snap(TaskStatus status) {
+        return snap(status, TaskPriority.MEDIUM);
+    }
+
+    private TaskSnapshot snap(TaskStatus status, boolean deleted) {
+        TaskSnapshot t = snap(status);
         t.setDeleted(deleted);
         return t;
     }
@@ -0,0 +1,108 @@
+package com.example.analytics_svc.task_analytics;
+
+import com.example.analytics_svc.model.TaskAnalytics;
+import com.example.analytics_svc.repository.TaskAnalyticsRepository;
+import com.example.analytics_svc.service.TaskLeaderboard;
+import com.example.analytics_svc.web.dto.LeaderboardEntry;
+import com.example.analytics_svc.web.dto.LeaderboardMetric;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@ExtendWith(MockitoExtension.class)
+public class TaskLeaderboardUTest {
+
+    @Mock
+    private TaskAnalyticsRepository taskAnalyticsRepository;
+
+    @InjectMocks
+    private TaskLeaderboard taskLeaderboard;
+
+    @Test
+    void whenUsersAreUpdated_thenPagesAreOrderedByCompletionRate() {
+        UUID low = UUID.randomUUID();
+        UUID high = UUID.randomUUID();
+        UUID middle = UUID.randomUUID();
+
+        taskLeaderboard.update(analytics(low, 1, 10.0, 5));
+        taskLeaderboard.update(analytics(high, 1, 90.0, 50));
+        taskLeaderboard.update(analytics(middle, 1, 50.0, 20));
+
+        List<LeaderboardEntry> first = taskLeaderboard.getPage(LeaderboardMetric.COMPLETION_RATE, 0, 2);
+        List<LeaderboardEntry> second = taskLeaderboard.getPage(LeaderboardMetric.COMPLETION_RATE, 1, 2);
+
+        assertEquals(List.of(high, middle), first.stream().map(LeaderboardEntry::getUserId).toList());
+        assertEquals(List.of(low), second.stream().map(LeaderboardEntry::getUserId).toList());
+        assertEquals(3, second.get(0).getRank());
+    }
+
+    @Test
+    void whenUserIsUpdatedAgain_thenOnlyNewestVersionIsRanked() {
+        UUID userId = UUID.randomUUID();
+        UUID other = UUID.randomUUID();
+
+        taskLeaderboard.update(analytics(userId, 1, 20.0, 30));
+        taskLeaderboard.update(analytics(other, 1, 50.0, 10));
+        taskLeaderboard.update(analytics(userId, 2, 80.0, 4));
+        taskLeaderboard.update(analytics(userId, 1, 20.0, 30));
+
+        List<LeaderboardEntry> byRate = taskLeaderboard.getPage(LeaderboardMetric.COMPLETION_RATE, 0, 10);
+        List<LeaderboardEntry> byFastest = taskLeaderboard.getPage(LeaderboardMetric.FASTEST_COMPLETION, 0, 10);
+
+        assertEquals(List.of(userId, other), byRate.stream().map(LeaderboardEntry::getUserId).toList());
+        assertEquals(80.0, byRate.get(0).getValue());
+        assertEquals(List.of(userId, other), byFastest.stream().map(LeaderboardEntry::getUserId).toList());
+        assertEquals(4, byFastest.get(0).getValue());
+    }
+
+    @Test
+    void whenUserHasNoCompletedTasks_thenNotRankedByFastestCompletion() {
+        UUID userId = UUID.randomUUID();
+
+        taskLeaderboard.update(TaskAnalytics.builder().userId(userId).version(1).totalTasks(3).build());
+
+        assertEquals(1, taskLeaderboard.getPage(LeaderboardMetric.COMPLETION_RATE, 0, 10).size());
+        assertEquals(0, taskLeaderboard.getPage(LeaderboardMetric.FASTEST_COMPLETION, 0, 10).size());
+    }
+
+    @Test
+    void whenPageStartsPastTheLastRankedUser_thenPageIsEmpty() {
+        taskLeaderboard.update(analytics(UUID.randomUUID(), 1, 10.0, 5));
+        taskLeaderboard.update(analytics(UUID.randomUUID(), 1, 90.0, 50));
+
+        assertEquals(1, taskLeaderboard.getPage(LeaderboardMetric.COMPLETION_RATE, 1, 1).size());
+        assertEquals(0, taskLeaderboard.getPage(LeaderboardMetric.COMPLETION_RATE, 1, 2).size());
+        assertEquals(0, taskLeaderboard.getPage(LeaderboardMetric.COMPLETION_RATE, Integer.MAX_VALUE, 100).size());
+    }
+
+    @Test
+    void whenUserLeavesARanking_thenLaterPagesAreEmpty() {
+        UUID userId = UUID.randomUUID();
+        taskLeaderboard.update(analytics(userId, 1, 10.0, 5));
+        taskLeaderboard.update(analytics(UUID.randomUUID(), 1, 90.0, 50));
+
+        taskLeaderboard.update(TaskAnalytics.builder().userId(userId).version(2).totalTasks(0).build());
+
+        assertEquals(1, taskLeaderboard.getPage(LeaderboardMetric.COMPLETION_RATE, 0, 1).size());
+        assertEquals(0, taskLeaderboard.getPage(LeaderboardMetric.COMPLETION_RATE, 1, 1).size());
+        assertEquals(0, taskLeaderboard.getPage(LeaderboardMetric.FASTEST_COMPLETION, 1, 1).size());
+    }
+
+    private TaskAnalytics analytics(UUID userId, long version, double completionRate, long fastestCompletionTime) {
+        return TaskAnalytics.builder()
+                .userId(userId)
+                .version(version)
+                .totalTasks(10)
+                .completionRate(completionRate)
+                .lifetimeCompletionTimeCount(1)
+                .fastestCompletionTime(fastestCompletionTime)
+                .build();
+    }
+}
@@ -1,26 +1,38 @@
 package com.example.analytics_svc.web;
 
 import com.example.analytics_svc.model.ProjectAnalytics;
+import com.example.analytics_svc.model.ProjectStatus;
 import com.example.analytics_svc.repository.ProjectAnalyticsRepository;
-import com.example.analytics_svc.repository.ProjectSnapshotRepository;
+import com.example.analytics_svc.repository.ProjectAnalyticsView;
+import com.example.analytics_svc.service.AnalyticsCache;
+import com.example.analytics_svc.service.AsyncUpsertService;
+import com.example.analytics_svc.service.BulkSyncService;
 import com.example.analytics_svc.service.ProjectService;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.data.projection.SpelAwareProxyProjectionFactory;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
 
+import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
+import java.util.function.Function;
 
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -30,20 +42,32 @@ public class ProjectAnalyticsApiTest {
     @MockitoBean
     private ProjectService projectService;
     @MockitoBean
-    private ProjectSnapshotRepository snapshotRepository;
-    @MockitoBean
     private ProjectAnalyticsRepository analyticsRepository;
+    @MockitoBean
+    private AsyncUpsertService asyncUpsertService;
+    @MockitoBean
+    private AnalyticsCache analyticsCache;
+    @MockitoBean
+    private BulkSyncService bulkSyncService;
 
     @Autowired
     private MockMvc mockMvc;
 
+    @BeforeEach
+    void setUp() {
+        when(analyticsCache.getProjectAnalytics(any(), any())).thenAnswer(invocation -> {
+            Function<UUID, ProjectAnalytics> loader = invocation.getArgument(1);
+            return loader.apply(invocation.getArgument(0));
+        });
+    }
+
     @Test
     void postUpdateAnalytics_withEmptyRequests_shouldEmptyAnalytics() throws Exception {
         UUID userId = UUID.randomUUID();
 
         ProjectAnalytics emptyProjectAnalytics = new ProjectAnalytics();
 
-        when(projectService.emptyAnalytics(userId)).thenReturn(emptyProjectAnalytics);
+        when(projectService.upsertProjects(List.of(), userId)).thenReturn(emptyProjectAnalytics);
 
         MockHttpServletRequestBuilder httpRequest = post("/api/v1/projects/" + userId)
                 .contentType(MediaType.APPLICATION_JSON)
@@ -51,6 +75,8 @@ public class ProjectAnalyticsApiTest {
 
         mockMvc.perform(httpRequest)
                 .andExpect(status().isOk());
+
+        verify(projectService).upsertProjects(List.of(), userId);
     }
 
     @Test
@@ -69,9 +95,15 @@ public class ProjectAnalyticsApiTest {
                 .contentType(MediaType.APPLICATION_JSON)
                 .content("""
                             [
-                              { "status": "DONE", "priority": "LOW" }
+                              {
+                                "userId": "%s",
+                                "projectId": "5b0f1d7c-3c1e-4c4e-9d0a-2f6a5a9e7b11",
+                                "status": "COMPLETED",
+                                "createdOn": "2025-03-01T09:00:00",
+                                "dueDate": "2025-03-15T09:00:00"
+                              }
                             ]
-                        """);
+                        """.formatted(userId));
 
         mockMvc.perform(httpRequest)
                 .andExpect(status().isOk())
@@ -81,7 +113,34 @@ public class ProjectAnalyticsApiTest {
     }
 
     @Test
-    void getProjectAnalytics_withEmptyAnalytics_shouldEmptyAnalytics() throws Exception {
+    void postUpdateAnalytics_withAsyncEnabled_shouldAcceptWithoutWriting() throws Exception {
+        UUID userId = UUID.randomUUID();
+
+        when(asyncUpsertService.isEnabled()).thenReturn(true);
+        when(asyncUpsertService.submitProjects(any(), eq(userId))).thenReturn(Optional.empty());
+
+        MockHttpServletRequestBuilder httpRequest = post("/api/v1/projects/" + userId)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("""
+                            [
+                              {
+                                "userId": "%s",
+                                "projectId": "5b0f1d7c-3c1e-4c4e-9d0a-2f6a5a9e7b11",
+                                "status": "ACTIVE",
+                                "createdOn": "2025-03-01T09:00:00",
+                                "dueDate": "2025-03-15T09:00:00"
+                              }
+                            ]
+                        """.formatted(userId));
+
+        mockMvc.perform(httpRequest)
+                .andExpect(status().isAccepted());
+
+        verify(projectService, never()).upsertProjects(any(), any());
+    }
+
+    @Test
+    void getProjectAnalytics_withEmptyAnalytics_shouldReturnEmptyAnalyticsWithoutSaving() throws Exception {
         UUID userId = UUID.randomUUID();
         ProjectAnalytics empty = new ProjectAnalytics();
 
@@ -95,7 +154,104 @@ public class ProjectAnalyticsApiTest {
                 .andExpect(status().isOk());
 
         verify(projectService).emptyAnalytics(userId);
-        verify(analyticsRepository).save(empty);
+        verify(analyticsRepository, never()).save(any());
+    }
+
+    @Test
+    void getProjectAnalytics_withMatchingETag_shouldReturnNotModified() throws Exception {
+        UUID userId = UUID.randomUUID();
+        ProjectAnalytics analytics = ProjectAnalytics.builder()
+                .userId(userId)
+                .totalProjects(3)
+                .version(7)
+                .build();
+
+        when(analyticsRepository.findViewByUserId(userId))
+                .thenReturn(Optional.of(new SpelAwareProxyProjectionFactory().createProjection(ProjectAnalyticsView.class, analytics)));
+
+        mockMvc.perform(get("/api/v1/projects/" + userId))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"7\""));
+
+        mockMvc.perform(get("/api/v1/projects/" + userId).header("If-None-Match", "\"7\""))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
     }
 
+    @Test
+    void postUpdateAnalytics_withUnknownStatus_shouldReturnBadRequest() throws Exception {
+        UUID userId = UUID.randomUUID();
+
+        MockHttpServletRequestBuilder httpRequest = post("/api/v1/projects/" + userId)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("""
+                            [
+                              { "status": "DONE" }
+                            ]
+                        """);
+
+        mockMvc.perform(httpRequest)
+                .andExpect(status().isBadRequest());
+
+        verify(projectService, never()).upsertProjects(any(), any());
+    }
+
+    @Test
+    void postApplyEvent_withoutType_shouldReturnBadRequest() throws Exception {
+        UUID userId = UUID.randomUUID();
+
+        MockHttpServletRequestBuilder httpRequest = post("/api/v1/projects/" + userId + "/events")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("""
+                            {
+                              "project": {
+                                "userId": "%s",
+                                "projectId": "5b0f1d7c-3c1e-4c4e-9d0a-2f6a5a9e7b11",
+                                "status": "ACTIVE",
+                                "createdOn": "2025-03-01T09:00:00",
+                                "dueDate": "2025-03-15T09:00:00"
+                              }
+                            }
+                        """.formatted(userId));
+
+        mockMvc.perform(httpRequest)
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("type must not be null"));
+
+        verify(projectService, never()).applyEvent(any(), any());
+    }
+
+    @Test
+    void postUpdateAnalytics_withMissingFields_shouldReturnBadRequest() throws Exception {
+        UUID userId = UUID.randomUUID();
+
+        MockHttpServletRequestBuilder httpRequest = post("/api/v1/projects/" + userId)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("""
+                            [
+                              { "status": "COMPLETED" }
+                            ]
+                        """);
+
+        mockMvc.perform(httpRequest)
+                .andExpect(status().isBadRequest());
+
+        verify(projectService, never()).upsertProjects(any(), any());
+    }
+
+    @Test
+    void postBulkUpdateAnalytics_withMissingFields_shouldReturnBadRequest() throws Exception {
+        UUID userId = UUID.randomUUID();
+
+        MockHttpServletRequestBuilder httpRequest = post("/api/v1/projects/bulk")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("""
+                            { "%s": [ { "status": "ACTIVE" } ] }
+                        """.formatted(userId));
+
+        mockMvc.perform(httpRequest)
+                .andExpect(status().isBadRequest());
+
+        verify(bulkSyncService, never()).syncProjects(any());
+    }
 }
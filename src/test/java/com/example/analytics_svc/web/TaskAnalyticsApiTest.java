@@ -0,0 +1,220 @@
+package com.example.analytics_svc.web;
+
+import com.example.analytics_svc.model.TaskAnalytics;
+import com.example.analytics_svc.model.TaskPriority;
+import com.example.analytics_svc.model.TaskStatus;
+import com.example.analytics_svc.repository.TaskAnalyticsRepository;
+import com.example.analytics_svc.service.AnalyticsCache;
+import com.example.analytics_svc.service.AsyncUpsertService;
+import com.example.analytics_svc.service.BulkSyncService;
+import com.example.analytics_svc.service.TaskDailyRollupService;
+import com.example.analytics_svc.service.TaskLeaderboard;
+import com.example.analytics_svc.service.TaskService;
+import com.example.analytics_svc.web.codec.TaskAnalyticsBinaryCodec;
+import com.example.analytics_svc.web.dto.TaskAnalyticsRequest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.UUID;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(TaskSnapshotController.class)
+public class TaskAnalyticsApiTest {
+
+    @MockitoBean
+    private TaskService taskService;
+    @MockitoBean
+    private TaskAnalyticsRepository taskAnalyticsRepository;
+    @MockitoBean
+    private AsyncUpsertService asyncUpsertService;
+    @MockitoBean
+    private AnalyticsCache analyticsCache;
+    @MockitoBean
+    private BulkSyncService bulkSyncService;
+    @MockitoBean
+    private TaskLeaderboard taskLeaderboard;
+    @MockitoBean
+    private TaskDailyRollupService dailyRollupService;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        // Drain the payload like the real service does, so decoding errors surface during the call.
+        when(taskService.upsertTaskStream(any(), any())).thenAnswer(invocation -> {
+            Iterator<TaskAnalyticsRequest> tasks = invocation.getArgument(0);
+            tasks.forEachRemaining(task -> { });
+            return TaskAnalytics.builder().userId(invocation.getArgument(1)).build();
+        });
+    }
+
+    @Test
+    void postBinary_withTruncatedPayload_shouldReturnBadRequest() throws Exception {
+        UUID userId = UUID.randomUUID();
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        TaskAnalyticsBinaryCodec.encode(List.of(task()), out);
+        byte[] truncated = Arrays.copyOf(out.toByteArray(), out.size() - 5);
+
+        mockMvc.perform(post("/api/v1/tasks/" + userId).contentType(TaskAnalyticsBinaryCodec.MEDIA_TYPE).content(truncated))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("Payload ended with 1 tasks still expected"));
+    }
+
+    @Test
+    void postBinary_withUnknownStatusCode_shouldReturnBadRequest() throws Exception {
+        UUID userId = UUID.randomUUID();
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        TaskAnalyticsBinaryCodec.encode(List.of(task()), out);
+        byte[] payload = out.toByteArray();
+        payload[4 + 16] = 9;
+
+        mockMvc.perform(post("/api/v1/tasks/" + userId).contentType(TaskAnalyticsBinaryCodec.MEDIA_TYPE).content(payload))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("Unknown code [9]"));
+    }
+
+    @Test
+    void postBinary_withOutOfRangeTimestamp_shouldReturnBadRequest() throws Exception {
+        UUID userId = UUID.randomUUID();
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        TaskAnalyticsBinaryCodec.encode(List.of(task()), out);
+        byte[] payload = out.toByteArray();
+        ByteBuffer.wrap(payload).putLong(4 + 16 + 3, Long.MAX_VALUE - 1);
+
+        mockMvc.perform(post("/api/v1/tasks/" + userId).contentType(TaskAnalyticsBinaryCodec.MEDIA_TYPE).content(payload))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("Timestamp [%d] is out of range".formatted(Long.MAX_VALUE - 1)));
+    }
+
+    @Test
+    void postStream_withMalformedJson_shouldReturnBadRequest() throws Exception {
+        UUID userId = UUID.randomUUID();
+
+        mockMvc.perform(post("/api/v1/tasks/" + userId + "/stream")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("""
+                                    [
+                                      { "status": "TODO" },
+                                      { "status":
+                                """))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void postStream_withUnknownStatus_shouldReturnBadRequest() throws Exception {
+        UUID userId = UUID.randomUUID();
+
+        mockMvc.perform(post("/api/v1/tasks/" + userId + "/stream")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("""
+                                    [
+                                      { "status": "DONE" }
+                                    ]
+                                """))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void postStream_withValidJson_shouldReturnAnalytics() throws Exception {
+        UUID userId = UUID.randomUUID();
+
+        mockMvc.perform(post("/api/v1/tasks/" + userId + "/stream")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("""
+                                    [
+                                      {
+                                        "taskId": "0c6f3a52-8f2b-4d5e-a1c7-7d2e4b9f1a33",
+                                        "status": "TODO",
+                                        "priority": "LOW",
+                                        "createdOn": "2025-03-01T09:00:00",
+                                        "dueDate": "2025-03-08T09:00:00"
+                                      }
+                                    ]
+                                """))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.userId").value(userId.toString()));
+    }
+
+    @Test
+    void postStream_withMissingFields_shouldReturnBadRequest() throws Exception {
+        UUID userId = UUID.randomUUID();
+
+        mockMvc.perform(post("/api/v1/tasks/" + userId + "/stream")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("""
+                                    [
+                                      {
+                                        "taskId": "0c6f3a52-8f2b-4d5e-a1c7-7d2e4b9f1a33",
+                                        "priority": "LOW",
+                                        "createdOn": "2025-03-01T09:00:00",
+                                        "dueDate": "2025-03-08T09:00:00"
+                                      }
+                                    ]
+                                """))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("status must not be null"));
+    }
+
+    @Test
+    void postUpdateAnalytics_withMissingFields_shouldReturnBadRequest() throws Exception {
+        UUID userId = UUID.randomUUID();
+
+        mockMvc.perform(post("/api/v1/tasks/" + userId)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("""
+                                    [
+                                      { "status": "TODO" }
+                                    ]
+                                """))
+                .andExpect(status().isBadRequest());
+
+        verify(taskService, never()).upsertTasks(any(), any());
+    }
+
+    @Test
+    void postBulkUpdateAnalytics_withMissingFields_shouldReturnBadRequest() throws Exception {
+        UUID userId = UUID.randomUUID();
+
+        mockMvc.perform(post("/api/v1/tasks/bulk")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("""
+                                    { "%s": [ { "status": "TODO" } ] }
+                                """.formatted(userId)))
+                .andExpect(status().isBadRequest());
+
+        verify(bulkSyncService, never()).syncTasks(any());
+    }
+
+    private TaskAnalyticsRequest task() {
+        LocalDateTime now = LocalDateTime.of(2025, 3, 10, 12, 0);
+        return TaskAnalyticsRequest.builder()
+                .taskId(UUID.randomUUID())
+                .status(TaskStatus.TODO)
+                .priority(TaskPriority.LOW)
+                .createdOn(now)
+                .dueDate(now.plusDays(7))
+                .build();
+    }
+}